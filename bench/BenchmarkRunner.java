@@ -0,0 +1,483 @@
+package bench;
+
+import manager.JournalStore;
+import manager.UnifiedJournalManager;
+import model.AccountType;
+import model.BalanceSheet;
+import model.IncomeStatement;
+import model.JournalEntry;
+import services.BalanceHistory;
+import services.BalanceSheetService;
+import services.GeneralLedger;
+import services.IncomeStatementService;
+import services.PeriodCheckpoints;
+import services.ReportEngine;
+import server.Json;
+import services.StreamingLedgerExport;
+import services.TrialBalanceCalculator;
+import storage.BinaryCodec;
+import utils.TextSink;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Scanner;
+import java.util.regex.Pattern;
+
+/**
+ * Benchmarks for the ingestion and report paths over synthetic journals.
+ *
+ * Every benchmark runs warm-up iterations, then measured iterations, and
+ * prints time per operation with allocation figures: allocation rate (MB/s),
+ * bytes allocated per operation, and GC count/time during the measurement.
+ * Allocation is read from the benchmark thread's allocation counter, so it
+ * covers the single-threaded paths measured here.
+ *
+ * This is a plain timing loop, not JMH: all benchmarks share one JVM (no
+ * forks), and results only escape through a volatile field, not a
+ * blackhole. Use the figures to compare runs of the same benchmark on
+ * the same machine, not as absolute per-operation costs.
+ *
+ * Settings (system properties):
+ * <pre>
+ * bench.sizes       journal sizes            10000,1000000,10000000
+ * bench.include     benchmark name regex     .*
+ * bench.accounts    distinct accounts        200
+ * bench.days        date spread in days      1825
+ * bench.approved    approved ratio           0.8
+ * bench.warmup      warm-up iterations       3
+ * bench.iterations  measured iterations      5
+ * </pre>
+ *
+ * Run from the compiled classes, e.g.
+ * {@code java -Xmx16g -Dbench.sizes=10000,1000000 -cp out bench.BenchmarkRunner}
+ * (10M entries need a large heap: the journal, its indexes and a full ledger).
+ */
+public class BenchmarkRunner {
+
+    private static final int WARMUP = Integer.getInteger("bench.warmup", 3);
+    private static final int ITERATIONS = Integer.getInteger("bench.iterations", 5);
+
+    // Results are written here so the JIT cannot drop the measured work
+    private static volatile Object sink;
+
+    // Console output of the interactive filter is measured but not shown
+    private static final PrintStream DISCARD = new PrintStream(OutputStream.nullOutputStream());
+
+    /** One benchmark over a prepared journal; returns the operations it performed. */
+    private interface Benchmark {
+        long run(Fixture fixture) throws IOException;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Pattern include = Pattern.compile(System.getProperty("bench.include", ".*"));
+        Map<String, Benchmark> benchmarks = benchmarks();
+
+        System.out.printf("%-42s %12s %5s %14s %12s %10s %14s %8s %10s%n",
+                "Benchmark", "entries", "cnt", "score", "error", "units",
+                "alloc.norm B/op", "gc.count", "gc.time ms");
+        for (String size : System.getProperty("bench.sizes", "10000,1000000,10000000").split(",")) {
+            int entries = Integer.parseInt(size.trim());
+            Fixture fixture = new Fixture(entries);
+            for (Map.Entry<String, Benchmark> b : benchmarks.entrySet()) {
+                if (!include.matcher(b.getKey()).matches()) continue;
+                measure(b.getKey(), b.getValue(), fixture).print();
+            }
+            if (fixture.encoded != null) {
+                System.out.printf("%-42s %12d %5s %14.1f %12s %10s%n", "codec.size", entries, "",
+                        (double) fixture.encoded.limit() / entries, "", "B/entry");
+            }
+        }
+    }
+
+    private static Map<String, Benchmark> benchmarks() {
+        Map<String, Benchmark> benchmarks = new LinkedHashMap<>();
+
+        // Ingestion: every entry through addEntry (indexes updated on each append); score per entry
+        benchmarks.put("addEntry", f -> {
+            List<JournalEntry> entries = f.entryObjects();
+            UnifiedJournalManager manager = new UnifiedJournalManager(new JournalStore());
+            for (JournalEntry e : entries) manager.addEntry(e);
+            sink = manager;
+            return entries.size();
+        });
+
+        // Interactive filter (all three criteria); the printed matches go to a discarding stream
+        benchmarks.put("filterByMultipleCriteria", f -> {
+            PrintStream console = System.out;
+            System.setOut(DISCARD);
+            try {
+                f.manager.filterByMultipleCriteria(new Scanner("4\napproved\nuser 3\n5000\n"));
+            } finally {
+                System.setOut(console);
+            }
+            return 1;
+        });
+
+        // Same criteria without console output (index intersection + materialization)
+        benchmarks.put("filter", f -> {
+            sink = f.manager.filter("approved", "user 3", 5000.0);
+            return 1;
+        });
+
+        benchmarks.put("trialBalance.calculate", f -> {
+            TrialBalanceCalculator calc = new TrialBalanceCalculator();
+            calc.calculate(f.manager.snapshot());
+            sink = calc;
+            return 1;
+        });
+
+        benchmarks.put("ledger.build", f -> {
+            GeneralLedger ledger = new GeneralLedger();
+            ledger.build(f.manager.snapshot());
+            sink = ledger;
+            return 1;
+        });
+
+        // Full ledger text through a buffered sink into a discarding writer (ledger built once)
+        benchmarks.put("ledger.writeAll", f -> {
+            TextSink out = new TextSink(Writer.nullWriter());
+            f.ledger().writeAll(out);
+            out.flush();
+            return 1;
+        });
+
+        // Same text by external merge sort of the store (in-memory runs of 64k lines, spilled to temp files)
+        benchmarks.put("ledger.export", f -> {
+            TextSink out = new TextSink(Writer.nullWriter());
+            new StreamingLedgerExport(null, 1 << 16).export(f.store, out);
+            out.flush();
+            return 1;
+        });
+
+        // Columnar scan of the whole store for the last year of the spread
+        benchmarks.put("incomeStatement.generate", f -> {
+            sink = f.incomeStatements.generate(f.store, f.yearStart, f.end);
+            return 1;
+        });
+
+        // Same statement from the prefix-sum history (built once per journal)
+        benchmarks.put("incomeStatement.history", f -> {
+            sink = f.incomeStatements.generate(f.history(), f.yearStart, f.end);
+            return 1;
+        });
+
+        // Entry-object scan (List path), with the year's income statement precomputed
+        benchmarks.put("balanceSheet.generate", f -> {
+            sink = f.balanceSheets.generate(f.manager.entriesUpTo(f.end), f.end, f.yearIncome());
+            return 1;
+        });
+
+        // Same balance sheet from month-end checkpoints
+        benchmarks.put("balanceSheet.checkpoints", f -> {
+            sink = f.balanceSheets.generate(f.checkpoints(), f.end, f.yearIncome());
+            return 1;
+        });
+
+        // Fused single pass behind ReportEngine.generate (parallel from -Dreports.parallelRows rows on a multi-core host)
+        benchmarks.put("reports.generate", f -> {
+            sink = f.reports.generate(f.store, f.yearStart, f.end);
+            return 1;
+        });
+
+        // Same three reports summed on all cores (common ForkJoinPool), whatever the journal size
+        benchmarks.put("reports.generateParallel", f -> {
+            sink = f.reports.generateParallel(f.store, f.yearStart, f.end);
+            return 1;
+        });
+
+        // Columnar parallel income statement, to compare with incomeStatement.generate
+        benchmarks.put("incomeStatement.generateParallel", f -> {
+            sink = f.incomeStatements.generateParallel(f.store, f.yearStart, f.end);
+            return 1;
+        });
+
+        // Columnar parallel balance sheet, to compare with balanceSheet.generate
+        benchmarks.put("balanceSheet.generateParallel", f -> {
+            sink = f.balanceSheets.generateParallel(f.store, f.end, f.yearIncome());
+            return 1;
+        });
+
+        // Binary codec: entry objects → one reused 1 MB direct buffer (drained when full); score per entry
+        benchmarks.put("codec.encode", f -> {
+            ByteBuffer buf = f.codecBuffer();
+            buf.clear();
+            BinaryCodec.Encoder encoder = new BinaryCodec.Encoder();
+            encoder.writeHeader(buf);
+            for (JournalEntry e : f.entryObjects()) {
+                if (!encoder.write(e, buf)) {
+                    buf.clear();
+                    encoder.write(e, buf);
+                }
+            }
+            sink = buf;
+            return f.entries;
+        });
+
+        // Encoded stream → entry objects (allocation = the decoded object graph); score per entry
+        benchmarks.put("codec.decode", f -> {
+            ByteBuffer buf = f.encoded().duplicate();
+            BinaryCodec.Decoder decoder = new BinaryCodec.Decoder();
+            decoder.readHeader(buf);
+            JournalEntry last = null;
+            while (buf.hasRemaining()) last = decoder.readEntry(buf);
+            sink = last;
+            return f.entries;
+        });
+
+        // Baseline for the codec: the same entries as JSON text (HTTP API shape); score per entry
+        benchmarks.put("json.encode", f -> {
+            Json.Writer json = null;
+            int n = 0;
+            for (JournalEntry e : f.entryObjects()) {
+                if (n++ % 1024 == 0) json = new Json.Writer();
+                json.beginObject()
+                        .name("transactionId").value(e.getTransactionID())
+                        .name("date").value(e.getDate().toString())
+                        .name("debitAccount").value(e.getDebitTransaction().getAccountName())
+                        .name("creditAccount").value(e.getCreditTransaction().getAccountName())
+                        .name("amount").amount(e.getAmountMinor())
+                        .name("createdBy").value(e.getCreatedBy())
+                        .name("status").value(e.getStatus())
+                        .endObject();
+            }
+            sink = json;
+            return f.entries;
+        });
+
+        // Round trip of the year's income statement and a balance sheet through the codec
+        benchmarks.put("codec.reports", f -> {
+            ByteBuffer buf = f.codecBuffer();
+            buf.clear();
+            BinaryCodec.Encoder encoder = new BinaryCodec.Encoder();
+            encoder.write(f.yearIncome(), buf);
+            encoder.write(f.yearBalanceSheet(), buf);
+            buf.flip();
+            BinaryCodec.Decoder decoder = new BinaryCodec.Decoder();
+            sink = decoder.readIncomeStatement(buf);
+            sink = decoder.readBalanceSheet(buf);
+            return 1;
+        });
+        return benchmarks;
+    }
+
+    /* ---------------- Measurement ---------------- */
+
+    private static Result measure(String name, Benchmark benchmark, Fixture fixture) throws IOException {
+        for (int i = 0; i < WARMUP; i++) benchmark.run(fixture);
+
+        double[] nanosPerOp = new double[ITERATIONS];
+        long allocated = 0;
+        long ops = 0;
+        long nanos = 0;
+        long gcCount = gcCount();
+        long gcTime = gcTimeMillis();
+        for (int i = 0; i < ITERATIONS; i++) {
+            long bytesBefore = allocatedBytes();
+            long start = System.nanoTime();
+            long n = benchmark.run(fixture);
+            long elapsed = System.nanoTime() - start;
+            allocated += allocatedBytes() - bytesBefore;
+            ops += n;
+            nanos += elapsed;
+            nanosPerOp[i] = (double) elapsed / n;
+        }
+        return new Result(name, fixture.entries, nanosPerOp, (double) allocated / ops,
+                allocated / (nanos / 1e9) / (1024 * 1024), gcCount() - gcCount, gcTimeMillis() - gcTime);
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getCurrentThreadAllocatedBytes();
+    }
+
+    private static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) count += Math.max(0, gc.getCollectionCount());
+        return count;
+    }
+
+    private static long gcTimeMillis() {
+        long time = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) time += Math.max(0, gc.getCollectionTime());
+        return time;
+    }
+
+    private static final class Result {
+        final String name;
+        final int entries;
+        final double[] nanosPerOp;
+        final double bytesPerOp;
+        final double allocMBPerSec;
+        final long gcCount;
+        final long gcMillis;
+
+        Result(String name, int entries, double[] nanosPerOp, double bytesPerOp,
+               double allocMBPerSec, long gcCount, long gcMillis) {
+            this.name = name;
+            this.entries = entries;
+            this.nanosPerOp = nanosPerOp;
+            this.bytesPerOp = bytesPerOp;
+            this.allocMBPerSec = allocMBPerSec;
+            this.gcCount = gcCount;
+            this.gcMillis = gcMillis;
+        }
+
+        void print() {
+            double mean = 0;
+            for (double v : nanosPerOp) mean += v;
+            mean /= nanosPerOp.length;
+            double variance = 0;
+            for (double v : nanosPerOp) variance += (v - mean) * (v - mean);
+            double stdev = nanosPerOp.length > 1 ? Math.sqrt(variance / (nanosPerOp.length - 1)) : 0;
+
+            // Pick a readable unit for the time per operation
+            String unit = "ns/op";
+            double scale = 1;
+            if (mean >= 1e6) { unit = "ms/op"; scale = 1e6; }
+            else if (mean >= 1e3) { unit = "us/op"; scale = 1e3; }
+
+            System.out.printf("%-42s %12d %5d %14.3f %12.3f %10s %14.1f %8d %10d%n",
+                    name, entries, nanosPerOp.length, mean / scale, stdev / scale, unit,
+                    bytesPerOp, gcCount, gcMillis);
+            System.out.printf("%-42s %12d %5s %14.1f %12s %10s%n",
+                    name + ":alloc.rate", entries, "", allocMBPerSec, "", "MB/sec");
+        }
+    }
+
+    /* ---------------- Journal fixture ---------------- */
+
+    /** One generated journal and the services the benchmarks read it through. */
+    private static final class Fixture {
+        final int entries;
+        final JournalGenerator generator;
+        final JournalStore store;
+        final UnifiedJournalManager manager;
+        final IncomeStatementService incomeStatements = new IncomeStatementService(incomeChart());
+        final BalanceSheetService balanceSheets = new BalanceSheetService(balanceSheetChart());
+        final ReportEngine reports = new ReportEngine(incomeStatements, balanceSheets);
+        final LocalDate end;
+        final LocalDate yearStart;
+
+        private List<JournalEntry> entryObjects;
+        private BalanceHistory history;
+        private GeneralLedger ledger;
+        private PeriodCheckpoints checkpoints;
+        private IncomeStatement yearIncome;
+        private BalanceSheet yearBalanceSheet;
+        private ByteBuffer codecBuffer;
+        ByteBuffer encoded; // whole journal in the binary codec, built on first use
+
+        Fixture(int entries) {
+            this.entries = entries;
+            this.generator = new JournalGenerator()
+                    .entries(entries)
+                    .accounts(Integer.getInteger("bench.accounts", 200))
+                    .dateSpread(LocalDate.of(2020, 1, 1), Integer.getInteger("bench.days", 5 * 365))
+                    .approvedRatio(Double.parseDouble(System.getProperty("bench.approved", "0.8")));
+            this.store = generator.generateStore();
+            this.manager = new UnifiedJournalManager(store);
+            this.end = generator.getEnd();
+            this.yearStart = end.withDayOfYear(1);
+        }
+
+        // Entry objects for the ingestion benchmark, generated on first use
+        List<JournalEntry> entryObjects() {
+            if (entryObjects == null) entryObjects = generator.generate();
+            return entryObjects;
+        }
+
+        GeneralLedger ledger() {
+            if (ledger == null) {
+                ledger = new GeneralLedger();
+                ledger.build(manager.snapshot());
+            }
+            return ledger;
+        }
+
+        BalanceHistory history() {
+            if (history == null) {
+                history = new BalanceHistory();
+                manager.addListener(history);
+            }
+            return history;
+        }
+
+        PeriodCheckpoints checkpoints() {
+            if (checkpoints == null) {
+                checkpoints = new PeriodCheckpoints(manager);
+                manager.addListener(checkpoints);
+            }
+            return checkpoints;
+        }
+
+        IncomeStatement yearIncome() {
+            if (yearIncome == null) yearIncome = incomeStatements.generate(store, yearStart, end);
+            return yearIncome;
+        }
+
+        BalanceSheet yearBalanceSheet() {
+            if (yearBalanceSheet == null) {
+                yearBalanceSheet = balanceSheets.generate(manager.entriesUpTo(end), end, yearIncome());
+            }
+            return yearBalanceSheet;
+        }
+
+        ByteBuffer codecBuffer() {
+            if (codecBuffer == null) codecBuffer = ByteBuffer.allocateDirect(1024 * 1024);
+            return codecBuffer;
+        }
+
+        ByteBuffer encoded() {
+            if (encoded == null) {
+                ByteBuffer buf = ByteBuffer.allocate(64 * 1024 * 1024);
+                BinaryCodec.Encoder encoder = new BinaryCodec.Encoder();
+                encoder.writeHeader(buf);
+                for (JournalEntry e : entryObjects()) {
+                    while (!encoder.write(e, buf)) {
+                        ByteBuffer bigger = ByteBuffer.allocate(buf.capacity() * 2);
+                        buf.flip();
+                        buf = bigger.put(buf);
+                    }
+                }
+                buf.flip();
+                encoded = buf;
+            }
+            return encoded;
+        }
+    }
+
+    private static Map<String, AccountType> incomeChart() {
+        Map<String, AccountType> chart = new HashMap<>();
+        chart.put("Service Revenue", AccountType.REVENUE);
+        chart.put("Sales Revenue", AccountType.REVENUE);
+        chart.put("Interest Income", AccountType.REVENUE);
+        chart.put("Sales Returns", AccountType.CONTRA_REVENUE);
+        chart.put("Rent Expense", AccountType.EXPENSE);
+        chart.put("Salaries Expense", AccountType.EXPENSE);
+        chart.put("Utilities Expense", AccountType.EXPENSE);
+        chart.put("COGS", AccountType.EXPENSE);
+        return chart;
+    }
+
+    private static Map<String, BalanceSheetService.BSClass> balanceSheetChart() {
+        Map<String, BalanceSheetService.BSClass> chart = new HashMap<>();
+        chart.put("Cash", BalanceSheetService.BSClass.ASSET);
+        chart.put("Bank", BalanceSheetService.BSClass.ASSET);
+        chart.put("Accounts Receivable", BalanceSheetService.BSClass.ASSET);
+        chart.put("Inventory", BalanceSheetService.BSClass.ASSET);
+        chart.put("Equipment", BalanceSheetService.BSClass.ASSET);
+        chart.put("Accounts Payable", BalanceSheetService.BSClass.LIABILITY);
+        chart.put("Notes Payable", BalanceSheetService.BSClass.LIABILITY);
+        chart.put("Capital", BalanceSheetService.BSClass.EQUITY);
+        return chart;
+    }
+}
@@ -0,0 +1,152 @@
+package bench;
+
+import manager.JournalStore;
+import model.AccountRegistry;
+import model.CreditTransaction;
+import model.DebitTransaction;
+import model.JournalEntry;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Synthetic journal for benchmarks. Deterministic for a given seed.
+ *
+ * - accounts:      distinct accounts; the first ones are the names the default
+ *                  charts classify (Cash, Service Revenue, Rent Expense, ...),
+ *                  the rest are "Account N"
+ * - entries:       number of journal entries
+ * - start, days:   dates are spread uniformly over [start, start + days)
+ * - approvedRatio: share of approved entries; the rest are pending
+ * - creators:      distinct "user N" creators
+ *
+ * Amounts are uniform in [1.00, 10,000.00].
+ */
+public class JournalGenerator {
+
+    private static final String[] CHART_ACCOUNTS = {
+            "Cash", "Bank", "Accounts Receivable", "Inventory", "Equipment",
+            "Accounts Payable", "Notes Payable", "Capital",
+            "Service Revenue", "Sales Revenue", "Interest Income", "Sales Returns",
+            "Rent Expense", "Salaries Expense", "Utilities Expense", "COGS"
+    };
+
+    private int accounts = 50;
+    private int entries = 10_000;
+    private LocalDate start = LocalDate.of(2020, 1, 1);
+    private int days = 5 * 365;
+    private double approvedRatio = 0.8;
+    private int creators = 20;
+    private long seed = 42L;
+
+    public JournalGenerator accounts(int accounts) {
+        if (accounts < 2) throw new IllegalArgumentException("At least 2 accounts are required.");
+        this.accounts = accounts;
+        return this;
+    }
+
+    public JournalGenerator entries(int entries) {
+        if (entries < 0) throw new IllegalArgumentException("Entries must be >= 0.");
+        this.entries = entries;
+        return this;
+    }
+
+    public JournalGenerator dateSpread(LocalDate start, int days) {
+        if (days <= 0) throw new IllegalArgumentException("Days must be > 0.");
+        this.start = start;
+        this.days = days;
+        return this;
+    }
+
+    public JournalGenerator approvedRatio(double approvedRatio) {
+        if (approvedRatio < 0 || approvedRatio > 1) throw new IllegalArgumentException("Ratio must be in [0, 1].");
+        this.approvedRatio = approvedRatio;
+        return this;
+    }
+
+    public JournalGenerator creators(int creators) {
+        if (creators <= 0) throw new IllegalArgumentException("Creators must be > 0.");
+        this.creators = creators;
+        return this;
+    }
+
+    public JournalGenerator seed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    public int getEntries() {
+        return entries;
+    }
+
+    public LocalDate getStart() {
+        return start;
+    }
+
+    /** Last date an entry can have. */
+    public LocalDate getEnd() {
+        return start.plusDays(days - 1);
+    }
+
+    /** Generated entries as objects (e.g. to feed addEntry). */
+    public List<JournalEntry> generate() {
+        List<JournalEntry> list = new ArrayList<>(entries);
+        String[] names = accountNames();
+        String[] users = creatorNames();
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int i = 0; i < entries; i++) {
+            int debit = random.nextInt(names.length);
+            int credit = otherAccount(random, debit, names.length);
+            long amount = 100L + random.nextLong(1_000_000L);
+            list.add(new JournalEntry("TX" + i, start.plusDays(random.nextInt(days)),
+                    DebitTransaction.ofMinor(names[debit], amount),
+                    CreditTransaction.ofMinor(names[credit], amount),
+                    users[random.nextInt(users.length)],
+                    random.nextDouble() < approvedRatio ? "approved" : "pending"));
+        }
+        return list;
+    }
+
+    /** Same journal written straight into columnar storage (no entry objects). */
+    public JournalStore generateStore() {
+        JournalStore store = new JournalStore();
+        String[] names = accountNames();
+        String[] users = creatorNames();
+        int[] ids = new int[names.length];
+        for (int a = 0; a < names.length; a++) ids[a] = AccountRegistry.register(names[a]);
+        int firstDay = (int) start.toEpochDay();
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int i = 0; i < entries; i++) {
+            int debit = random.nextInt(names.length);
+            int credit = otherAccount(random, debit, names.length);
+            long amount = 100L + random.nextLong(1_000_000L);
+            int day = firstDay + random.nextInt(days);
+            String creator = users[random.nextInt(users.length)];
+            String status = random.nextDouble() < approvedRatio ? "approved" : "pending";
+            store.append("TX" + i, day, ids[debit], ids[credit], amount, creator, status);
+        }
+        return store;
+    }
+
+    // Draws in the same order for both generators, so they produce the same journal.
+    private static int otherAccount(SplittableRandom random, int account, int count) {
+        int other = random.nextInt(count - 1);
+        return other >= account ? other + 1 : other;
+    }
+
+    private String[] accountNames() {
+        String[] names = new String[accounts];
+        for (int a = 0; a < accounts; a++) {
+            names[a] = a < CHART_ACCOUNTS.length ? CHART_ACCOUNTS[a] : "Account " + a;
+        }
+        return names;
+    }
+
+    private String[] creatorNames() {
+        String[] users = new String[creators];
+        for (int u = 0; u < creators; u++) users[u] = "user " + u;
+        return users;
+    }
+}
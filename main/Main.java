@@ -1,29 +1,89 @@
 package main;
 
 import model.*;
+import manager.EntryCursor;
+import manager.JournalStore;
 import manager.UnifiedJournalManager;
 import services.BalanceCalculator;
+import services.BalanceHistory;
+import services.PeriodCheckpoints;
+import services.ReportCache;
 import services.ReportPrinter;
 import services.TrialBalanceCalculator;
 import services.GeneralLedger;
 import services.IncomeStatementService;
 import services.IncomeStatementRenderer;
 import utils.InputValidator;
+import utils.TextSink;
 import services.BalanceSheetService;
 import services.BalanceSheetRenderer;
+import services.ReportEngine;
+import services.StreamingLedgerExport;
 import model.BalanceSheet;
-
+import storage.JournalImporter;
+import storage.JournalSegmentReader;
+import storage.WriteAheadLog;
+import server.ReportServer;
+import metrics.Metrics;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Scanner;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
 
 public class  Main {
-    public static void main(String[] args) {
-        ArrayList<JournalEntry> entries = new ArrayList<>();
+    // 💾 Journal file (override with -Djournal.file=...)
+    private static final Path JOURNAL_FILE = Path.of(System.getProperty("journal.file", "journal.dat"));
+    // 🛡️ Group commit: max wait for a batch to fill (µs) and entries per sync (-Dwal.maxLatencyMicros, -Dwal.batchSize)
+    private static final long WAL_MAX_LATENCY_MICROS = Long.getLong("wal.maxLatencyMicros", WriteAheadLog.DEFAULT_MAX_LATENCY_MICROS);
+    private static final int WAL_BATCH_SIZE = Integer.getInteger("wal.batchSize", WriteAheadLog.DEFAULT_MAX_BATCH_ENTRIES);
+    // 🌐 HTTP API port (override with -Dserver.port=...)
+    private static final int SERVER_PORT = Integer.getInteger("server.port", 8080);
+    // 📄 Entries / ledger lines per page when browsing (-Dpage.size=...)
+    private static final int PAGE_SIZE = Integer.getInteger("page.size", 20);
+    // 📒 Ledger export: lines sorted in memory per spill file, and where spill files go (-Dledger.runLines, -Dledger.spillDir)
+    private static final int LEDGER_RUN_LINES = Integer.getInteger("ledger.runLines", StreamingLedgerExport.DEFAULT_RUN_LINES);
+    private static final String LEDGER_SPILL_DIR = System.getProperty("ledger.spillDir");
+    // 📊 Prometheus metrics file, rewritten every 15 s (enable with -Dmetrics.file=...)
+    private static final String METRICS_FILE = System.getProperty("metrics.file");
+
+    public static void main(String[] args) throws IOException {
+        // Columnar journal, replayed straight from the mapped journal file (the write-ahead log)
+        JournalStore entries = new JournalStore();
+        JournalSegmentReader.LoadResult loaded = JournalSegmentReader.loadInto(JOURNAL_FILE, entries);
+        if (loaded.getEntries() > 0) {
+            System.out.println("💾 Loaded " + loaded.getEntries() + " journal entries from " + JOURNAL_FILE);
+        }
+
         UnifiedJournalManager manager = new UnifiedJournalManager(entries);
         GeneralLedger generalLedger = new GeneralLedger();
+        manager.addListener(generalLedger); // ledger is updated on every addEntry
+        BalanceHistory balanceHistory = new BalanceHistory();
+        manager.addListener(balanceHistory); // prefix sums for "balance as of date"
+        PeriodCheckpoints checkpoints = new PeriodCheckpoints(manager);
+        manager.addListener(checkpoints); // month-end closings, dropped when a closed month changes
+        ReportCache reportCache = new ReportCache(64);
+        manager.addListener(reportCache, false); // drops cached reports whose range gets a new entry
+        WriteAheadLog journalLog = new WriteAheadLog(JOURNAL_FILE, loaded, // reuses the load: no second scan
+                TimeUnit.MICROSECONDS.toNanos(WAL_MAX_LATENCY_MICROS), WAL_BATCH_SIZE);
+        manager.setLog(journalLog); // every new entry is on disk before addEntry returns
+        registerGauges(manager, checkpoints, reportCache);
+        ScheduledExecutorService metricsWriter = startMetricsFile();
+        ReportServer reportServer = new ReportServer(manager, generalLedger, balanceHistory, checkpoints, reportCache,
+                new IncomeStatementService(buildDefaultChart()), buildReportEngine());
         Scanner scanner = new Scanner(System.in);
 
         while (true) {
@@ -35,27 +95,51 @@ public class  Main {
                     addJournalEntry(scanner, manager);
                     break;
                 case 2:
-                    manager.displayAllEntries();
+                    browseEntries(manager, scanner);
                     break;
                 case 3:
                     manager.filterByMultipleCriteria(scanner);
                     break;
                 case 4:
-                    generateTrialBalanceReport(entries);
+                    generateTrialBalanceReport(manager.snapshot());
                     break;
                 case 5:
-                    generateGeneralLedgerReport(entries, generalLedger);
+                    generateGeneralLedgerReport(generalLedger);
                     break;
                 case 6:
-                    viewSingleAccountLedger(entries, generalLedger, scanner);
+                    viewSingleAccountLedger(generalLedger, scanner);
                     break;
                 case 7:
-                    generateIncomeStatementReport(entries, scanner);
+                    generateIncomeStatementReport(manager, balanceHistory, reportCache, scanner);
                     break;
                 case 8:
-                    generateBalanceSheetReport(entries, generalLedger, scanner);
+                    generateBalanceSheetReport(manager, checkpoints, reportCache, scanner);
+                    break;
+                case 9:
+                    generateMonthEndReports(manager.snapshot(), scanner);
+                    break;
+                case 10:
+                    importJournalFile(manager, scanner);
+                    break;
+                case 11:
+                    startReportServer(reportServer);
+                    break;
+                case 12:
+                    System.out.print(Metrics.dump());
+                    break;
+                case 13:
+                    exportGeneralLedger(manager, scanner);
+                    break;
+                case 14:
+                    addCompoundJournalEntry(scanner, manager);
                     break;
                 case 0:
+                    if (metricsWriter != null) {
+                        metricsWriter.shutdownNow();
+                        Metrics.writePrometheus(Path.of(METRICS_FILE)); // final values
+                    }
+                    reportServer.stop(1);
+                    journalLog.close();
                     System.out.println("\uD83D\uDC4B Exiting... Goodbye!");
                     return;
                 default:
@@ -74,6 +158,12 @@ public class  Main {
         System.out.println("6. 📄 View Single Account Ledger");
         System.out.println("7. 📈 Generate Income Statement");
         System.out.println("8. 🧾 Generate Balance Sheet");
+        System.out.println("9. 🗓️ Month-End Close (all reports, one pass)");
+        System.out.println("10. 📥 Import Entries from CSV/TSV File");
+        System.out.println("11. 🌐 Start HTTP API Server");
+        System.out.println("12. 📊 Show Metrics");
+        System.out.println("13. 💾 Export General Ledger to File");
+        System.out.println("14. 🧾 Add Compound Entry (several debit/credit lines)");
         System.out.println("0. ❌ Exit");
     }
 
@@ -91,14 +181,137 @@ public class  Main {
         String createdBy = getCreator(scanner);
         String status = getStatus(scanner);
 
-        DebitTransaction debit = new DebitTransaction(debitAccount, amount);
-        CreditTransaction credit = new CreditTransaction(creditAccount, amount);
-        JournalEntry entry = new JournalEntry(transactionID, date, debit, credit, createdBy, status);
-        manager.addEntry(entry);
-
+        try {
+            DebitTransaction debit = new DebitTransaction(debitAccount, amount);
+            CreditTransaction credit = new CreditTransaction(creditAccount, amount);
+            manager.addEntry(new JournalEntry(transactionID, date, debit, credit, createdBy, status));
+        } catch (IllegalArgumentException e) {
+            System.out.println("❌ " + e.getMessage());
+            return;
+        } catch (RuntimeException e) {
+            reportPostFailure("Adding the entry", e);
+            return;
+        }
         System.out.println("✅ Journal Entry Added!");
     }
 
+    private static void addCompoundJournalEntry(Scanner scanner, UnifiedJournalManager manager) {
+        String transactionID = getTransactionID(scanner);
+        LocalDate date = getTransactionDate(scanner);
+        List<DebitTransaction> debits = new ArrayList<>();
+        for (int i = 1, n = getLineCount(scanner, "Debit"); i <= n; i++) {
+            debits.add(new DebitTransaction(getAccount(scanner, "Debit #" + i), getTransactionAmount(scanner)));
+        }
+        List<CreditTransaction> credits = new ArrayList<>();
+        for (int i = 1, n = getLineCount(scanner, "Credit"); i <= n; i++) {
+            credits.add(new CreditTransaction(getAccount(scanner, "Credit #" + i), getTransactionAmount(scanner)));
+        }
+        String createdBy = getCreator(scanner);
+        String status = getStatus(scanner);
+
+        try {
+            // Balance (total debits = total credits) is checked here
+            manager.addEntry(JournalEntry.compound(transactionID, date, debits, credits, createdBy, status));
+        } catch (IllegalArgumentException e) {
+            System.out.println("❌ " + e.getMessage());
+            return;
+        } catch (RuntimeException e) {
+            reportPostFailure("Adding the entry", e);
+            return;
+        }
+        System.out.println("✅ Compound Journal Entry Added!");
+    }
+
+    private static int getLineCount(Scanner scanner, String side) {
+        while (true) {
+            System.out.printf("🔢 Number of %s lines: ", side);
+            try {
+                int count = Integer.parseInt(scanner.nextLine().trim());
+                if (count >= 1) return count;
+                System.out.println("❌ At least one line is required.");
+            } catch (NumberFormatException e) {
+                System.out.println("❌ Invalid number.");
+            }
+        }
+    }
+
+    private static void importJournalFile(UnifiedJournalManager manager, Scanner scanner) {
+        System.out.print("📂 Enter CSV/TSV file path: ");
+        Path path = Path.of(scanner.nextLine().trim());
+        if (!Files.isRegularFile(path)) {
+            System.out.println("❌ File not found: " + path);
+            return;
+        }
+        try {
+            JournalImporter.ImportResult result = JournalImporter.forPath(path).importFile(path, manager);
+            System.out.printf("✅ Imported %d entries (%.0f rows/sec)%n", result.getImported(), result.getRowsPerSecond());
+            if (result.getRejectedCount() > 0) {
+                System.out.println("⚠️ Rejected " + result.getRejectedCount() + " rows:");
+                for (JournalImporter.RejectedRow row : result.getRejected()) {
+                    System.out.println("  line " + row.getLineNumber() + ": " + row.getReason());
+                }
+                long hidden = result.getRejectedCount() - result.getRejected().size();
+                if (hidden > 0) System.out.println("  ... and " + hidden + " more");
+            }
+        } catch (IOException e) {
+            System.out.println("❌ Import failed: " + e.getMessage());
+        } catch (RuntimeException e) {
+            reportPostFailure("Import", e);
+        }
+    }
+
+    // ❌ Posting failed past validation (journal log, a listener, the store). Entries posted before
+    //    the failure stay in the journal; a failed log write rejects every later post.
+    private static void reportPostFailure(String what, RuntimeException e) {
+        System.out.println("❌ " + what + " failed: " + e.getMessage());
+        if (e instanceof UncheckedIOException) {
+            System.out.println("⚠️ The journal file could not be written: the journal is read-only until restart.");
+        }
+    }
+
+    private static void registerGauges(UnifiedJournalManager manager, PeriodCheckpoints checkpoints,
+                                       ReportCache reportCache) {
+        Metrics.gauge("journal.entries", manager::size);
+        Metrics.gauge("accounts", AccountRegistry::size);
+        Metrics.gauge("checkpoints.months", checkpoints::size);
+        Metrics.gauge("report_cache.size", reportCache::size);
+        Metrics.gauge("report_cache.hits", reportCache::getHits);
+        Metrics.gauge("report_cache.misses", reportCache::getMisses);
+    }
+
+    private static ScheduledExecutorService startMetricsFile() {
+        if (METRICS_FILE == null) return null;
+        Path file = Path.of(METRICS_FILE);
+        ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread t = new Thread(task, "metrics-file");
+            t.setDaemon(true);
+            return t;
+        });
+        writer.scheduleAtFixedRate(() -> {
+            try {
+                Metrics.writePrometheus(file);
+            } catch (IOException e) {
+                System.out.println("⚠️ Could not write metrics to " + file + ": " + e.getMessage());
+            }
+        }, 0, 15, TimeUnit.SECONDS);
+        return writer;
+    }
+
+    private static void startReportServer(ReportServer reportServer) {
+        if (reportServer.isRunning()) {
+            System.out.println("ℹ️ HTTP API already running on http://127.0.0.1:" + reportServer.getPort());
+            return;
+        }
+        try {
+            // Serves requests in the background while the menu stays usable
+            reportServer.start(SERVER_PORT);
+            System.out.println("🌐 HTTP API running on http://127.0.0.1:" + reportServer.getPort()
+                    + " (/entries, /reports/trial-balance, /reports/ledger, /reports/income-statement, /reports/balance-sheet)");
+        } catch (IOException e) {
+            System.out.println("❌ Could not start HTTP API: " + e.getMessage());
+        }
+    }
+
     private static String getTransactionID(Scanner scanner) {
         System.out.print("🆔 Enter Transaction ID: ");
         return scanner.nextLine();
@@ -132,7 +345,7 @@ public class  Main {
             try {
                 double amount = Double.parseDouble(scanner.nextLine());
                 if (InputValidator.isValidAmount(amount)) return amount;
-                System.out.println("❌ Amount must be > 0.");
+                System.out.println("❌ Amount must be > 0 and below " + Money.toBigDecimal(Long.MAX_VALUE) + ".");
             } catch (Exception e) {
                 System.out.println("❌ Invalid amount format.");
             }
@@ -157,32 +370,120 @@ public class  Main {
         }
     }
 
-    private static void generateTrialBalanceReport(ArrayList<JournalEntry> entries) {
+    private static void generateTrialBalanceReport(List<JournalEntry> entries) {
         System.out.println("🧾 Generating Trial Balance Report...");
         BalanceCalculator calc = new TrialBalanceCalculator();
         ReportPrinter printer = new ReportPrinter(calc);
         printer.printReport(entries);
     }
 
-    private static void generateGeneralLedgerReport(ArrayList<JournalEntry> entries, GeneralLedger generalLedger) {
+    private static void generateGeneralLedgerReport(GeneralLedger generalLedger) {
         System.out.println("📒 Generating General Ledger...");
-        generalLedger.build(entries);
         generalLedger.printAll();
     }
 
-    private static void viewSingleAccountLedger(ArrayList<JournalEntry> entries, GeneralLedger generalLedger, Scanner scanner) {
-        generalLedger.build(entries);
+    private static void exportGeneralLedger(UnifiedJournalManager manager, Scanner scanner) {
+        System.out.print("💾 Enter output file path: ");
+        Path path = Path.of(scanner.nextLine().trim());
+        long start = System.nanoTime();
+        long lines;
+        // External merge sort of the journal snapshot: bounded memory, spill files for large journals
+        StreamingLedgerExport export = new StreamingLedgerExport(
+                LEDGER_SPILL_DIR == null ? null : Path.of(LEDGER_SPILL_DIR), LEDGER_RUN_LINES);
+        try (TextSink out = TextSink.toFile(path)) {
+            lines = export.export(manager.snapshot(), out);
+        } catch (IOException | UncheckedIOException e) {
+            System.out.println("❌ Export failed: " + e.getMessage());
+            return;
+        }
+        System.out.printf("✅ General Ledger written to %s (%d lines, %d ms)%n",
+                path, lines, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private static void viewSingleAccountLedger(GeneralLedger generalLedger, Scanner scanner) {
         System.out.print("🔎 Enter account name: ");
         String account = scanner.nextLine().trim();
-        generalLedger.printAccount(account);
+        // Page by page: the first page is cut out of the ledger directly, however large the account
+        GeneralLedger.LedgerCursor cursor = generalLedger.snapshot().cursor(account);
+        if (!cursor.hasNext()) {
+            System.out.println("\nNo entries for account: " + account);
+            return;
+        }
+        browse(scanner, cursor::next, cursor::previous, cursor::seek,
+                (page, out) -> GeneralLedger.writeLines(account, page, out));
+    }
+
+    // 📘 All entries in date order, one page at a time
+    private static void browseEntries(UnifiedJournalManager manager, Scanner scanner) {
+        EntryCursor cursor = manager.cursor();
+        if (cursor.size() == 0) {
+            System.out.println("📭 No entries available.");
+            return;
+        }
+        browse(scanner, cursor::next, cursor::previous, cursor::seek, (page, out) -> {
+            for (JournalEntry entry : page) entry.display(out);
+        });
+    }
+
+    // 📄 Shows the first page, then: n = next page, p = previous page, d = jump to a date, anything else = back.
+    //    The cursor always sits just after the page on screen.
+    private static <T> void browse(Scanner scanner, IntFunction<List<T>> next, IntFunction<List<T>> previous,
+                                   Consumer<LocalDate> seek, BiConsumer<List<T>, TextSink> print) {
+        TextSink out = TextSink.console();
+        List<T> page = next.apply(PAGE_SIZE);
+        boolean show = true;
+        while (true) {
+            if (show) {
+                if (page.isEmpty()) out.println("📭 Nothing to show from here.");
+                else print.accept(page, out);
+                out.flush();
+            }
+            System.out.print("➡️ [n]ext, [p]revious, [d]ate, [q]uit: ");
+            String command = scanner.nextLine().trim().toLowerCase();
+            show = true;
+            if (command.equals("n")) {
+                List<T> after = next.apply(PAGE_SIZE);
+                if (after.isEmpty()) {
+                    System.out.println("⏭️ Already at the last page.");
+                    show = false;
+                } else {
+                    page = after;
+                }
+            } else if (command.equals("p")) {
+                if (!page.isEmpty()) previous.apply(page.size()); // back over the page on screen
+                List<T> before = previous.apply(PAGE_SIZE);
+                if (before.isEmpty()) {
+                    if (!page.isEmpty()) next.apply(page.size());
+                    System.out.println("⏮️ Already at the first page.");
+                    show = false;
+                } else {
+                    next.apply(before.size());
+                    page = before;
+                }
+            } else if (command.equals("d")) {
+                System.out.print("📅 Go to date (YYYY-MM-DD): ");
+                try {
+                    seek.accept(LocalDate.parse(scanner.nextLine().trim()));
+                    page = next.apply(PAGE_SIZE);
+                } catch (DateTimeParseException e) {
+                    System.out.println("❌ Invalid format.");
+                    show = false;
+                }
+            } else {
+                return;
+            }
+        }
     }
 
     // ===============================
     // Income Statement Integration 👇
     // ===============================
 
-    private static void generateIncomeStatementReport(ArrayList<JournalEntry> entries, Scanner scanner) {
-        if (entries.isEmpty()) {
+    private static void generateIncomeStatementReport(UnifiedJournalManager manager,
+                                                      BalanceHistory balanceHistory,
+                                                      ReportCache reportCache,
+                                                      Scanner scanner) {
+        if (manager.isEmpty()) {
             System.out.println("ℹ️ No journal entries yet. Add some entries first.");
             return;
         }
@@ -200,7 +501,10 @@ public class  Main {
         Map<String, AccountType> chart = buildDefaultChart();
 
         IncomeStatementService svc = new IncomeStatementService(chart);
-        var is = svc.generate(entries, from, to);
+        // Period activity = difference of two prefix sums per account (no journal scan);
+        // re-running the same period reuses the cached statement until an entry lands in it
+        var is = reportCache.incomeStatement(from, to, svc.getChart(),
+                () -> svc.generate(balanceHistory, from, to));
 
         IncomeStatementRenderer.render(is);
     }
@@ -238,10 +542,11 @@ public class  Main {
         // You can add more here, or rely on the service's inferType() fallbacks
         return chart;
     }
-    private static void generateBalanceSheetReport(ArrayList<JournalEntry> entries,
-                                                   GeneralLedger generalLedger,
+    private static void generateBalanceSheetReport(UnifiedJournalManager manager,
+                                                   PeriodCheckpoints checkpoints,
+                                                   ReportCache reportCache,
                                                    Scanner scanner) {
-        if (entries.isEmpty()) {
+        if (manager.isEmpty()) {
             System.out.println("ℹ️ No journal entries yet. Add some entries first.");
             return;
         }
@@ -249,15 +554,45 @@ public class  Main {
         System.out.println("🧾 Generate Balance Sheet");
         LocalDate asOf = askDate(scanner, "As of (YYYY-MM-DD)");
 
-        // Reuse the same chart for classification (Revenue/Expense/Etc.)
-        Map<String, AccountType> chart = buildDefaultChart();
+        // 1️⃣ Income Statement for the same fiscal period (Jan 1 → asOf) and closing balances
+        //    as of this date: closed months come from their month-end checkpoints,
+        //    only the days after the last one are replayed
+        //    (cached until an entry dated on or before asOf is added)
+        ReportEngine engine = buildReportEngine();
+        BalanceSheet balanceSheet = reportCache.balanceSheet(asOf, engine.getChart(),
+                () -> engine.balanceSheetsAsOf(checkpoints, List.of(asOf)).get(0));
+
+        // 2️⃣ Render results
+        BalanceSheetRenderer.render(balanceSheet);
+    }
+
+    private static void generateMonthEndReports(List<JournalEntry> entries, Scanner scanner) {
+        if (entries.isEmpty()) {
+            System.out.println("ℹ️ No journal entries yet. Add some entries first.");
+            return;
+        }
+
+        System.out.println("🗓️ Month-End Close (Trial Balance + Income Statement + Balance Sheet)");
+        LocalDate asOf = askDate(scanner, "As of (YYYY-MM-DD)");
 
-        // 1️⃣ Automatically generate Income Statement for same fiscal period (Jan 1 → asOf)
-        LocalDate startOfYear = asOf.withDayOfYear(1);
-        IncomeStatementService isService = new IncomeStatementService(chart);
-        var incomeStatement = isService.generate(entries, startOfYear, asOf);
+        // All three reports come from a single pass over the journal
+        ReportEngine.Reports reports = buildReportEngine().generate(entries, asOf.withDayOfYear(1), asOf);
 
-        // 2️⃣ Build a simple Balance Sheet chart (Account Name → Classification)
+        System.out.println("🧾 Trial Balance");
+        reports.getTrialBalance().displayResult();
+        IncomeStatementRenderer.render(reports.getIncomeStatement());
+        BalanceSheetRenderer.render(reports.getBalanceSheet());
+    }
+
+    private static ReportEngine buildReportEngine() {
+        // Reuse the same chart for classification (Revenue/Expense/Etc.)
+        IncomeStatementService isService = new IncomeStatementService(buildDefaultChart());
+        BalanceSheetService bsService = new BalanceSheetService(buildBalanceSheetChart());
+        return new ReportEngine(isService, bsService);
+    }
+
+    private static Map<String, BalanceSheetService.BSClass> buildBalanceSheetChart() {
+        // Simple Balance Sheet chart (Account Name → Classification)
         Map<String, BalanceSheetService.BSClass> bsChart = new HashMap<>();
         bsChart.put("Cash", BalanceSheetService.BSClass.ASSET);
         bsChart.put("Bank", BalanceSheetService.BSClass.ASSET);
@@ -270,13 +605,7 @@ public class  Main {
         bsChart.put("Owner's Equity", BalanceSheetService.BSClass.EQUITY);
         bsChart.put("Capital", BalanceSheetService.BSClass.EQUITY);
         bsChart.put("Retained Earnings", BalanceSheetService.BSClass.EQUITY);
-
-        // 3️⃣ Generate Balance Sheet as of this date (including net income)
-        BalanceSheetService bsService = new BalanceSheetService(bsChart, generalLedger);
-        BalanceSheet balanceSheet = bsService.generate(entries, asOf, incomeStatement);
-
-        // 4️⃣ Render results
-        BalanceSheetRenderer.render(balanceSheet);
+        return bsChart;
     }
 
 
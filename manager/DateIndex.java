@@ -0,0 +1,163 @@
+package manager;
+
+import model.JournalEntry;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * 📅 Date-ordered index over the journal.
+ *
+ * Keeps two parallel arrays sorted by epoch day: the day and the entry's
+ * position in the manager's list. Appends in date order (the usual case) go
+ * to the end in O(1); a back-dated entry is inserted at its binary-searched
+ * slot. Period queries binary-search both ends of the range and only touch
+ * the positions in between. Entries without a date are indexed last (day
+ * {@link JournalStore#NO_DATE}), where cursors see them but no period query
+ * reaches.
+ *
+ * Equal days keep arrival order, so the slots are sorted by the pair
+ * (day, position): a cursor ({@link EntryCursor}) remembers its place as
+ * such a pair, which stays valid while back-dated entries shift the slots.
+ *
+ * Synchronized: lookups copy the matching positions while holding the lock
+ * for a moment, so they never block appends for the length of a report.
+ */
+public class DateIndex implements JournalListener {
+
+    private int[] days = new int[1024];
+    private int[] positions = new int[1024];
+    private int count;      // indexed (dated) entries
+    private int nextPosition; // position of the next appended entry
+
+    @Override
+    public synchronized void onEntryAdded(JournalEntry entry) {
+        int position = nextPosition++;
+        int day = entry.getDate() == null ? JournalStore.NO_DATE : (int) entry.getDate().toEpochDay();
+        if (count == days.length) {
+            days = Arrays.copyOf(days, count * 2);
+            positions = Arrays.copyOf(positions, count * 2);
+        }
+        int slot = upperBound(day);
+        if (slot < count) {
+            System.arraycopy(days, slot, days, slot + 1, count - slot);
+            System.arraycopy(positions, slot, positions, slot + 1, count - slot);
+        }
+        days[slot] = day;
+        positions[slot] = position;
+        count++;
+    }
+
+    // Bulk load: all keys are re-sorted once instead of inserting back-dated rows one by one
+    @Override
+    public synchronized void onRowsAdded(JournalStore store, int from, int to) {
+        int total = count + (to - from);
+        long[] keys = new long[total];
+        for (int slot = 0; slot < count; slot++) {
+            keys[slot] = key(days[slot], positions[slot]);
+        }
+        boolean sorted = true;
+        for (int row = from, slot = count; row < to; row++, slot++) {
+            keys[slot] = key(store.getEpochDay(row), nextPosition++);
+            if (slot > 0 && keys[slot] < keys[slot - 1]) sorted = false;
+        }
+        if (!sorted) Arrays.sort(keys);
+        if (total > days.length) {
+            days = new int[Math.max(total, days.length * 2)];
+            positions = new int[days.length];
+        }
+        for (int slot = 0; slot < total; slot++) {
+            days[slot] = (int) (keys[slot] >> 32);
+            positions[slot] = (int) keys[slot];
+        }
+        count = total;
+    }
+
+    /** Positions of entries dated within [from, to] (inclusive), in date order. */
+    public synchronized int[] positionsBetween(LocalDate from, LocalDate to) {
+        int lo = lowerBound((int) from.toEpochDay());
+        int hi = upperBound((int) to.toEpochDay());
+        return lo >= hi ? new int[0] : Arrays.copyOfRange(positions, lo, hi);
+    }
+
+    /** Positions of entries dated on or before {@code asOf}, in date order. */
+    public synchronized int[] positionsUpTo(LocalDate asOf) {
+        return Arrays.copyOfRange(positions, 0, upperBound((int) asOf.toEpochDay()));
+    }
+
+    /**
+     * Entries at or after the key (day, position), in date order: fills
+     * {@code outDays} / {@code outPositions} up to their length and returns
+     * the number found. Positions at or above {@code below} (not published to
+     * the caller) are skipped.
+     */
+    public synchronized int forward(int day, int position, int below, int[] outDays, int[] outPositions) {
+        int found = 0;
+        for (int slot = lowerBound(day, position); slot < count && found < outPositions.length; slot++) {
+            if (positions[slot] >= below) continue;
+            outDays[found] = days[slot];
+            outPositions[found++] = positions[slot];
+        }
+        return found;
+    }
+
+    /**
+     * Entries before the key (day, position): the last {@code outPositions.length}
+     * of them, returned in date order like {@link #forward}.
+     */
+    public synchronized int backward(int day, int position, int below, int[] outDays, int[] outPositions) {
+        int limit = outPositions.length;
+        int found = 0;
+        for (int slot = lowerBound(day, position) - 1; slot >= 0 && found < limit; slot--) {
+            if (positions[slot] >= below) continue;
+            found++;
+            outDays[limit - found] = days[slot];
+            outPositions[limit - found] = positions[slot];
+        }
+        if (found < limit) {
+            System.arraycopy(outDays, limit - found, outDays, 0, found);
+            System.arraycopy(outPositions, limit - found, outPositions, 0, found);
+        }
+        return found;
+    }
+
+    // (day, position) packed so that long order is slot order (positions are non-negative)
+    private static long key(int day, int position) {
+        return ((long) day << 32) | position;
+    }
+
+    /* ---------------- binary search ---------------- */
+
+    // First slot whose (day, position) is >= (day, position).
+    private int lowerBound(int day, int position) {
+        int lo = 0, hi = count;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (days[mid] < day || (days[mid] == day && positions[mid] < position)) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    // First slot whose day is >= day.
+    private int lowerBound(int day) {
+        int lo = 0, hi = count;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (days[mid] < day) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    // First slot whose day is > day (equal days keep arrival order).
+    private int upperBound(int day) {
+        int lo = 0, hi = count;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (days[mid] <= day) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+}
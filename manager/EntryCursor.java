@@ -0,0 +1,100 @@
+package manager;
+
+import model.JournalEntry;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+// 📄 Cursor over the journal in date order (undated entries last), one page at a time.
+//    Each page is found by binary search in the date index, so the first page of a huge
+//    journal costs the same as a page in the middle, and only the entries of the page
+//    are materialized. The cursor shows the entries published when it was opened.
+//    Not thread-safe (one cursor per reader); the journal may keep growing meanwhile.
+public class EntryCursor {
+
+    private final List<JournalEntry> entries;
+    private final DateIndex index;
+    private final int size; // entries visible to this cursor (positions below it)
+
+    // 📍 The cursor sits just before the entry with key (day, position)
+    private int day = Integer.MIN_VALUE;
+    private int position = Integer.MIN_VALUE;
+
+    EntryCursor(List<JournalEntry> entries, DateIndex index, int size) {
+        this.entries = entries;
+        this.index = index;
+        this.size = size;
+    }
+
+    // 🔢 Number of entries the cursor can show
+    public int size() {
+        return size;
+    }
+
+    // 📅 Moves just before the first entry dated on or after date (null = the undated entries)
+    public EntryCursor seek(LocalDate date) {
+        day = date == null ? JournalStore.NO_DATE : (int) date.toEpochDay();
+        position = Integer.MIN_VALUE;
+        return this;
+    }
+
+    // ⏮️ Moves before the first entry
+    public EntryCursor toStart() {
+        day = Integer.MIN_VALUE;
+        position = Integer.MIN_VALUE;
+        return this;
+    }
+
+    // ⏭️ Moves after the last entry (then read backwards with previous)
+    public EntryCursor toEnd() {
+        day = Integer.MAX_VALUE;
+        position = Integer.MAX_VALUE;
+        return this;
+    }
+
+    // ▶️ Up to pageSize entries after the cursor; the cursor moves past them
+    public List<JournalEntry> next(int pageSize) {
+        int[] days = new int[checkPageSize(pageSize)];
+        int[] positions = new int[pageSize];
+        int found = index.forward(day, position, size, days, positions);
+        if (found > 0) {
+            day = days[found - 1];
+            position = positions[found - 1] + 1;
+        }
+        return materialize(positions, found);
+    }
+
+    // ◀️ Up to pageSize entries before the cursor (in date order); the cursor moves before them
+    public List<JournalEntry> previous(int pageSize) {
+        int[] days = new int[checkPageSize(pageSize)];
+        int[] positions = new int[pageSize];
+        int found = index.backward(day, position, size, days, positions);
+        if (found > 0) {
+            day = days[0];
+            position = positions[0];
+        }
+        return materialize(positions, found);
+    }
+
+    public boolean hasNext() {
+        return index.forward(day, position, size, new int[1], new int[1]) > 0;
+    }
+
+    public boolean hasPrevious() {
+        return index.backward(day, position, size, new int[1], new int[1]) > 0;
+    }
+
+    private List<JournalEntry> materialize(int[] positions, int found) {
+        List<JournalEntry> page = new ArrayList<>(found);
+        for (int i = 0; i < found; i++) {
+            page.add(entries.get(positions[i]));
+        }
+        return page;
+    }
+
+    private static int checkPageSize(int pageSize) {
+        if (pageSize < 1) throw new IllegalArgumentException("Page size must be at least 1.");
+        return pageSize;
+    }
+}
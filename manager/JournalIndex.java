@@ -0,0 +1,181 @@
+package manager;
+
+import model.JournalEntry;
+import model.Money;
+import utils.InputValidator;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * 🗂️ Secondary indexes over the journal, maintained on every append.
+ * Positions are the entries' indexes in the manager's list.
+ *
+ * - status  → bitmap of positions
+ * - creator → bitmap (posting list) of positions
+ * - amount  → sorted map of amount (minor units) → positions
+ *
+ * {@link #select(JournalQuery)} intersects them: the bitmaps are ANDed
+ * starting from the smallest one, and the amount criterion is either checked
+ * per remaining candidate or, when it is the only criterion, read from the
+ * sorted amount index. Bitmaps are {@link BitSet}s (word-packed, so AND/OR
+ * run 64 positions per operation).
+ *
+ * Appends and queries are synchronized on the index; a query only holds the
+ * lock while it combines bitmaps, never while the caller reads the entries.
+ */
+public class JournalIndex implements JournalListener {
+
+    // Placeholder in the bulk load's per-code cache for the "" (no status) code
+    private static final BitSet NO_STATUS = new BitSet();
+
+    private final Map<String, BitSet> byStatus = new HashMap<>();
+    private final Map<String, BitSet> byCreator = new HashMap<>();
+    private final NavigableMap<Long, PositionList> byAmount = new TreeMap<>();
+    private long[] amounts = new long[1024]; // position → amount (minor units)
+    private int size;
+
+    @Override
+    public synchronized void onEntryAdded(JournalEntry entry) {
+        int position = size++;
+        if (entry.getStatus() != null && !entry.getStatus().isBlank()) { // the store keeps both as ""
+            byStatus.computeIfAbsent(key(entry.getStatus()), k -> new BitSet()).set(position);
+        }
+        if (entry.getCreatedBy() != null) {
+            byCreator.computeIfAbsent(key(entry.getCreatedBy()), k -> new BitSet()).set(position);
+        }
+        long amount = entry.getDebitLineCount() > 0 ? entry.getAmountMinor() : 0L; // debit total of a compound entry
+        if (position == amounts.length) amounts = Arrays.copyOf(amounts, position * 2);
+        amounts[position] = amount;
+        byAmount.computeIfAbsent(amount, k -> new PositionList()).add(position);
+    }
+
+    // Bulk load from the columns: keys are resolved once per dictionary id and
+    // amounts are grouped after one sort, so no per-row objects are created
+    @Override
+    public synchronized void onRowsAdded(JournalStore store, int from, int to) {
+        int first = size;
+        int rows = to - from;
+        if (first + rows > amounts.length) amounts = Arrays.copyOf(amounts, Math.max(first + rows, amounts.length * 2));
+        BitSet[] statusBits = new BitSet[Byte.MAX_VALUE + 1];
+        BitSet[] creatorBits = new BitSet[16];
+        for (int row = from; row < to; row++) {
+            int position = size++;
+            int code = store.getStatusCode(row);
+            if (statusBits[code] == null) {
+                String status = store.statusOf(code); // "" = no status: not indexed, as in onEntryAdded
+                statusBits[code] = status.isEmpty() ? NO_STATUS : byStatus.computeIfAbsent(key(status), k -> new BitSet());
+            }
+            if (statusBits[code] != NO_STATUS) statusBits[code].set(position);
+            int creator = store.getCreatorId(row);
+            if (creator != JournalStore.NONE) {
+                if (creator >= creatorBits.length) creatorBits = Arrays.copyOf(creatorBits, Math.max(creator + 1, creatorBits.length * 2));
+                if (creatorBits[creator] == null) {
+                    creatorBits[creator] = byCreator.computeIfAbsent(key(store.creatorOf(creator)), k -> new BitSet());
+                }
+                creatorBits[creator].set(position);
+            }
+            amounts[position] = store.getDebitLineCount(row) > 0 ? store.getAmountMinor(row) : 0L;
+        }
+
+        long[] distinct = Arrays.copyOfRange(amounts, first, size);
+        Arrays.sort(distinct);
+        int distinctCount = 0;
+        for (int i = 0; i < distinct.length; i++) {
+            if (i == 0 || distinct[i] != distinct[i - 1]) distinct[distinctCount++] = distinct[i];
+        }
+        PositionList[] lists = new PositionList[distinctCount];
+        for (int i = 0; i < distinctCount; i++) {
+            lists[i] = byAmount.computeIfAbsent(distinct[i], k -> new PositionList());
+        }
+        for (int position = first; position < size; position++) {
+            lists[Arrays.binarySearch(distinct, 0, distinctCount, amounts[position])].add(position);
+        }
+    }
+
+    /** Positions of all entries matching the query, in journal order. */
+    public synchronized BitSet select(JournalQuery query) {
+        BitSet candidates = null;
+
+        // 1) Equality criteria: AND the bitmaps, smallest first
+        BitSet status = null;
+        BitSet creator = null;
+        if (query.getStatus() != null) {
+            status = byStatus.get(key(query.getStatus()));
+            if (status == null) return new BitSet();
+        }
+        if (query.getCreatedBy() != null) {
+            creator = byCreator.get(key(query.getCreatedBy()));
+            if (creator == null) return new BitSet();
+        }
+        if (status != null && creator != null) {
+            BitSet small = status.cardinality() <= creator.cardinality() ? status : creator;
+            BitSet large = small == status ? creator : status;
+            candidates = (BitSet) small.clone();
+            candidates.and(large);
+        } else if (status != null || creator != null) {
+            candidates = (BitSet) (status != null ? status : creator).clone();
+        }
+
+        // 2) Range criterion on amount
+        if (query.getMinAmount() != null) {
+            long min = minorCeiling(query.getMinAmount());
+            if (candidates != null) {
+                // Few candidates left: check each one instead of materializing the whole range
+                for (int p = candidates.nextSetBit(0); p >= 0; p = candidates.nextSetBit(p + 1)) {
+                    if (amounts[p] < min) candidates.clear(p);
+                }
+            } else {
+                candidates = new BitSet(size);
+                for (PositionList positions : byAmount.tailMap(min, true).values()) {
+                    positions.setAll(candidates);
+                }
+            }
+        }
+
+        // 3) No criteria: everything
+        if (candidates == null) {
+            candidates = new BitSet(size);
+            candidates.set(0, size);
+        }
+        return candidates;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /* ---------------- internals ---------------- */
+
+    private static String key(String s) {
+        return s.trim().toLowerCase();
+    }
+
+    // Smallest amount in minor units that is >= the decimal minimum (clamped to the long range).
+    private static long minorCeiling(double amount) {
+        if (!InputValidator.isValidFilterAmount(amount)) {
+            throw new IllegalArgumentException("Minimum amount must be a finite number.");
+        }
+        return Money.ceilingMinor(BigDecimal.valueOf(amount));
+    }
+
+    /** Growable int array of positions (no boxing). */
+    private static class PositionList {
+        private int[] items = new int[4];
+        private int count;
+
+        void add(int position) {
+            if (count == items.length) items = Arrays.copyOf(items, count * 2);
+            items[count++] = position;
+        }
+
+        void setAll(BitSet target) {
+            for (int i = 0; i < count; i++) target.set(items[i]);
+        }
+    }
+}
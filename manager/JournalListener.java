@@ -0,0 +1,35 @@
+package manager;
+
+import model.JournalEntry;
+
+/**
+ * 🔔 Callback for components that keep derived state in sync with the journal
+ * (ledger, indexes, caches...). Registered on {@link UnifiedJournalManager}
+ * and notified once for every entry appended to it.
+ */
+public interface JournalListener {
+    void onEntryAdded(JournalEntry entry);
+
+    /**
+     * Called once for rows {@code [from, to)} already in a columnar store
+     * instead of {@link #onEntryAdded} per row, e.g. when the listener is
+     * registered on a journal just loaded from disk. Listeners that can read
+     * the columns directly override it, so a restart doesn't build a
+     * JournalEntry per row; the default materializes each row.
+     */
+    default void onRowsAdded(JournalStore store, int from, int to) {
+        for (int row = from; row < to; row++) {
+            onEntryAdded(store.get(row));
+        }
+    }
+
+    /**
+     * True for a thread-safe listener that doesn't need entries in journal
+     * order (it orders them itself, e.g. the general ledger). The manager
+     * calls it after releasing its append lock, so posts from several threads
+     * reach it in parallel; it may lag the entries already visible to readers.
+     */
+    default boolean isConcurrent() {
+        return false;
+    }
+}
@@ -0,0 +1,19 @@
+package manager;
+
+import model.JournalEntry;
+
+/**
+ * 💾 Durable log the journal writes through (e.g. a write-ahead log).
+ *
+ * {@link #append} is called under the manager's append lock, so records are
+ * logged in journal order; {@link #awaitDurable} is called after that lock is
+ * released, so concurrent posts can share one sync (group commit).
+ */
+public interface JournalLog {
+
+    /** Records the entry (not yet durable); returns its sequence number. */
+    long append(JournalEntry entry);
+
+    /** Blocks until every entry up to {@code sequence} is on stable storage. */
+    void awaitDurable(long sequence);
+}
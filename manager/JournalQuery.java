@@ -0,0 +1,40 @@
+package manager;
+
+/**
+ * 🔍 Filter criteria for {@link UnifiedJournalManager#query(JournalQuery)}.
+ * Every criterion is optional (null = not filtered); set criteria are ANDed.
+ * Status and creator match case-insensitively, like the interactive filter.
+ */
+public class JournalQuery {
+
+    private String status;
+    private String createdBy;
+    private Double minAmount;
+
+    public JournalQuery status(String status) {
+        this.status = status;
+        return this;
+    }
+
+    public JournalQuery createdBy(String createdBy) {
+        this.createdBy = createdBy;
+        return this;
+    }
+
+    public JournalQuery minAmount(Double minAmount) {
+        this.minAmount = minAmount;
+        return this;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public String getCreatedBy() {
+        return createdBy;
+    }
+
+    public Double getMinAmount() {
+        return minAmount;
+    }
+}
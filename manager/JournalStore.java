@@ -0,0 +1,381 @@
+package manager;
+
+import model.AccountRegistry;
+import model.CreditTransaction;
+import model.DebitTransaction;
+import model.JournalEntry;
+import utils.StringDictionary;
+
+import java.time.LocalDate;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * 🗄️ Columnar (struct-of-arrays) journal storage.
+ *
+ * Instead of one JournalEntry + two Transaction objects + a LocalDate per row,
+ * every field lives in its own primitive array: epoch-day dates, account ids
+ * (AccountRegistry), interned creator / status ids and amounts in minor units. Scans that only
+ * need a few columns (reports, filters) walk contiguous memory.
+ *
+ * Compound entries (N debit / M credit lines) keep their lines in two shared
+ * line columns (account id, amount); the row's debit column holds a marker
+ * and its credit column the compound's ordinal, and the amount column holds
+ * the entry total. Use the line accessors ({@link #getLineCount(int)} ...)
+ * to read any row as lines, simple or compound.
+ *
+ * Statuses are stored normalized (trimmed, lower-cased, as InputValidator
+ * compares them), so a row reads back as "approved" whatever case it was
+ * entered in, and a missing status as null. Account columns hold registry
+ * ids, so a row reads back with the account's registry display name. The
+ * journal file stores the same normalized values, so {@link #get(int)}
+ * returns the same strings before and after a restart.
+ *
+ * The store is a {@code List<JournalEntry>}: {@link #get(int)} materializes a
+ * JournalEntry view on demand, so it can be passed anywhere a journal list is
+ * expected (e.g. {@code new UnifiedJournalManager(store)}).
+ *
+ * Concurrency: appends are serialized; readers never lock. A row is written
+ * before the (volatile) size that publishes it, and rows are never modified
+ * afterwards, so readers see every row below the size they read.
+ * {@link #snapshot(int)} freezes a read-only prefix that later appends don't change.
+ */
+public class JournalStore extends AbstractList<JournalEntry> implements RandomAccess {
+
+    /** Marker for entries without a date (sorted last, like LocalDate.MAX in the ledger). */
+    public static final int NO_DATE = Integer.MAX_VALUE;
+    /** Marker for a missing debit/credit side or creator (same as AccountRegistry.NONE). */
+    public static final int NONE = AccountRegistry.NONE;
+
+    private static final int INITIAL_CAPACITY = 1024;
+    // Debit column marker for a compound row (its credit column holds the compound ordinal)
+    private static final int COMPOUND_ROW = -2;
+
+    private final StringDictionary creators;
+    private final StringDictionary statuses;
+    private final boolean readOnly;
+
+    // Columns are replaced (copied) when they grow; volatile so readers see the copied rows
+    private volatile String[] transactionIds = new String[INITIAL_CAPACITY];
+    private volatile int[] epochDays = new int[INITIAL_CAPACITY];
+    private volatile int[] debitAccounts = new int[INITIAL_CAPACITY];
+    private volatile int[] creditAccounts = new int[INITIAL_CAPACITY];
+    private volatile byte[] statusCodes = new byte[INITIAL_CAPACITY];
+    private volatile long[] amounts = new long[INITIAL_CAPACITY];
+    private volatile int[] createdBy = new int[INITIAL_CAPACITY];
+    private volatile int size;
+
+    // Compound lines: compound k owns lines [compoundStarts[k], compoundStarts[k + 1]), debit lines first
+    private volatile int[] lineAccounts = new int[0];
+    private volatile long[] lineAmounts = new long[0];
+    private volatile int[] compoundStarts = new int[1];
+    private volatile int[] compoundDebits = new int[0];
+    private int compoundCount;
+
+    public JournalStore() {
+        this.creators = new StringDictionary();
+        this.statuses = new StringDictionary();
+        this.readOnly = false;
+    }
+
+    // Read-only prefix sharing the source's columns (rows below size never change).
+    private JournalStore(JournalStore source, int size) {
+        this.creators = source.creators;
+        this.statuses = source.statuses;
+        this.readOnly = true;
+        this.size = size;
+        this.transactionIds = source.transactionIds;
+        this.epochDays = source.epochDays;
+        this.debitAccounts = source.debitAccounts;
+        this.creditAccounts = source.creditAccounts;
+        this.statusCodes = source.statusCodes;
+        this.amounts = source.amounts;
+        this.createdBy = source.createdBy;
+        this.lineAccounts = source.lineAccounts;
+        this.lineAmounts = source.lineAmounts;
+        this.compoundStarts = source.compoundStarts;
+        this.compoundDebits = source.compoundDebits;
+    }
+
+    /**
+     * Read-only view of the first {@code rows} rows. It shares the columns
+     * (no copy) and is unaffected by later appends.
+     */
+    public JournalStore snapshot(int rows) {
+        if (rows < 0 || rows > size) throw new IndexOutOfBoundsException("Rows: " + rows + ", Size: " + size);
+        return new JournalStore(this, rows);
+    }
+
+    /* ---------------- List view ---------------- */
+
+    @Override
+    public synchronized boolean add(JournalEntry entry) {
+        if (entry == null) throw new IllegalArgumentException("Journal entry is required.");
+        checkWritable();
+        if (entry.isCompound()) {
+            int lines = entry.getLineCount();
+            int[] accountIds = new int[lines];
+            long[] amountsMinor = new long[lines];
+            for (int i = 0; i < lines; i++) {
+                accountIds[i] = entry.getLineAccountId(i);
+                amountsMinor[i] = entry.getLineAmountMinor(i);
+            }
+            appendCompound(entry.getTransactionID(),
+                    entry.getDate() == null ? NO_DATE : (int) entry.getDate().toEpochDay(),
+                    accountIds, amountsMinor, entry.getDebitLineCount(), entry.getCreatedBy(), entry.getStatus());
+            return true;
+        }
+        ensureCapacity(size + 1);
+
+        DebitTransaction debit = entry.getDebitTransaction();
+        CreditTransaction credit = entry.getCreditTransaction();
+
+        transactionIds[size] = entry.getTransactionID();
+        epochDays[size] = entry.getDate() == null ? NO_DATE : (int) entry.getDate().toEpochDay();
+        debitAccounts[size] = debit == null ? NONE : debit.getAccountId();
+        creditAccounts[size] = credit == null ? NONE : credit.getAccountId();
+        statusCodes[size] = statusCode(entry.getStatus());
+        amounts[size] = debit != null ? debit.getAmountMinor() : (credit != null ? credit.getAmountMinor() : 0L);
+        createdBy[size] = entry.getCreatedBy() == null ? NONE : creators.intern(entry.getCreatedBy());
+        size++;
+        modCount++;
+        return true;
+    }
+
+    /**
+     * Appends a row from already-decoded column values (e.g. a binary journal
+     * segment) without building a JournalEntry first.
+     */
+    public synchronized void append(String transactionId, int epochDay, int debitAccountId, int creditAccountId,
+                                    long amountMinor, String creator, String status) {
+        checkWritable();
+        ensureCapacity(size + 1);
+        transactionIds[size] = transactionId;
+        epochDays[size] = epochDay;
+        debitAccounts[size] = debitAccountId;
+        creditAccounts[size] = creditAccountId;
+        statusCodes[size] = statusCode(status);
+        amounts[size] = amountMinor;
+        createdBy[size] = creator == null ? NONE : creators.intern(creator);
+        size++;
+        modCount++;
+    }
+
+    /**
+     * Appends a compound row (lines already validated, e.g. read back from a
+     * journal segment); {@code accountIds} / {@code amountsMinor} hold the
+     * debit lines first.
+     */
+    public synchronized void appendCompound(String transactionId, int epochDay, int[] accountIds, long[] amountsMinor,
+                                            int debitLines, String creator, String status) {
+        checkWritable();
+        ensureCapacity(size + 1);
+        int lines = accountIds.length;
+        int start = compoundStarts[compoundCount];
+        ensureLineCapacity(start + lines, compoundCount + 1);
+        System.arraycopy(accountIds, 0, lineAccounts, start, lines);
+        System.arraycopy(amountsMinor, 0, lineAmounts, start, lines);
+        compoundDebits[compoundCount] = debitLines;
+        compoundStarts[compoundCount + 1] = start + lines;
+
+        long total = 0L;
+        for (int i = 0; i < debitLines; i++) total += amountsMinor[i];
+        transactionIds[size] = transactionId;
+        epochDays[size] = epochDay;
+        debitAccounts[size] = COMPOUND_ROW;
+        creditAccounts[size] = compoundCount;
+        statusCodes[size] = statusCode(status);
+        amounts[size] = total;
+        createdBy[size] = creator == null ? NONE : creators.intern(creator);
+        compoundCount++;
+        size++;
+        modCount++;
+    }
+
+    /** Materializes a JournalEntry view of row {@code index} (a new object per call; normalized names and status). */
+    @Override
+    public JournalEntry get(int index) {
+        checkIndex(index);
+        String creator = createdBy[index] == NONE ? null : creators.valueOf(createdBy[index]);
+        if (debitAccounts[index] == COMPOUND_ROW) {
+            int compound = creditAccounts[index];
+            int start = compoundStarts[compound];
+            int end = compoundStarts[compound + 1];
+            return JournalEntry.ofLines(transactionIds[index], getDate(index),
+                    Arrays.copyOfRange(lineAccounts, start, end), Arrays.copyOfRange(lineAmounts, start, end),
+                    compoundDebits[compound], creator, getStatus(index));
+        }
+        long amount = amounts[index];
+        DebitTransaction debit = debitAccounts[index] == NONE ? null
+                : DebitTransaction.ofMinor(AccountRegistry.displayName(debitAccounts[index]), amount);
+        CreditTransaction credit = creditAccounts[index] == NONE ? null
+                : CreditTransaction.ofMinor(AccountRegistry.displayName(creditAccounts[index]), amount);
+        return new JournalEntry(transactionIds[index], getDate(index), debit, credit, creator, getStatus(index));
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /* ---------------- Column accessors (no allocation) ---------------- */
+
+    public String getTransactionId(int index) {
+        checkIndex(index);
+        return transactionIds[index];
+    }
+
+    public int getEpochDay(int index) {
+        checkIndex(index);
+        return epochDays[index];
+    }
+
+    public LocalDate getDate(int index) {
+        int day = getEpochDay(index);
+        return day == NO_DATE ? null : LocalDate.ofEpochDay(day);
+    }
+
+    /** Debit account of a simple row (NONE for a compound row: read its lines). */
+    public int getDebitAccountId(int index) {
+        checkIndex(index);
+        int id = debitAccounts[index];
+        return id == COMPOUND_ROW ? NONE : id;
+    }
+
+    /** Credit account of a simple row (NONE for a compound row: read its lines). */
+    public int getCreditAccountId(int index) {
+        checkIndex(index);
+        return debitAccounts[index] == COMPOUND_ROW ? NONE : creditAccounts[index];
+    }
+
+    /** Entry amount (the debit total of a compound row). */
+    public long getAmountMinor(int index) {
+        checkIndex(index);
+        return amounts[index];
+    }
+
+    /* ---------------- Lines (simple and compound rows alike, debit lines first) ---------------- */
+
+    public boolean isCompound(int index) {
+        checkIndex(index);
+        return debitAccounts[index] == COMPOUND_ROW;
+    }
+
+    /** Lines of a row: a simple row has one line per present side. */
+    public int getLineCount(int index) {
+        checkIndex(index);
+        if (debitAccounts[index] == COMPOUND_ROW) {
+            int compound = creditAccounts[index];
+            return compoundStarts[compound + 1] - compoundStarts[compound];
+        }
+        return (debitAccounts[index] != NONE ? 1 : 0) + (creditAccounts[index] != NONE ? 1 : 0);
+    }
+
+    public int getDebitLineCount(int index) {
+        checkIndex(index);
+        if (debitAccounts[index] == COMPOUND_ROW) return compoundDebits[creditAccounts[index]];
+        return debitAccounts[index] != NONE ? 1 : 0;
+    }
+
+    public int getLineAccountId(int index, int line) {
+        if (isCompound(index)) return lineAccounts[compoundStarts[creditAccounts[index]] + line];
+        return line < getDebitLineCount(index) ? debitAccounts[index] : creditAccounts[index];
+    }
+
+    /** Line amount in minor units (debit or credit per {@link #getDebitLineCount(int)}). */
+    public long getLineAmountMinor(int index, int line) {
+        if (isCompound(index)) return lineAmounts[compoundStarts[creditAccounts[index]] + line];
+        checkIndex(index);
+        return amounts[index];
+    }
+
+    public int getCreatorId(int index) {
+        checkIndex(index);
+        return createdBy[index];
+    }
+
+    public byte getStatusCode(int index) {
+        checkIndex(index);
+        return statusCodes[index];
+    }
+
+    /** Normalized status of row {@code index} (null if it had none). */
+    public String getStatus(int index) {
+        checkIndex(index);
+        String status = statuses.valueOf(statusCodes[index]);
+        return status.isEmpty() ? null : status;
+    }
+
+    /** Creator spelling for an id from {@link #getCreatorId(int)}. */
+    public String creatorOf(int creatorId) {
+        return creators.valueOf(creatorId);
+    }
+
+    /** Status (lower-cased) for a code from {@link #getStatusCode(int)}. */
+    public String statusOf(int statusCode) {
+        return statuses.valueOf(statusCode);
+    }
+
+    /**
+     * Throws IllegalStateException if {@code add} would reject the entry (its
+     * status would need a new code past the one-byte range). Callers that log
+     * an entry before storing it check first, so a rejected entry is never logged.
+     */
+    public void checkAcceptable(JournalEntry entry) {
+        if (statusCodeOf(entry.getStatus() == null ? "" : entry.getStatus()) < 0 && statuses.size() > Byte.MAX_VALUE) {
+            throw new IllegalStateException("Too many distinct statuses: " + entry.getStatus());
+        }
+    }
+
+    /** Code stored for {@code status} (case-insensitive), or -1 if no row has it. */
+    public int statusCodeOf(String status) {
+        return status == null ? -1 : statuses.idOf(status.trim().toLowerCase());
+    }
+
+    /* ---------------- internals ---------------- */
+
+    // Statuses are stored lower-cased, matching InputValidator's case-insensitive rules.
+    private byte statusCode(String status) {
+        String key = status == null ? "" : status.trim().toLowerCase();
+        int id = statuses.idOf(key);
+        if (id < 0 && statuses.size() > Byte.MAX_VALUE) throw new IllegalStateException("Too many distinct statuses: " + status);
+        return (byte) (id >= 0 ? id : statuses.intern(key));
+    }
+
+    private void ensureCapacity(int needed) {
+        if (needed <= epochDays.length) return;
+        int capacity = Math.max(needed, epochDays.length + (epochDays.length >> 1));
+        transactionIds = Arrays.copyOf(transactionIds, capacity);
+        epochDays = Arrays.copyOf(epochDays, capacity);
+        debitAccounts = Arrays.copyOf(debitAccounts, capacity);
+        creditAccounts = Arrays.copyOf(creditAccounts, capacity);
+        statusCodes = Arrays.copyOf(statusCodes, capacity);
+        amounts = Arrays.copyOf(amounts, capacity);
+        createdBy = Arrays.copyOf(createdBy, capacity);
+    }
+
+    private void ensureLineCapacity(int lines, int compounds) {
+        if (lines > lineAccounts.length) {
+            int capacity = Math.max(lines, Math.max(64, lineAccounts.length + (lineAccounts.length >> 1)));
+            lineAccounts = Arrays.copyOf(lineAccounts, capacity);
+            lineAmounts = Arrays.copyOf(lineAmounts, capacity);
+        }
+        if (compounds >= compoundStarts.length) {
+            int capacity = Math.max(compounds + 1, Math.max(16, compoundStarts.length + (compoundStarts.length >> 1)));
+            compoundStarts = Arrays.copyOf(compoundStarts, capacity);
+            compoundDebits = Arrays.copyOf(compoundDebits, capacity);
+        }
+    }
+
+    private void checkWritable() {
+        if (readOnly) throw new UnsupportedOperationException("Journal snapshot is read-only.");
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+}
@@ -1,33 +1,242 @@
 package manager;
 
+import metrics.Metrics;
 import model.JournalEntry;
+import utils.InputValidator;
+import utils.TextSink;
+import java.time.LocalDate;
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.RandomAccess;
 import java.util.Scanner;
+import java.util.concurrent.CopyOnWriteArrayList;
 
+/**
+ * 📚 Journal of entries, safe for many writer and reader threads.
+ *
+ * Appends (and listener callbacks) are serialized on one lock, so every
+ * listener sees entries in the same order as the list. Concurrent listeners
+ * ({@link JournalListener#isConcurrent()}, e.g. the general ledger) are
+ * called after that lock is released, so their work runs in parallel. Readers never take
+ * that lock: they work on the entries published so far ({@link #snapshot()},
+ * the date views and queries), so a report is not disturbed by, and does not
+ * hold up, concurrent ingestion. Concurrent readers need a list whose reads are
+ * safe during appends, such as a {@link JournalStore}.
+ */
 public class UnifiedJournalManager {
 
+    private static final Metrics.Operation APPEND = Metrics.operation("journal.append");
+    private static final Metrics.Operation QUERY = Metrics.operation("journal.query");
+    private static final Metrics.Counter LISTENER_FAILURES = Metrics.counter("journal.listener.failures");
+
     // 📦 List that stores journal entries
-    private ArrayList<JournalEntry> entries;
+    private List<JournalEntry> entries;
+
+    // 🔒 Serializes appends so the list and every in-order listener see the same order
+    private final Object appendLock = new Object();
+
+    // 📢 Entries visible to readers (all in-order listeners have processed them)
+    private volatile int published;
+
+    // 🔔 Components kept in sync on every append, in journal order (indexes, checkpoints...)
+    private final List<JournalListener> listeners = new CopyOnWriteArrayList<>();
+
+    // 🔔 Concurrent listeners, called outside the lock; replaced (never modified) under appendLock,
+    //    so an append reads exactly the listeners registered before it
+    private volatile JournalListener[] concurrentListeners = new JournalListener[0];
+
+    // 🗂️ Status / creator / amount indexes used by the filters
+    private final JournalIndex index = new JournalIndex();
 
-    // 🔧 Constructor to initialize the entries list
-    public UnifiedJournalManager(ArrayList<JournalEntry> entries) {
+    // 📅 Date-ordered index used by period reports
+    private final DateIndex dateIndex = new DateIndex();
+
+    // 💾 Optional durable log: addEntry returns only once the entry is on disk
+    private volatile JournalLog log;
+
+    // 🔧 Constructor to initialize the entries list (an ArrayList or a columnar JournalStore)
+    public UnifiedJournalManager(List<JournalEntry> entries) {
         this.entries = entries;
+        this.published = entries.size();
+        addListener(index);
+        addListener(dateIndex);
+    }
+
+    // 💾 Write every new entry through a durable log (set once, before posting starts)
+    public void setLog(JournalLog log) {
+        synchronized (appendLock) {
+            this.log = log;
+        }
     }
 
     // ➕ Method to add a new journal entry
+    //    (a listener failure is rethrown once the entry is published and durable)
     public void addEntry(JournalEntry entry) {
+        try (Metrics.Timer timer = APPEND.start()) {
+            timer.entries(1);
+            long sequence;
+            RuntimeException failure;
+            JournalListener[] concurrent;
+            synchronized (appendLock) {
+                sequence = logAndStore(entry);
+                failure = notifyListeners(entry, null);
+                concurrent = concurrentListeners;
+            }
+            for (JournalListener listener : concurrent) {
+                failure = callListener(listener, entry, failure); // outside the lock: posts run in parallel
+            }
+            awaitDurable(sequence); // outside the lock: concurrent posts share one sync
+            if (failure != null) throw failure;
+        }
+    }
+
+    // ➕ Batch append (e.g. from a bulk import), in list order and contiguous
+    //    (a listener failure doesn't stop the batch; the first one is rethrown at the end)
+    public void addEntries(List<JournalEntry> batch) {
+        try (Metrics.Timer timer = APPEND.start()) {
+            timer.entries(batch.size());
+            long sequence = 0;
+            RuntimeException failure = null;
+            JournalListener[] concurrent;
+            synchronized (appendLock) {
+                for (JournalEntry entry : batch) {
+                    sequence = logAndStore(entry);
+                    failure = notifyListeners(entry, failure);
+                }
+                concurrent = concurrentListeners;
+            }
+            for (JournalListener listener : concurrent) {
+                for (JournalEntry entry : batch) {
+                    failure = callListener(listener, entry, failure);
+                }
+            }
+            awaitDurable(sequence);
+            if (failure != null) throw failure;
+        }
+    }
+
+    // Logs the entry first (a failed log write leaves the journal unchanged), then stores it;
+    // an entry the store would refuse is rejected before it reaches the log
+    private long logAndStore(JournalEntry entry) {
+        JournalLog current = log;
+        if (current != null && entries instanceof JournalStore) ((JournalStore) entries).checkAcceptable(entry);
+        long sequence = current == null ? 0 : current.append(entry);
         entries.add(entry);
+        return sequence;
+    }
+
+    // Runs every in-order listener on the stored entry and publishes it even if one of them
+    // throws: the entry is already logged and in the list, so hiding it would only delay it to
+    // the next append. Returns the first failure (later ones are attached as suppressed).
+    private RuntimeException notifyListeners(JournalEntry entry, RuntimeException failure) {
+        try {
+            for (JournalListener listener : listeners) {
+                failure = callListener(listener, entry, failure);
+            }
+        } finally {
+            published = entries.size();
+        }
+        return failure;
+    }
+
+    private static RuntimeException callListener(JournalListener listener, JournalEntry entry, RuntimeException failure) {
+        try {
+            listener.onEntryAdded(entry);
+        } catch (RuntimeException e) {
+            LISTENER_FAILURES.increment();
+            if (failure == null) return e;
+            failure.addSuppressed(e);
+        }
+        return failure;
+    }
+
+    private void awaitDurable(long sequence) {
+        JournalLog current = log;
+        if (current != null && sequence > 0) current.awaitDurable(sequence);
+    }
+
+    // 🔔 Register a listener; it is replayed over existing entries so it starts in sync
+    public void addListener(JournalListener listener) {
+        addListener(listener, true);
+    }
+
+    // 🔔 Register a listener; replayExisting=false for listeners that already hold
+    //    the existing entries (e.g. the journal file they were loaded from)
+    public void addListener(JournalListener listener, boolean replayExisting) {
+        synchronized (appendLock) {
+            if (replayExisting && entries instanceof JournalStore) {
+                listener.onRowsAdded((JournalStore) entries, 0, entries.size()); // columns, no entry objects
+            } else if (replayExisting) {
+                for (JournalEntry entry : entries) {
+                    listener.onEntryAdded(entry);
+                }
+            }
+            if (listener.isConcurrent()) {
+                JournalListener[] current = concurrentListeners;
+                JournalListener[] grown = Arrays.copyOf(current, current.length + 1);
+                grown[current.length] = listener;
+                concurrentListeners = grown;
+            } else {
+                listeners.add(listener);
+            }
+        }
+    }
+
+    // 📭 True when no entry has been added yet
+    public boolean isEmpty() {
+        return published == 0;
+    }
+
+    // 🔢 Number of entries visible to readers
+    public int size() {
+        return published;
+    }
+
+    // 📸 Read-only view of the entries published so far; later appends don't change it
+    public List<JournalEntry> snapshot() {
+        int count = published;
+        if (entries instanceof JournalStore) {
+            return ((JournalStore) entries).snapshot(count);
+        }
+        return new PrefixView(entries, count);
+    }
+
+    // 📄 Page-by-page cursor over the published entries, in date order (undated last)
+    public EntryCursor cursor() {
+        return new EntryCursor(entries, dateIndex, published);
+    }
+
+    // 📅 Entries dated within [from, to], found by binary search on the date index
+    public List<JournalEntry> entriesBetween(LocalDate from, LocalDate to) {
+        return new PositionView(entries, publishedOnly(dateIndex.positionsBetween(from, to)));
+    }
+
+    // 📅 Same, among the first upTo entries appended, including ones whose listeners are
+    //    still running: for a listener that reads the journal up to the entries it has seen
+    public List<JournalEntry> entriesBetween(LocalDate from, LocalDate to, int upTo) {
+        return new PositionView(entries, below(dateIndex.positionsBetween(from, to), upTo));
+    }
+
+    // 📅 Entries dated on or before asOf (e.g. for a balance sheet)
+    public List<JournalEntry> entriesUpTo(LocalDate asOf) {
+        return new PositionView(entries, publishedOnly(dateIndex.positionsUpTo(asOf)));
     }
 
     // 📘 Method to display all journal entries
     public void displayAllEntries() {
-        if (entries.isEmpty()) {
+        List<JournalEntry> view = snapshot();
+        if (view.isEmpty()) {
             System.out.println("📭 No entries available.");
             return;
         }
-        for (JournalEntry entry : entries) {
-            entry.display();
+        TextSink out = TextSink.console();
+        for (JournalEntry entry : view) {
+            entry.display(out);
         }
+        out.flush();
     }
 
     // 🔍 Method to filter entries based on multiple criteria
@@ -74,29 +283,102 @@ public class UnifiedJournalManager {
                 try {
                     minAmount = Double.parseDouble(amountInput);
                 } catch (NumberFormatException e) {
+                    minAmount = null;
+                }
+                if (minAmount != null && !InputValidator.isValidFilterAmount(minAmount)) minAmount = null;
+                if (minAmount == null) {
                     System.out.println("⚠️ Invalid amount input. Skipping the amount filter.");
                 }
             }
         }
 
-        // 🔁 Loop through entries and apply filters
-        boolean found = false;
-        for (JournalEntry entry : entries) {
-            boolean match = true;
+        // 🔁 Apply filters through the indexes
+        List<JournalEntry> matches = filter(status, createdBy, minAmount);
+        TextSink out = TextSink.console();
+        for (JournalEntry entry : matches) {
+            entry.display(out);
+        }
+        out.flush();
 
-            if (status != null && !entry.getStatus().equalsIgnoreCase(status)) match = false;
-            if (createdBy != null && !entry.getCreatedBy().equalsIgnoreCase(createdBy)) match = false;
-            if (minAmount != null && entry.getAmount() < minAmount) match = false;
+        // 📨 Display message if no matches found
+        if (matches.isEmpty()) {
+            System.out.println("📭 No entries found matching the selected filters.");
+        }
+    }
+
+    // 🔍 Programmatic filter: any criterion may be null (= not filtered)
+    public List<JournalEntry> filter(String status, String createdBy, Double minAmount) {
+        return query(new JournalQuery().status(status).createdBy(createdBy).minAmount(minAmount));
+    }
 
-            if (match) {
-                entry.display();
-                found = true;
+    // 🔍 Runs a query against the status / creator / amount indexes
+    public List<JournalEntry> query(JournalQuery query) {
+        try (Metrics.Timer timer = QUERY.start()) {
+            int count = published;
+            BitSet positions = index.select(query);
+            positions.clear(count, Math.max(count, positions.length())); // appended after this query started
+            List<JournalEntry> matches = new ArrayList<>(positions.cardinality());
+            for (int p = positions.nextSetBit(0); p >= 0; p = positions.nextSetBit(p + 1)) {
+                matches.add(entries.get(p));
             }
+            timer.entries(matches.size());
+            return matches;
         }
+    }
 
-        // 📨 Display message if no matches found
-        if (!found) {
-            System.out.println("📭 No entries found matching the selected filters.");
+    // 📢 Drops positions an index already holds but readers can't see yet (append in progress)
+    private int[] publishedOnly(int[] positions) {
+        return below(positions, published);
+    }
+
+    private static int[] below(int[] positions, int count) {
+        int kept = 0;
+        for (int p : positions) {
+            if (p < count) positions[kept++] = p;
+        }
+        return kept == positions.length ? positions : Arrays.copyOf(positions, kept);
+    }
+
+    // 📋 Read-only list over the first entries of the journal
+    private static class PrefixView extends AbstractList<JournalEntry> implements RandomAccess {
+        private final List<JournalEntry> source;
+        private final int size;
+
+        PrefixView(List<JournalEntry> source, int size) {
+            this.source = source;
+            this.size = size;
+        }
+
+        @Override
+        public JournalEntry get(int index) {
+            if (index < 0 || index >= size) throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            return source.get(index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    // 📋 Read-only list over selected positions of the journal
+    private static class PositionView extends AbstractList<JournalEntry> implements RandomAccess {
+        private final List<JournalEntry> source;
+        private final int[] positions;
+
+        PositionView(List<JournalEntry> source, int[] positions) {
+            this.source = source;
+            this.positions = positions;
+        }
+
+        @Override
+        public JournalEntry get(int index) {
+            return source.get(positions[index]);
+        }
+
+        @Override
+        public int size() {
+            return positions.length;
         }
     }
 }
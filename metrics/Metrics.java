@@ -0,0 +1,291 @@
+package metrics;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Process-wide metrics registry: counters, latency histograms and gauges.
+ *
+ * Services keep {@link Operation} handles in static fields and time their hot
+ * paths with them:
+ * <pre>
+ * try (Metrics.Timer t = BUILD.start()) {
+ *     ...
+ *     t.entries(entries.size());
+ * }
+ * </pre>
+ * or, with no entry count to report, {@code return BUILD.time(() -> ...);}.
+ * While metrics are disabled ({@code -Dmetrics.enabled=false} or
+ * {@link #setEnabled(boolean)}) {@code start()} returns a shared no-op timer:
+ * one volatile read, no clock read, no allocation.
+ *
+ * Every timed operation also commits a JFR {@code accounting.Operation}
+ * event when a flight recording is running.
+ *
+ * Output: {@link #dump()} (human-readable text) and {@link #prometheus()}
+ * (Prometheus text exposition format, also written to a file by
+ * {@link #writePrometheus(Path)}).
+ */
+public final class Metrics {
+
+    private static final String PREFIX = "accounting_";
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private static volatile boolean enabled = !"false".equalsIgnoreCase(System.getProperty("metrics.enabled"));
+
+    private static final Map<String, Counter> COUNTERS = new ConcurrentHashMap<>();
+    private static final Map<String, Operation> OPERATIONS = new ConcurrentHashMap<>();
+    private static final Map<String, LongSupplier> GAUGES = new ConcurrentHashMap<>();
+
+    private Metrics() {
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean on) {
+        enabled = on;
+    }
+
+    /** Counter registered under {@code name} (created on first use). */
+    public static Counter counter(String name) {
+        return COUNTERS.computeIfAbsent(name, Counter::new);
+    }
+
+    /** Timed operation registered under {@code name} (created on first use). */
+    public static Operation operation(String name) {
+        return OPERATIONS.computeIfAbsent(name, Operation::new);
+    }
+
+    /** Gauge read from {@code value} at dump time; replaces an earlier gauge of the same name. */
+    public static void gauge(String name, LongSupplier value) {
+        GAUGES.put(name, value);
+    }
+
+    /** Zeroes every counter and histogram (gauges are live values). */
+    public static void reset() {
+        COUNTERS.values().forEach(c -> c.adder.reset());
+        OPERATIONS.values().forEach(o -> {
+            o.latency.reset();
+            o.entries.reset();
+        });
+    }
+
+    /* ---------------- Metric types ---------------- */
+
+    /** Monotonic counter (LongAdder: no contention between threads). */
+    public static final class Counter {
+        private final String name;
+        private final LongAdder adder = new LongAdder();
+
+        private Counter(String name) {
+            this.name = name;
+        }
+
+        public void increment() {
+            if (enabled) adder.increment();
+        }
+
+        public void add(long n) {
+            if (enabled) adder.add(n);
+        }
+
+        public long get() {
+            return adder.sum();
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    /** A timed operation: latency histogram (ns) + entries processed. */
+    public static final class Operation {
+        private final String name;
+        private final Histogram latency = new Histogram();
+        private final LongAdder entries = new LongAdder();
+
+        private Operation(String name) {
+            this.name = name;
+        }
+
+        /** Starts timing one call; close the timer when the call ends. */
+        public Timer start() {
+            return enabled ? new Timer(this) : Timer.NOOP;
+        }
+
+        /** Times {@code call}, for call sites that have no entry count to report. */
+        public <T> T time(Supplier<T> call) {
+            Timer timer = start();
+            try {
+                return call.get();
+            } finally {
+                timer.close();
+            }
+        }
+
+        /** Records a call that was timed elsewhere. */
+        public void record(long nanos, long entryCount) {
+            if (!enabled) return;
+            latency.record(nanos);
+            entries.add(entryCount);
+        }
+
+        public Histogram getLatency() {
+            return latency;
+        }
+
+        public long getEntries() {
+            return entries.sum();
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    /** One running call of an {@link Operation}. */
+    public static final class Timer implements AutoCloseable {
+        static final Timer NOOP = new Timer(null);
+
+        private final Operation operation;
+        private final long startNanos;
+        private final OperationEvent event;
+        private long entries;
+
+        private Timer(Operation operation) {
+            this.operation = operation;
+            if (operation == null) {
+                this.startNanos = 0L;
+                this.event = null;
+            } else {
+                this.event = new OperationEvent();
+                this.event.begin();
+                this.startNanos = System.nanoTime();
+            }
+        }
+
+        /** Entries scanned or added by this call (accumulates). */
+        public Timer entries(long count) {
+            entries += count;
+            return this;
+        }
+
+        @Override
+        public void close() {
+            if (operation == null) return;
+            operation.record(System.nanoTime() - startNanos, entries);
+            event.end();
+            if (event.shouldCommit()) {
+                event.operation = operation.name;
+                event.entries = entries;
+                event.commit();
+            }
+        }
+    }
+
+    /* ---------------- Output ---------------- */
+
+    /** Human-readable dump: counters, gauges, then per-operation latency (ms). */
+    public static String dump() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Metrics (").append(enabled ? "enabled" : "disabled").append(")\n");
+        for (Counter c : new TreeMap<>(COUNTERS).values()) {
+            sb.append(String.format("  %-40s %,d%n", c.name, c.get()));
+        }
+        for (Map.Entry<String, LongSupplier> g : new TreeMap<>(GAUGES).entrySet()) {
+            sb.append(String.format("  %-40s %,d%n", g.getKey(), g.getValue().getAsLong()));
+        }
+        for (Operation o : new TreeMap<>(OPERATIONS).values()) {
+            Histogram h = o.latency;
+            long count = h.getCount();
+            sb.append(String.format("  %-40s calls=%,d entries=%,d", o.name, count, o.getEntries()));
+            if (count > 0) {
+                sb.append(String.format(" mean=%.3fms p50=%.3fms p99=%.3fms max=%.3fms",
+                        millis(h.getSum()) / count, millis(h.getValueAtQuantile(0.5)),
+                        millis(h.getValueAtQuantile(0.99)), millis(h.getMax())));
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Prometheus text format: counters as {@code _total}, gauges as-is,
+     * operations as summaries in seconds (quantiles, _sum, _count) plus
+     * {@code _max_seconds} and {@code _entries_total}.
+     */
+    public static String prometheus() {
+        StringBuilder sb = new StringBuilder();
+        for (Counter c : new TreeMap<>(COUNTERS).values()) {
+            String name = metricName(c.name) + "_total";
+            sb.append("# TYPE ").append(name).append(" counter\n");
+            sb.append(name).append(' ').append(c.get()).append('\n');
+        }
+        for (Map.Entry<String, LongSupplier> g : new TreeMap<>(GAUGES).entrySet()) {
+            String name = metricName(g.getKey());
+            sb.append("# TYPE ").append(name).append(" gauge\n");
+            sb.append(name).append(' ').append(g.getValue().getAsLong()).append('\n');
+        }
+        for (Operation o : new TreeMap<>(OPERATIONS).values()) {
+            String name = metricName(o.name) + "_seconds";
+            Histogram h = o.latency;
+            sb.append("# TYPE ").append(name).append(" summary\n");
+            for (double q : QUANTILES) {
+                sb.append(name).append("{quantile=\"").append(q).append("\"} ")
+                        .append(seconds(h.getValueAtQuantile(q))).append('\n');
+            }
+            sb.append(name).append("_sum ").append(seconds(h.getSum())).append('\n');
+            sb.append(name).append("_count ").append(h.getCount()).append('\n');
+            sb.append("# TYPE ").append(name).append("_max gauge\n");
+            sb.append(name).append("_max ").append(seconds(h.getMax())).append('\n');
+            String entries = metricName(o.name) + "_entries_total";
+            sb.append("# TYPE ").append(entries).append(" counter\n");
+            sb.append(entries).append(' ').append(o.getEntries()).append('\n');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Writes {@link #prometheus()} to {@code file} atomically (temp file +
+     * rename), e.g. for the node_exporter textfile collector.
+     */
+    public static void writePrometheus(Path file) throws IOException {
+        Path dir = file.toAbsolutePath().getParent();
+        Path tmp = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+        try {
+            Files.write(tmp, prometheus().getBytes(StandardCharsets.UTF_8));
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private static String metricName(String name) {
+        StringBuilder sb = new StringBuilder(PREFIX);
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            sb.append(Character.isLetterOrDigit(c) ? c : '_');
+        }
+        return sb.toString();
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    private static double seconds(long nanos) {
+        return nanos / (double) TimeUnit.SECONDS.toNanos(1);
+    }
+}
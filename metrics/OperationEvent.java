@@ -0,0 +1,28 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for one timed service operation (ledger build, report generation,
+ * import, ...). Its start and duration line up with GC and allocation events
+ * in the same recording, e.g. {@code java -XX:StartFlightRecording=filename=app.jfr ...}.
+ */
+@Name("accounting.Operation")
+@Label("Accounting Operation")
+@Category({"Accounting", "Services"})
+@Description("A timed service operation and the number of journal entries it processed")
+@StackTrace(false)
+class OperationEvent extends Event {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Entries")
+    @Description("Journal entries scanned or added by the operation")
+    long entries;
+}
@@ -0,0 +1,114 @@
+package model;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 📇 Shared chart-of-accounts registry.
+ *
+ * Every account name is mapped to a dense int id (0, 1, 2, ...) when a
+ * Transaction is created, so services can aggregate into {@code long[]} arrays
+ * indexed by account id instead of hashing strings per line.
+ *
+ * Identity is the trimmed spelling and stays case-sensitive, as in the
+ * general ledger: "Cash" and "cash " share an id, "Cash" and "CASH" do not.
+ * The case-folded key ({@link #normalizedName(int)}) is kept per id for the
+ * chart lookups of the financial statements; several ids may share it.
+ */
+public final class AccountRegistry {
+
+    /** Id used for a missing account name. */
+    public static final int NONE = -1;
+
+    // Exact raw spelling → id (skips trimming for names seen before).
+    private static final Map<String, Integer> BY_RAW = new ConcurrentHashMap<>();
+    private static final Map<String, Integer> BY_TRIMMED = new HashMap<>();
+
+    private static volatile String[] normalizedNames = new String[64];
+    private static volatile String[] displayNames = new String[64];
+    private static volatile int size;
+
+    private AccountRegistry() {
+    }
+
+    /** Returns the id for an account name, registering it on first sight. */
+    public static int register(String accountName) {
+        if (accountName == null) return NONE;
+        Integer id = BY_RAW.get(accountName);
+        if (id != null) return id;
+        return registerSlow(accountName);
+    }
+
+    /** Returns the id for an account name, or {@link #NONE} if it was never registered. */
+    public static int find(String accountName) {
+        if (accountName == null) return NONE;
+        Integer id = BY_RAW.get(accountName);
+        if (id != null) return id;
+        synchronized (AccountRegistry.class) {
+            id = BY_TRIMMED.get(accountName.trim());
+        }
+        return id == null ? NONE : id;
+    }
+
+    /** Case-folded chart key ({@link #normalize(String)}); not unique per id. */
+    public static String normalizedName(int id) {
+        return normalizedNames[id];
+    }
+
+    /** Trimmed spelling of the account, as used by ledger and balance sheet. */
+    public static String displayName(int id) {
+        return displayNames[id];
+    }
+
+    /** Number of registered accounts; valid ids are {@code 0 .. size()-1}. */
+    public static int size() {
+        return size;
+    }
+
+    /**
+     * trim + lower-case + collapse whitespace runs + en dash → hyphen,
+     * in a single pass (no regex).
+     */
+    public static String normalize(String s) {
+        if (s == null) return "";
+        String t = s.trim();
+        StringBuilder sb = new StringBuilder(t.length());
+        boolean space = false;
+        for (int i = 0; i < t.length(); i++) {
+            char c = t.charAt(i);
+            if (Character.isWhitespace(c)) {
+                space = true;
+                continue;
+            }
+            if (space) {
+                sb.append(' ');
+                space = false;
+            }
+            sb.append(c == '–' ? '-' : c);
+        }
+        return sb.toString().toLowerCase();
+    }
+
+    private static synchronized int registerSlow(String accountName) {
+        Integer id = BY_RAW.get(accountName);
+        if (id != null) return id;
+
+        String key = accountName.trim();
+        id = BY_TRIMMED.get(key);
+        if (id == null) {
+            id = size;
+            if (id == normalizedNames.length) {
+                normalizedNames = Arrays.copyOf(normalizedNames, id * 2);
+                displayNames = Arrays.copyOf(displayNames, id * 2);
+            }
+            normalizedNames[id] = normalize(key);
+            displayNames[id] = key;
+            BY_TRIMMED.put(key, id);
+            size = id + 1;
+        }
+        BY_RAW.put(accountName, id);
+        return id;
+    }
+}
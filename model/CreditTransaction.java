@@ -1,16 +1,27 @@
 package model;
 
+import utils.TextSink;
+
 public class CreditTransaction extends Transaction {
 
     public CreditTransaction(String accountName, double amount) {
         super(accountName, amount);
     }
 
+    private CreditTransaction(long amountMinor, String accountName) {
+        super(amountMinor, accountName);
+    }
+
+    // 🔹 Creates a transaction from an exact amount in minor units (cents)
+    public static CreditTransaction ofMinor(String accountName, long amountMinor) {
+        return new CreditTransaction(amountMinor, accountName);
+    }
+
     @Override
-    public void display() {
-        System.out.println("💰 Credit Transaction");
-        System.out.println("Credit Account: " + getAccountName());
-        System.out.println("Credit Amount : " + getAmount());
-        System.out.println("--------------------------------");
+    public void display(TextSink out) {
+        out.println("💰 Credit Transaction");
+        out.append("Credit Account: ").println(String.valueOf(getAccountName()));
+        out.append("Credit Amount : ").println(String.valueOf(getAmount()));
+        out.println("--------------------------------");
     }
 }
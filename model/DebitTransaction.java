@@ -1,15 +1,26 @@
 package model;
 
+import utils.TextSink;
+
 public class DebitTransaction extends Transaction {
 
     public DebitTransaction(String accountName, double amount) {
         super(accountName, amount);
     }
 
+    private DebitTransaction(long amountMinor, String accountName) {
+        super(amountMinor, accountName);
+    }
+
+    // 🔹 Creates a transaction from an exact amount in minor units (cents)
+    public static DebitTransaction ofMinor(String accountName, long amountMinor) {
+        return new DebitTransaction(amountMinor, accountName);
+    }
+
     @Override
-    public void display() {
-        System.out.println("Account Name : " + getAccountName());
-        System.out.println("Debit Amount : " + getAmount());
-        System.out.println("----------------------------");
+    public void display(TextSink out) {
+        out.append("Account Name : ").println(String.valueOf(getAccountName()));
+        out.append("Debit Amount : ").println(String.valueOf(getAmount()));
+        out.println("----------------------------");
     }
 }
@@ -1,8 +1,12 @@
 package model;
 
+import utils.TextSink;
+
 import java.time.LocalDate;
+import java.util.List;
 
-// 🔹 Represents one full journal entry (debit + credit)
+// 🔹 Represents one full journal entry: one debit + one credit, or a compound
+//    entry with N debit and M credit lines
 public class JournalEntry {
 
     // 🔐 Fields (Encapsulation)
@@ -13,6 +17,12 @@ public class JournalEntry {
     private DebitTransaction debitTransaction;
     private CreditTransaction creditTransaction;
 
+    // 🧾 Compound entries only (null otherwise): one slot per line, debit lines first.
+    //    Account ids (AccountRegistry) and amounts in minor units, no object per line.
+    private int[] lineAccounts;
+    private long[] lineAmounts;
+    private int debitLines;
+
     // ✅ Constructor sets all values
     public JournalEntry(String transactionID, LocalDate date,
                         DebitTransaction debitTransaction,
@@ -26,22 +36,117 @@ public class JournalEntry {
         this.creditTransaction = creditTransaction;
     }
 
+    // Compound entry from validated line arrays
+    private JournalEntry(String transactionID, LocalDate date, int[] lineAccounts, long[] lineAmounts,
+                         int debitLines, String createdBy, String status) {
+        this(transactionID, date, null, null, createdBy, status);
+        this.lineAccounts = lineAccounts;
+        this.lineAmounts = lineAmounts;
+        this.debitLines = debitLines;
+    }
+
+    // 🧾 Compound entry (e.g. payroll, invoice): N debit lines and M credit lines
+    //    whose totals must be equal. The lines are copied into compact arrays.
+    public static JournalEntry compound(String transactionID, LocalDate date,
+                                        List<DebitTransaction> debits, List<CreditTransaction> credits,
+                                        String createdBy, String status) {
+        if (debits == null || credits == null) throw new IllegalArgumentException("Debit and credit lines are required.");
+        int count = debits.size() + credits.size();
+        int[] accounts = new int[count];
+        long[] amounts = new long[count];
+        int i = 0;
+        for (Transaction t : debits) {
+            accounts[i] = t.getAccountId();
+            amounts[i++] = t.getAmountMinor();
+        }
+        for (Transaction t : credits) {
+            accounts[i] = t.getAccountId();
+            amounts[i++] = t.getAmountMinor();
+        }
+        return ofLines(transactionID, date, accounts, amounts, debits.size(), createdBy, status);
+    }
+
+    // 🧾 Compound entry from line arrays (debit lines first), e.g. read back from storage.
+    //    The arrays are kept, not copied.
+    public static JournalEntry ofLines(String transactionID, LocalDate date,
+                                       int[] accountIds, long[] amountsMinor, int debitLines,
+                                       String createdBy, String status) {
+        validateLines(accountIds, amountsMinor, debitLines);
+        return new JournalEntry(transactionID, date, accountIds, amountsMinor, debitLines, createdBy, status);
+    }
+
+    // ⚖️ At least one line per side, every line has an account and a positive amount,
+    //    and total debits equal total credits
+    private static void validateLines(int[] accountIds, long[] amountsMinor, int debitLines) {
+        if (accountIds.length != amountsMinor.length) throw new IllegalArgumentException("Line arrays differ in length.");
+        if (debitLines < 1 || debitLines >= accountIds.length) {
+            throw new IllegalArgumentException("A compound entry needs at least one debit and one credit line.");
+        }
+        long debits = 0L;
+        long credits = 0L;
+        for (int i = 0; i < accountIds.length; i++) {
+            if (accountIds[i] < 0) throw new IllegalArgumentException("Line " + (i + 1) + " has no account.");
+            if (amountsMinor[i] <= 0) throw new IllegalArgumentException("Line " + (i + 1) + " amount must be positive.");
+            try {
+                if (i < debitLines) debits = Math.addExact(debits, amountsMinor[i]);
+                else credits = Math.addExact(credits, amountsMinor[i]);
+            } catch (ArithmeticException e) {
+                throw new IllegalArgumentException("Entry total is too large.");
+            }
+        }
+        if (debits != credits) {
+            throw new IllegalArgumentException("Entry is not balanced: debits " + Money.toBigDecimal(debits)
+                    + " ≠ credits " + Money.toBigDecimal(credits) + ".");
+        }
+    }
+
     // 📄 Shows the full journal entry details
     public void display() {
-        System.out.println("Transaction ID : " + transactionID);
-        System.out.println("Date           : " + date);
-        System.out.println("Created By     : " + createdBy);
-        System.out.println("Status         : " + status);
-        System.out.println("----- Debit Entry -----");
-        debitTransaction.display();
-        System.out.println("----- Credit Entry -----");
-        creditTransaction.display();
-        System.out.println("===============================");
+        TextSink out = TextSink.console();
+        display(out);
+        out.flush();
+    }
+
+    // 📄 Writes the entry details to a buffered sink (one sink for a whole listing)
+    public void display(TextSink out) {
+        out.append("Transaction ID : ").println(String.valueOf(transactionID));
+        out.append("Date           : ").println(String.valueOf(date));
+        out.append("Created By     : ").println(String.valueOf(createdBy));
+        out.append("Status         : ").println(String.valueOf(status));
+        if (isCompound()) {
+            for (int i = 0; i < lineAccounts.length; i++) {
+                String account = AccountRegistry.displayName(lineAccounts[i]);
+                if (i < debitLines) {
+                    out.println("----- Debit Entry -----");
+                    DebitTransaction.ofMinor(account, lineAmounts[i]).display(out);
+                } else {
+                    out.println("----- Credit Entry -----");
+                    CreditTransaction.ofMinor(account, lineAmounts[i]).display(out);
+                }
+            }
+            out.println("===============================");
+            return;
+        }
+        out.println("----- Debit Entry -----");
+        debitTransaction.display(out);
+        out.println("----- Credit Entry -----");
+        creditTransaction.display(out);
+        out.println("===============================");
     }
 
     // 🧮 Returns the total amount (debit + credit)
     public double getAmount() {
-        return debitTransaction.getAmount(); // same as credit
+        return Money.toDouble(getAmountMinor()); // same as credit
+    }
+
+    // 🧮 Same amount in minor units (cents); total of the debit lines for a compound entry
+    public long getAmountMinor() {
+        if (isCompound()) {
+            long total = 0L;
+            for (int i = 0; i < debitLines; i++) total += lineAmounts[i];
+            return total;
+        }
+        return debitTransaction.getAmountMinor();
     }
 
     // 🔍 Getters (to access private fields)
@@ -61,17 +166,65 @@ public class JournalEntry {
         return status;
     }
 
+    // 🔹 The debit side of a simple entry (null for a compound entry: use the line getters)
     public DebitTransaction getDebitTransaction() {
         return debitTransaction;
     }
 
+    // 🔹 The credit side of a simple entry (null for a compound entry: use the line getters)
     public CreditTransaction getCreditTransaction() {
         return creditTransaction;
     }
 
+    // 🧾 Lines, for simple and compound entries alike (debit lines first).
+    //    A simple entry has one line per present side.
+    public boolean isCompound() {
+        return lineAccounts != null;
+    }
+
+    public int getLineCount() {
+        if (isCompound()) return lineAccounts.length;
+        return (debitTransaction != null ? 1 : 0) + (creditTransaction != null ? 1 : 0);
+    }
+
+    public int getDebitLineCount() {
+        if (isCompound()) return debitLines;
+        return debitTransaction != null ? 1 : 0;
+    }
+
+    public boolean isDebitLine(int line) {
+        return line < getDebitLineCount();
+    }
+
+    // 🔹 Registry id of the line's account (AccountRegistry.NONE if it has no name)
+    public int getLineAccountId(int line) {
+        if (isCompound()) return lineAccounts[line];
+        return lineTransaction(line).getAccountId();
+    }
+
+    // 🔹 Line amount in minor units (always as entered: debit or credit per isDebitLine)
+    public long getLineAmountMinor(int line) {
+        if (isCompound()) return lineAmounts[line];
+        return lineTransaction(line).getAmountMinor();
+    }
+
+    public String getLineAccountName(int line) {
+        if (isCompound()) return AccountRegistry.displayName(lineAccounts[line]);
+        return lineTransaction(line).getAccountName();
+    }
+
+    private Transaction lineTransaction(int line) {
+        if (line < 0 || line >= getLineCount()) {
+            throw new IndexOutOfBoundsException("Line: " + line + ", Lines: " + getLineCount());
+        }
+        return isDebitLine(line) ? debitTransaction : creditTransaction;
+    }
+
     // 🔎 Optional: Return one account name (for display/filtering)
     public String getAccountName() {
-        if (debitTransaction != null) {
+        if (isCompound()) {
+            return AccountRegistry.displayName(lineAccounts[0]);
+        } else if (debitTransaction != null) {
             return debitTransaction.getAccountName();
         } else if (creditTransaction != null) {
             return creditTransaction.getAccountName();
@@ -0,0 +1,77 @@
+package model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Currency;
+
+/**
+ * 💵 Fixed-point money helpers.
+ * Amounts are carried as a {@code long} count of minor units (cents for a
+ * 2-decimal currency) so services can add them without allocating and compare
+ * them exactly. Conversion to {@link BigDecimal} happens only when a value
+ * leaves the hot path (report models / printing).
+ */
+public final class Money {
+
+    /** Scale used throughout the journal (2 decimals, e.g. USD/EUR cents). */
+    public static final int DEFAULT_SCALE = 2;
+
+    private Money() {
+    }
+
+    /** Number of minor-unit digits for a currency (JPY → 0, USD → 2, BHD → 3). */
+    public static int scaleOf(Currency currency) {
+        return Math.max(0, currency.getDefaultFractionDigits());
+    }
+
+    /** Converts a decimal amount to minor units, rounding HALF_UP (done once per transaction). */
+    public static long toMinor(double amount) {
+        return toMinor(amount, DEFAULT_SCALE);
+    }
+
+    public static long toMinor(double amount, int scale) {
+        return toMinor(BigDecimal.valueOf(amount), scale);
+    }
+
+    public static long toMinor(BigDecimal amount) {
+        return toMinor(amount, DEFAULT_SCALE);
+    }
+
+    /** Throws IllegalArgumentException if the amount doesn't fit in a long count of minor units. */
+    public static long toMinor(BigDecimal amount, int scale) {
+        try {
+            return amount.setScale(scale, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Amount is too large: " + amount + ".");
+        }
+    }
+
+    /** Largest amount (exclusive) that fits in minor units at {@code scale}, as a double. */
+    public static double maxAmount(int scale) {
+        return Long.MAX_VALUE / Math.pow(10, scale);
+    }
+
+    /**
+     * Smallest amount in minor units that is >= {@code amount} (a filter
+     * minimum), clamped to the long range instead of overflowing.
+     */
+    public static long ceilingMinor(BigDecimal amount) {
+        BigDecimal minor = amount.setScale(DEFAULT_SCALE, RoundingMode.CEILING).movePointRight(DEFAULT_SCALE);
+        if (minor.compareTo(BigDecimal.valueOf(Long.MAX_VALUE)) >= 0) return Long.MAX_VALUE;
+        if (minor.compareTo(BigDecimal.valueOf(Long.MIN_VALUE)) <= 0) return Long.MIN_VALUE;
+        return minor.longValueExact();
+    }
+
+    /** Renderer boundary: minor units → BigDecimal with the default scale. */
+    public static BigDecimal toBigDecimal(long minor) {
+        return BigDecimal.valueOf(minor, DEFAULT_SCALE);
+    }
+
+    public static BigDecimal toBigDecimal(long minor, int scale) {
+        return BigDecimal.valueOf(minor, scale);
+    }
+
+    public static double toDouble(long minor) {
+        return toBigDecimal(minor).doubleValue();
+    }
+}
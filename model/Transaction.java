@@ -1,16 +1,27 @@
 package model;
 
+import utils.TextSink;
+
 // 🔹 Abstract base class for all types of transactions (like Debit or Credit)
 public abstract class Transaction {
 
     // 🔹 Private fields (Encapsulation)
     private String accountName;
-    private double amount;
+    private long amountMinor; // amount in minor units (cents), see Money
+    private int accountId;    // dense id from AccountRegistry (normalized once, here)
 
     // 🔹 Constructor to set account name and amount when creating a transaction
     public Transaction(String accountName, double amount) {
         this.accountName = accountName;
-        this.amount = amount;
+        this.amountMinor = Money.toMinor(amount);
+        this.accountId = AccountRegistry.register(accountName);
+    }
+
+    // 🔹 Constructor for amounts already in minor units (used by stores/decoders)
+    protected Transaction(long amountMinor, String accountName) {
+        this.accountName = accountName;
+        this.amountMinor = amountMinor;
+        this.accountId = AccountRegistry.register(accountName);
     }
 
     // 🔹 Getter methods to access private fields
@@ -19,9 +30,26 @@ public abstract class Transaction {
     }
 
     public double getAmount() {
-        return amount;
+        return Money.toDouble(amountMinor);
+    }
+
+    // 🔹 Registry id of the account (AccountRegistry.NONE if no name)
+    public int getAccountId() {
+        return accountId;
+    }
+
+    // 🔹 Exact amount in minor units, used by the reporting services
+    public long getAmountMinor() {
+        return amountMinor;
+    }
+
+    // 🔹 Prints the transaction to the console
+    public void display() {
+        TextSink out = TextSink.console();
+        display(out);
+        out.flush();
     }
 
-    // 🔹 Abstract method to be implemented by child classes
-    public abstract void display();
+    // 🔹 Abstract method to be implemented by child classes (writes to a buffered sink)
+    public abstract void display(TextSink out);
 }
@@ -0,0 +1,253 @@
+package server;
+
+import utils.AmountFormatter;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Minimal JSON support for the report server (no external library).
+ *
+ * - {@link #parseObject(String)} reads a flat object: string, number, boolean
+ *   and null values only, returned as their text (null stays null).
+ * - {@link Writer} appends objects and arrays to a StringBuilder and places
+ *   the commas itself.
+ */
+public final class Json {
+
+    private Json() {
+    }
+
+    /* ---------------- Parsing ---------------- */
+
+    /** Parses {@code {"key": value, ...}}; nested objects and arrays are rejected. */
+    public static Map<String, String> parseObject(String text) {
+        Parser p = new Parser(text == null ? "" : text);
+        Map<String, String> fields = new LinkedHashMap<>();
+        p.skipWhitespace();
+        p.expect('{');
+        p.skipWhitespace();
+        if (p.peek() == '}') {
+            p.pos++;
+        } else {
+            while (true) {
+                p.skipWhitespace();
+                String key = p.readString();
+                p.skipWhitespace();
+                p.expect(':');
+                p.skipWhitespace();
+                fields.put(key, p.readValue());
+                p.skipWhitespace();
+                if (p.peek() == ',') {
+                    p.pos++;
+                    continue;
+                }
+                p.expect('}');
+                break;
+            }
+        }
+        p.skipWhitespace();
+        if (p.pos != p.text.length()) throw p.error("Unexpected trailing content");
+        return fields;
+    }
+
+    private static final class Parser {
+        final String text;
+        int pos;
+
+        Parser(String text) {
+            this.text = text;
+        }
+
+        char peek() {
+            return pos < text.length() ? text.charAt(pos) : '\0';
+        }
+
+        void skipWhitespace() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) pos++;
+        }
+
+        void expect(char c) {
+            if (peek() != c) throw error("Expected '" + c + "'");
+            pos++;
+        }
+
+        String readValue() {
+            char c = peek();
+            if (c == '"') return readString();
+            if (c == '{' || c == '[') throw error("Nested values are not supported");
+            int start = pos;
+            while (pos < text.length() && ",}".indexOf(text.charAt(pos)) < 0
+                    && !Character.isWhitespace(text.charAt(pos))) {
+                pos++;
+            }
+            String literal = text.substring(start, pos);
+            if (literal.isEmpty()) throw error("Missing value");
+            if (literal.equals("null")) return null;
+            if (literal.equals("true") || literal.equals("false")) return literal;
+            try {
+                new BigDecimal(literal);
+            } catch (NumberFormatException e) {
+                throw error("Invalid value '" + literal + "'");
+            }
+            return literal;
+        }
+
+        String readString() {
+            expect('"');
+            StringBuilder sb = new StringBuilder();
+            while (true) {
+                if (pos >= text.length()) throw error("Unterminated string");
+                char c = text.charAt(pos++);
+                if (c == '"') return sb.toString();
+                if (c != '\\') {
+                    sb.append(c);
+                    continue;
+                }
+                if (pos >= text.length()) throw error("Unterminated string");
+                char e = text.charAt(pos++);
+                switch (e) {
+                    case '"': case '\\': case '/': sb.append(e); break;
+                    case 'b': sb.append('\b'); break;
+                    case 'f': sb.append('\f'); break;
+                    case 'n': sb.append('\n'); break;
+                    case 'r': sb.append('\r'); break;
+                    case 't': sb.append('\t'); break;
+                    case 'u':
+                        if (pos + 4 > text.length()) throw error("Invalid escape");
+                        try {
+                            sb.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+                        } catch (NumberFormatException ex) {
+                            throw error("Invalid escape");
+                        }
+                        pos += 4;
+                        break;
+                    default:
+                        throw error("Invalid escape");
+                }
+            }
+        }
+
+        IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " at position " + pos + ".");
+        }
+    }
+
+    /* ---------------- Writing ---------------- */
+
+    /** Appends JSON text; names and values are separated and escaped automatically. */
+    public static final class Writer {
+        private final StringBuilder out = new StringBuilder(256);
+        private final char[] digits = new char[AmountFormatter.MAX_CHARS];
+        private boolean needComma;
+
+        public Writer beginObject() {
+            separate();
+            out.append('{');
+            needComma = false;
+            return this;
+        }
+
+        public Writer endObject() {
+            out.append('}');
+            needComma = true;
+            return this;
+        }
+
+        public Writer beginArray() {
+            separate();
+            out.append('[');
+            needComma = false;
+            return this;
+        }
+
+        public Writer endArray() {
+            out.append(']');
+            needComma = true;
+            return this;
+        }
+
+        /** Member name; the next value (or object/array) belongs to it. */
+        public Writer name(String name) {
+            separate();
+            quote(name);
+            out.append(':');
+            needComma = false;
+            return this;
+        }
+
+        public Writer value(String value) {
+            separate();
+            if (value == null) out.append("null");
+            else quote(value);
+            needComma = true;
+            return this;
+        }
+
+        public Writer value(BigDecimal value) {
+            separate();
+            out.append(value == null ? "null" : value.toPlainString());
+            needComma = true;
+            return this;
+        }
+
+        /** Minor units as a JSON number with the default scale, e.g. 1234.50. */
+        public Writer amount(long minor) {
+            separate();
+            AmountFormatter.PLAIN.appendTo(out, minor, 0, digits);
+            needComma = true;
+            return this;
+        }
+
+        public Writer value(long value) {
+            separate();
+            out.append(value);
+            needComma = true;
+            return this;
+        }
+
+        public Writer value(boolean value) {
+            separate();
+            out.append(value);
+            needComma = true;
+            return this;
+        }
+
+        /** One object member per map entry (amounts as JSON numbers). */
+        public Writer amounts(Map<String, BigDecimal> amounts) {
+            beginObject();
+            for (Map.Entry<String, BigDecimal> e : amounts.entrySet()) {
+                name(e.getKey()).value(e.getValue());
+            }
+            return endObject();
+        }
+
+        @Override
+        public String toString() {
+            return out.toString();
+        }
+
+        private void separate() {
+            if (needComma) out.append(',');
+        }
+
+        private void quote(String s) {
+            out.append('"');
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                switch (c) {
+                    case '"': out.append("\\\""); break;
+                    case '\\': out.append("\\\\"); break;
+                    case '\n': out.append("\\n"); break;
+                    case '\r': out.append("\\r"); break;
+                    case '\t': out.append("\\t"); break;
+                    default:
+                        if (c < 0x20) out.append(String.format("\\u%04x", (int) c));
+                        else out.append(c);
+                }
+            }
+            out.append('"');
+        }
+    }
+}
@@ -0,0 +1,486 @@
+package server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import manager.UnifiedJournalManager;
+import metrics.Metrics;
+import model.BalanceSheet;
+import model.CreditTransaction;
+import model.DebitTransaction;
+import model.IncomeStatement;
+import model.JournalEntry;
+import model.Money;
+import services.BalanceHistory;
+import services.GeneralLedger;
+import services.IncomeStatementService;
+import services.PeriodCheckpoints;
+import services.ReportCache;
+import services.ReportEngine;
+import services.TrialBalanceCalculator;
+import utils.InputValidator;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local HTTP API over the journal and its reports, built on the JDK's
+ * {@code com.sun.net.httpserver}. All responses except /metrics are JSON.
+ *
+ * <pre>
+ * POST /entries                      add an entry (flat JSON object, see {@link #addEntry})
+ * GET  /entries                      status, createdBy, minAmount, from, to, limit
+ * GET  /reports/trial-balance
+ * GET  /reports/ledger               account (optional; all accounts when absent),
+ *                                    from, limit (one account, one page of lines from a date)
+ * GET  /reports/income-statement     from, to
+ * GET  /reports/balance-sheet        asOf
+ * GET  /metrics                      Prometheus text format (not JSON)
+ * </pre>
+ *
+ * Each request runs on its own virtual thread when the runtime has them
+ * (Java 21+); older runtimes fall back to a fixed pool of platform threads.
+ * Handlers only read published snapshots or go through the thread-safe
+ * services (history, checkpoints, cache), so requests never block each other
+ * beyond the journal's own append lock.
+ */
+public class ReportServer {
+
+    private static final int BACKLOG = 1024;
+    private static final int DEFAULT_LIMIT = 1000;
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+    // Open-ended date filters; the date index keys are int epoch days (MAX_VALUE = undated)
+    private static final LocalDate FIRST_DAY = LocalDate.ofEpochDay(Integer.MIN_VALUE);
+    private static final LocalDate LAST_DAY = LocalDate.ofEpochDay(Integer.MAX_VALUE - 1);
+
+    private final UnifiedJournalManager manager;
+    private final GeneralLedger generalLedger;
+    private final BalanceHistory balanceHistory;
+    private final PeriodCheckpoints checkpoints;
+    private final ReportCache reportCache;
+    private final IncomeStatementService incomeStatementService;
+    private final ReportEngine reportEngine;
+
+    private HttpServer http;
+    private ExecutorService executor;
+
+    public ReportServer(UnifiedJournalManager manager,
+                        GeneralLedger generalLedger,
+                        BalanceHistory balanceHistory,
+                        PeriodCheckpoints checkpoints,
+                        ReportCache reportCache,
+                        IncomeStatementService incomeStatementService,
+                        ReportEngine reportEngine) {
+        this.manager = manager;
+        this.generalLedger = generalLedger;
+        this.balanceHistory = balanceHistory;
+        this.checkpoints = checkpoints;
+        this.reportCache = reportCache;
+        this.incomeStatementService = incomeStatementService;
+        this.reportEngine = reportEngine;
+    }
+
+    /** Binds to {@code port} on the loopback interface (0 = any free port) and starts serving. */
+    public synchronized void start(int port) throws IOException {
+        if (http != null) throw new IllegalStateException("Server is already running.");
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), BACKLOG);
+        route(server, "/entries", "http.entries", this::entries);
+        route(server, "/reports/trial-balance", "http.trial_balance", this::trialBalance);
+        route(server, "/reports/ledger", "http.ledger", this::ledger);
+        route(server, "/reports/income-statement", "http.income_statement", this::incomeStatement);
+        route(server, "/reports/balance-sheet", "http.balance_sheet", this::balanceSheet);
+        route(server, "/metrics", "http.metrics", exchange -> Response.text(200, Metrics.prometheus()));
+        executor = newRequestExecutor();
+        server.setExecutor(executor);
+        server.start();
+        http = server;
+    }
+
+    /** Stops accepting requests and waits up to {@code delaySeconds} for running ones. */
+    public synchronized void stop(int delaySeconds) {
+        if (http == null) return;
+        http.stop(delaySeconds);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(delaySeconds, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        http = null;
+        executor = null;
+    }
+
+    public synchronized boolean isRunning() {
+        return http != null;
+    }
+
+    public synchronized int getPort() {
+        if (http == null) throw new IllegalStateException("Server is not running.");
+        return http.getAddress().getPort();
+    }
+
+    /* ---------------- Endpoints ---------------- */
+
+    private Response entries(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+        if ("POST".equalsIgnoreCase(method)) return addEntry(exchange);
+        if ("GET".equalsIgnoreCase(method)) return listEntries(exchange);
+        return Response.error(405, "Use GET or POST.");
+    }
+
+    /**
+     * Body: {@code {"transactionId", "date", "debitAccount", "creditAccount",
+     * "amount", "createdBy", "status"}}, validated like the console input.
+     */
+    private Response addEntry(HttpExchange exchange) throws IOException {
+        Map<String, String> body = Json.parseObject(readBody(exchange));
+
+        String transactionId = required(body, "transactionId");
+        LocalDate date = parseDate(required(body, "date"), "date");
+        if (!InputValidator.isValidDate(date)) throw new IllegalArgumentException("Date cannot be in the future.");
+        String debitAccount = required(body, "debitAccount");
+        String creditAccount = required(body, "creditAccount");
+        String createdBy = required(body, "createdBy");
+        String status = required(body, "status").trim();
+        if (!InputValidator.isValidAccount(debitAccount) || !InputValidator.isValidAccount(creditAccount)) {
+            throw new IllegalArgumentException("Invalid account name.");
+        }
+        if (!InputValidator.isValidAccount(createdBy)) throw new IllegalArgumentException("Invalid name.");
+        if (!InputValidator.isValidStatus(status)) {
+            throw new IllegalArgumentException("Status must be 'approved', 'pending' or 'rejected'.");
+        }
+        long amount = Money.toMinor(parseAmount(required(body, "amount"), "amount"));
+        if (!InputValidator.isValidAmountMinor(amount)) throw new IllegalArgumentException("Amount must be > 0.");
+
+        JournalEntry entry = new JournalEntry(transactionId, date,
+                DebitTransaction.ofMinor(debitAccount, amount),
+                CreditTransaction.ofMinor(creditAccount, amount),
+                createdBy, status);
+        manager.addEntry(entry);
+
+        Json.Writer json = new Json.Writer().beginObject();
+        writeEntry(json.name("entry"), entry);
+        return Response.json(201, json.endObject());
+    }
+
+    private Response listEntries(HttpExchange exchange) {
+        Map<String, String> params = queryParams(exchange);
+        String status = params.get("status");
+        String createdBy = params.get("createdBy");
+        BigDecimal minAmount = params.containsKey("minAmount") ? parseAmount(params.get("minAmount"), "minAmount") : null;
+        if (minAmount != null && !InputValidator.isValidFilterAmount(minAmount.doubleValue())) {
+            throw new IllegalArgumentException("Invalid 'minAmount'.");
+        }
+        LocalDate from = params.containsKey("from") ? parseDate(params.get("from"), "from") : null;
+        LocalDate to = params.containsKey("to") ? parseDate(params.get("to"), "to") : null;
+        int limit = params.containsKey("limit") ? parseLimit(params.get("limit")) : DEFAULT_LIMIT;
+
+        List<JournalEntry> matches;
+        if (from == null && to == null) {
+            // Status / creator / amount go through the journal indexes
+            matches = manager.filter(status, createdBy, minAmount == null ? null : minAmount.doubleValue());
+        } else {
+            // Date range first (date index), then the remaining criteria on that slice
+            long minMinor = minAmount == null ? Long.MIN_VALUE : Money.ceilingMinor(minAmount);
+            matches = new ArrayList<>();
+            for (JournalEntry e : manager.entriesBetween(from == null ? FIRST_DAY : from,
+                                                         to == null ? LAST_DAY : to)) {
+                if (status != null && !status.trim().equalsIgnoreCase(e.getStatus())) continue;
+                if (createdBy != null && !createdBy.equalsIgnoreCase(e.getCreatedBy())) continue;
+                if (e.getAmountMinor() < minMinor) continue;
+                matches.add(e);
+            }
+        }
+
+        Json.Writer json = new Json.Writer().beginObject()
+                .name("total").value(matches.size())
+                .name("entries").beginArray();
+        for (int i = 0; i < matches.size() && i < limit; i++) {
+            writeEntry(json, matches.get(i));
+        }
+        return Response.json(200, json.endArray().endObject());
+    }
+
+    private Response trialBalance(HttpExchange exchange) {
+        if (!"GET".equalsIgnoreCase(exchange.getRequestMethod())) return Response.error(405, "Use GET.");
+        List<JournalEntry> entries = manager.snapshot();
+        TrialBalanceCalculator calc = new TrialBalanceCalculator();
+        calc.calculate(entries);
+
+        Json.Writer json = new Json.Writer().beginObject()
+                .name("entries").value(entries.size())
+                .name("totalDebit").amount(calc.getDebitTotalMinor())
+                .name("totalCredit").amount(calc.getCreditTotalMinor())
+                .name("balanced").value(calc.isBalanced())
+                .endObject();
+        return Response.json(200, json);
+    }
+
+    private Response ledger(HttpExchange exchange) {
+        if (!"GET".equalsIgnoreCase(exchange.getRequestMethod())) return Response.error(405, "Use GET.");
+        Map<String, String> params = queryParams(exchange);
+        String account = params.get("account");
+        // One snapshot so every account reflects the same set of posted entries
+        GeneralLedger.Snapshot snapshot = generalLedger.snapshot();
+
+        Json.Writer json = new Json.Writer().beginObject()
+                .name("version").value(snapshot.getVersion())
+                .name("accounts").beginArray();
+        if (account != null && (params.containsKey("from") || params.containsKey("limit"))) {
+            // One page through a cursor: only the requested lines are copied out of the ledger
+            GeneralLedger.LedgerCursor cursor = snapshot.cursor(account);
+            if (!cursor.hasNext()) return Response.error(404, "No ledger for account '" + account + "'.");
+            if (params.containsKey("from")) cursor.seek(parseDate(params.get("from"), "from"));
+            int limit = params.containsKey("limit") ? parseLimit(params.get("limit")) : DEFAULT_LIMIT;
+            writeAccount(json, account.trim(), cursor.next(limit));
+            return Response.json(200, json.endArray().name("hasMore").value(cursor.hasNext()).endObject());
+        }
+        if (account != null) {
+            List<GeneralLedger.LedgerLine> lines = snapshot.getLines(account);
+            if (lines.isEmpty()) return Response.error(404, "No ledger for account '" + account + "'.");
+            writeAccount(json, account.trim(), lines);
+        } else {
+            for (String name : snapshot.getAccounts()) {
+                writeAccount(json, name, snapshot.getLines(name));
+            }
+        }
+        return Response.json(200, json.endArray().endObject());
+    }
+
+    private Response incomeStatement(HttpExchange exchange) {
+        if (!"GET".equalsIgnoreCase(exchange.getRequestMethod())) return Response.error(405, "Use GET.");
+        Map<String, String> params = queryParams(exchange);
+        LocalDate from = parseDate(required(params, "from"), "from");
+        LocalDate to = parseDate(required(params, "to"), "to");
+        if (to.isBefore(from)) throw new IllegalArgumentException("'to' cannot be before 'from'.");
+
+        IncomeStatement is = reportCache.incomeStatement(from, to, incomeStatementService.getChart(),
+                () -> incomeStatementService.generate(balanceHistory, from, to));
+
+        Json.Writer json = new Json.Writer().beginObject()
+                .name("from").value(is.getFrom().toString())
+                .name("to").value(is.getTo().toString())
+                .name("revenues").amounts(is.getRevenues())
+                .name("expenses").amounts(is.getExpenses())
+                .name("totalRevenues").value(is.getTotalRevenues())
+                .name("totalExpenses").value(is.getTotalExpenses())
+                .name("netIncome").value(is.getNetIncome())
+                .name("ignoredAccounts").beginArray();
+        for (String name : is.getIgnoredAccounts()) json.value(name);
+        return Response.json(200, json.endArray().endObject());
+    }
+
+    private Response balanceSheet(HttpExchange exchange) {
+        if (!"GET".equalsIgnoreCase(exchange.getRequestMethod())) return Response.error(405, "Use GET.");
+        LocalDate asOf = parseDate(required(queryParams(exchange), "asOf"), "asOf");
+
+        BalanceSheet bs = reportCache.balanceSheet(asOf, reportEngine.getChart(),
+                () -> reportEngine.balanceSheetsAsOf(checkpoints, List.of(asOf)).get(0));
+
+        BigDecimal liabilitiesAndEquity = bs.getTotalLiabilities().add(bs.getTotalEquity());
+        Json.Writer json = new Json.Writer().beginObject()
+                .name("asOf").value(bs.getAsOf().toString())
+                .name("assets").amounts(bs.getAssets())
+                .name("liabilities").amounts(bs.getLiabilities())
+                .name("equity").amounts(bs.getEquity())
+                .name("totalAssets").value(bs.getTotalAssets())
+                .name("totalLiabilities").value(bs.getTotalLiabilities())
+                .name("totalEquity").value(bs.getTotalEquity())
+                .name("balanced").value(bs.getTotalAssets().compareTo(liabilitiesAndEquity) == 0)
+                .endObject();
+        return Response.json(200, json);
+    }
+
+    /* ---------------- JSON shapes ---------------- */
+
+    private static void writeEntry(Json.Writer json, JournalEntry e) {
+        json.beginObject()
+                .name("transactionId").value(e.getTransactionID())
+                .name("date").value(e.getDate() == null ? null : e.getDate().toString())
+                .name("debitAccount").value(e.getDebitTransaction() == null ? null : e.getDebitTransaction().getAccountName())
+                .name("creditAccount").value(e.getCreditTransaction() == null ? null : e.getCreditTransaction().getAccountName())
+                .name("amount").amount(e.getAmountMinor())
+                .name("createdBy").value(e.getCreatedBy())
+                .name("status").value(e.getStatus());
+        if (e.isCompound()) {
+            json.name("lines").beginArray();
+            for (int i = 0; i < e.getLineCount(); i++) {
+                json.beginObject()
+                        .name("account").value(e.getLineAccountName(i))
+                        .name(e.isDebitLine(i) ? "debit" : "credit").amount(e.getLineAmountMinor(i))
+                        .endObject();
+            }
+            json.endArray();
+        }
+        json.endObject();
+    }
+
+    private static void writeAccount(Json.Writer json, String account, List<GeneralLedger.LedgerLine> lines) {
+        json.beginObject()
+                .name("account").value(account)
+                .name("balance").amount(lines.isEmpty() ? 0L : lines.get(lines.size() - 1).getRunningBalanceMinor())
+                .name("lines").beginArray();
+        for (GeneralLedger.LedgerLine line : lines) {
+            json.beginObject()
+                    .name("date").value(line.getDate() == null ? null : line.getDate().toString())
+                    .name("transactionId").value(line.getTransactionId())
+                    .name("debit").amount(line.getDebitMinor())
+                    .name("credit").amount(line.getCreditMinor())
+                    .name("balance").amount(line.getRunningBalanceMinor())
+                    .endObject();
+        }
+        json.endArray().endObject();
+    }
+
+    /* ---------------- Plumbing ---------------- */
+
+    private interface Handler {
+        Response handle(HttpExchange exchange) throws IOException;
+    }
+
+    private static final class Response {
+        static final String JSON = "application/json; charset=utf-8";
+        static final String TEXT = "text/plain; version=0.0.4; charset=utf-8";
+
+        final int status;
+        final String body;
+        final String contentType;
+
+        Response(int status, String body, String contentType) {
+            this.status = status;
+            this.body = body;
+            this.contentType = contentType;
+        }
+
+        static Response json(int status, Json.Writer json) {
+            return new Response(status, json.toString(), JSON);
+        }
+
+        static Response text(int status, String body) {
+            return new Response(status, body, TEXT);
+        }
+
+        static Response error(int status, String message) {
+            return new Response(status, new Json.Writer().beginObject().name("error").value(message).endObject().toString(), JSON);
+        }
+    }
+
+    // Each endpoint is timed as its own metrics operation.
+    private static void route(HttpServer server, String path, String metric, Handler handler) {
+        Metrics.Operation operation = Metrics.operation(metric);
+        server.createContext(path, exchange -> {
+            Metrics.Timer timer = operation.start();
+            try {
+                dispatch(exchange, handler);
+            } finally {
+                timer.close();
+            }
+        });
+    }
+
+    // Bad input → 400 with the validation message; anything else → 500.
+    private static void dispatch(HttpExchange exchange, Handler handler) throws IOException {
+        Response response;
+        try {
+            response = handler.handle(exchange);
+        } catch (IllegalArgumentException e) {
+            response = Response.error(400, e.getMessage());
+        } catch (RuntimeException e) {
+            response = Response.error(500, "Internal error: " + e);
+        }
+        try (exchange) {
+            byte[] bytes = response.body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", response.contentType);
+            exchange.sendResponseHeaders(response.status, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+    }
+
+    private static String readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] bytes = in.readNBytes(MAX_BODY_BYTES + 1);
+            if (bytes.length > MAX_BODY_BYTES) throw new IllegalArgumentException("Request body too large.");
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static Map<String, String> queryParams(HttpExchange exchange) {
+        Map<String, String> params = new HashMap<>();
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null || query.isEmpty()) return params;
+        for (String pair : query.split("&")) {
+            if (pair.isEmpty()) continue;
+            int eq = pair.indexOf('=');
+            String key = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+            String value = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            params.put(key, value);
+        }
+        return params;
+    }
+
+    private static String required(Map<String, String> fields, String name) {
+        String value = fields.get(name);
+        if (value == null || value.isBlank()) throw new IllegalArgumentException("Missing '" + name + "'.");
+        return value;
+    }
+
+    private static LocalDate parseDate(String value, String name) {
+        try {
+            return LocalDate.parse(value.trim());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid '" + name + "' (expected YYYY-MM-DD).");
+        }
+    }
+
+    private static BigDecimal parseAmount(String value, String name) {
+        try {
+            return new BigDecimal(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid '" + name + "'.");
+        }
+    }
+
+    private static int parseLimit(String value) {
+        try {
+            int limit = Integer.parseInt(value.trim());
+            if (limit >= 0) return limit;
+        } catch (NumberFormatException ignored) {
+            // reported below
+        }
+        throw new IllegalArgumentException("Invalid 'limit'.");
+    }
+
+    // Virtual thread per request when available (Java 21+), looked up reflectively
+    // so the code still compiles and runs on Java 17 with a platform-thread pool.
+    private static ExecutorService newRequestExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger counter = new AtomicInteger();
+            int threads = Math.max(8, Runtime.getRuntime().availableProcessors() * 4);
+            return Executors.newFixedThreadPool(threads, task -> {
+                Thread t = new Thread(task, "report-server-" + counter.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+}
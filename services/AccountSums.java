@@ -0,0 +1,79 @@
+package services;
+
+import manager.JournalStore;
+import model.AccountRegistry;
+import model.JournalEntry;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Per-account accumulator indexed by AccountRegistry id.
+ * Holds one signed sum (debits positive, credits negative) per account in
+ * minor units, plus which accounts were touched at all.
+ */
+public class AccountSums {
+
+    private long[] sums;
+    private final BitSet touched = new BitSet();
+
+    public AccountSums() {
+        this.sums = new long[Math.max(16, AccountRegistry.size())];
+    }
+
+    /** Adds a signed amount (minor units) to an account. Ignores missing accounts. */
+    public void add(int accountId, long delta) {
+        if (accountId < 0) return;
+        if (accountId >= sums.length) {
+            sums = Arrays.copyOf(sums, Math.max(accountId + 1, sums.length * 2));
+        }
+        sums[accountId] += delta;
+        touched.set(accountId);
+    }
+
+    /** Adds every line of an entry: debit lines +amount, credit lines −amount. */
+    public void addLines(JournalEntry entry) {
+        int lines = entry.getLineCount();
+        int debitLines = entry.getDebitLineCount();
+        for (int i = 0; i < lines; i++) {
+            long amount = entry.getLineAmountMinor(i);
+            add(entry.getLineAccountId(i), i < debitLines ? amount : -amount);
+        }
+    }
+
+    /** Same for row {@code row} of a JournalStore, read from its columns. */
+    public void addLines(JournalStore store, int row) {
+        if (!store.isCompound(row)) {
+            long amount = store.getAmountMinor(row);
+            add(store.getDebitAccountId(row), amount);
+            add(store.getCreditAccountId(row), -amount);
+            return;
+        }
+        int lines = store.getLineCount(row);
+        int debitLines = store.getDebitLineCount(row);
+        for (int i = 0; i < lines; i++) {
+            long amount = store.getLineAmountMinor(row, i);
+            add(store.getLineAccountId(row, i), i < debitLines ? amount : -amount);
+        }
+    }
+
+    /** Adds every sum from {@code other} into this accumulator. */
+    public void addAll(AccountSums other) {
+        for (int id = other.touched.nextSetBit(0); id >= 0; id = other.touched.nextSetBit(id + 1)) {
+            add(id, other.sums[id]);
+        }
+    }
+
+    public long get(int accountId) {
+        return (accountId >= 0 && accountId < sums.length) ? sums[accountId] : 0L;
+    }
+
+    public boolean isTouched(int accountId) {
+        return accountId >= 0 && touched.get(accountId);
+    }
+
+    /** Next touched account id at or after {@code fromId}, or -1 (BitSet-style iteration). */
+    public int nextTouched(int fromId) {
+        return touched.nextSetBit(fromId);
+    }
+}
@@ -0,0 +1,200 @@
+package services;
+
+import manager.JournalListener;
+import manager.JournalStore;
+import model.AccountRegistry;
+import model.JournalEntry;
+import model.Money;
+import utils.InputValidator;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Per-account cumulative balances keyed by date (approved entries only).
+ * - getBalanceAsOf(account, date): closing balance on a date, O(log n)
+ * - getActivity(account, from, to): net movement over a period, O(log n)
+ * - balancesAsOf(date) / activityBetween(from, to): the same for every account,
+ *   ready for BalanceSheetService / IncomeStatementService
+ *
+ * For every account it keeps the distinct posting days in order, the net
+ * amount posted on each day and a prefix-sum array over those days. A lookup
+ * is a binary search on the day array plus one prefix read. Entries arriving
+ * in date order extend the arrays at the end; a back-dated entry marks the
+ * prefix sums dirty from its slot on, and they are recomputed on the next read.
+ *
+ * Amounts are signed minor units (debit +, credit −), like the ledger.
+ * All methods are synchronized; each read is a handful of binary searches.
+ */
+public class BalanceHistory implements JournalListener, BalanceSource {
+
+    // Per-account history indexed by AccountRegistry id (null = never posted).
+    private final List<AccountHistory> accounts = new ArrayList<>();
+
+    @Override
+    public synchronized void onEntryAdded(JournalEntry entry) {
+        if (entry == null || entry.getDate() == null) return;
+        if (!InputValidator.isApproved(entry.getStatus())) return;
+
+        int day = (int) entry.getDate().toEpochDay();
+        int lines = entry.getLineCount();
+        int debitLines = entry.getDebitLineCount();
+        for (int i = 0; i < lines; i++) {
+            long amount = entry.getLineAmountMinor(i);
+            post(entry.getLineAccountId(i), day, i < debitLines ? amount : -amount);
+        }
+    }
+
+    // Bulk load from the columns (no JournalEntry per row)
+    @Override
+    public synchronized void onRowsAdded(JournalStore store, int from, int to) {
+        int approved = store.statusCodeOf("approved");
+        if (approved < 0) return;
+        for (int row = from; row < to; row++) {
+            if (store.getStatusCode(row) != approved) continue;
+            int day = store.getEpochDay(row);
+            if (day == JournalStore.NO_DATE) continue;
+            int lines = store.getLineCount(row);
+            int debitLines = store.getDebitLineCount(row);
+            for (int i = 0; i < lines; i++) {
+                long amount = store.getLineAmountMinor(row, i);
+                post(store.getLineAccountId(row, i), day, i < debitLines ? amount : -amount);
+            }
+        }
+    }
+
+    /** Balance of an account at the end of {@code date}. */
+    public BigDecimal getBalanceAsOf(String account, LocalDate date) {
+        return Money.toBigDecimal(getBalanceAsOfMinor(AccountRegistry.find(account), date));
+    }
+
+    /** Net movement (debits − credits) of an account within [from, to]. */
+    public BigDecimal getActivity(String account, LocalDate from, LocalDate to) {
+        return Money.toBigDecimal(getActivityMinor(AccountRegistry.find(account), from, to));
+    }
+
+    public synchronized long getBalanceAsOfMinor(int accountId, LocalDate date) {
+        AccountHistory h = history(accountId);
+        return h == null ? 0L : h.cumulativeThrough((int) date.toEpochDay());
+    }
+
+    public synchronized long getActivityMinor(int accountId, LocalDate from, LocalDate to) {
+        AccountHistory h = history(accountId);
+        if (h == null) return 0L;
+        return h.cumulativeThrough((int) to.toEpochDay()) - h.cumulativeThrough((int) from.toEpochDay() - 1);
+    }
+
+    @Override
+    public synchronized AccountSums balancesAsOf(LocalDate asOf) {
+        int day = (int) asOf.toEpochDay();
+        AccountSums sums = new AccountSums();
+        for (int id = 0; id < accounts.size(); id++) {
+            AccountHistory h = accounts.get(id);
+            if (h != null && h.firstDay() <= day) sums.add(id, h.cumulativeThrough(day));
+        }
+        return sums;
+    }
+
+    @Override
+    public synchronized AccountSums activityBetween(LocalDate from, LocalDate to) {
+        int fromDay = (int) from.toEpochDay();
+        int toDay = (int) to.toEpochDay();
+        AccountSums sums = new AccountSums();
+        for (int id = 0; id < accounts.size(); id++) {
+            AccountHistory h = accounts.get(id);
+            if (h != null && h.hasPostingsBetween(fromDay, toDay)) {
+                sums.add(id, h.cumulativeThrough(toDay) - h.cumulativeThrough(fromDay - 1));
+            }
+        }
+        return sums;
+    }
+
+    /* ---------------- internals ---------------- */
+
+    private void post(int accountId, int day, long delta) {
+        if (accountId < 0) return;
+        while (accounts.size() <= accountId) accounts.add(null);
+        AccountHistory h = accounts.get(accountId);
+        if (h == null) {
+            h = new AccountHistory();
+            accounts.set(accountId, h);
+        }
+        h.post(day, delta);
+    }
+
+    private AccountHistory history(int accountId) {
+        return (accountId >= 0 && accountId < accounts.size()) ? accounts.get(accountId) : null;
+    }
+
+    /**
+     * Distinct posting days of one account, the net amount per day and the
+     * running (prefix) sum through each day. Prefix sums are valid below
+     * {@code dirtyFrom}.
+     */
+    private static class AccountHistory {
+        int[] days = new int[8];
+        long[] dayNet = new long[8];
+        long[] prefix = new long[8];
+        int count;
+        int dirtyFrom;
+
+        void post(int day, long delta) {
+            int slot = lowerBound(day);
+            if (slot < count && days[slot] == day) {
+                dayNet[slot] += delta;
+            } else {
+                if (count == days.length) {
+                    days = Arrays.copyOf(days, count * 2);
+                    dayNet = Arrays.copyOf(dayNet, count * 2);
+                    prefix = Arrays.copyOf(prefix, count * 2);
+                }
+                System.arraycopy(days, slot, days, slot + 1, count - slot);
+                System.arraycopy(dayNet, slot, dayNet, slot + 1, count - slot);
+                days[slot] = day;
+                dayNet[slot] = delta;
+                count++;
+            }
+            dirtyFrom = Math.min(dirtyFrom, slot);
+        }
+
+        int firstDay() {
+            return count == 0 ? Integer.MAX_VALUE : days[0];
+        }
+
+        boolean hasPostingsBetween(int fromDay, int toDay) {
+            int slot = lowerBound(fromDay);
+            return slot < count && days[slot] <= toDay;
+        }
+
+        // Sum of everything posted on or before {@code day}.
+        long cumulativeThrough(int day) {
+            settle();
+            int slot = lowerBound(day + 1) - 1; // last slot with days[slot] <= day
+            return slot < 0 ? 0L : prefix[slot];
+        }
+
+        private void settle() {
+            if (dirtyFrom >= count) return;
+            long running = dirtyFrom == 0 ? 0L : prefix[dirtyFrom - 1];
+            for (int i = dirtyFrom; i < count; i++) {
+                running += dayNet[i];
+                prefix[i] = running;
+            }
+            dirtyFrom = count;
+        }
+
+        // First slot whose day is >= day.
+        private int lowerBound(int day) {
+            int lo = 0, hi = count;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (days[mid] < day) lo = mid + 1;
+                else hi = mid;
+            }
+            return lo;
+        }
+    }
+}
@@ -1,9 +1,9 @@
 package services;
 
 import model.BalanceSheet;
+import utils.TextSink;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.util.Map;
 
 public class BalanceSheetRenderer {
@@ -11,53 +11,42 @@ public class BalanceSheetRenderer {
     private static final int WIDTH = 16;
 
     public static void render(BalanceSheet bs) {
-        System.out.println();
-        System.out.println("BALANCE SHEET (As of " + bs.getAsOf() + ")");
-        System.out.println("==================================================");
-
-        printSection("ASSETS", bs.getAssets(), bs.getTotalAssets());
-        printSection("LIABILITIES", bs.getLiabilities(), bs.getTotalLiabilities());
-        printSection("EQUITY", bs.getEquity(), bs.getTotalEquity());
-
-        System.out.println("--------------------------------------------------");
-        System.out.println(padRight("Total Assets", 30) + padLeft(fmt(bs.getTotalAssets()), WIDTH));
-        System.out.println(padRight("Total Liabilities + Equity", 30)
-                + padLeft(fmt(bs.getTotalLiabilities().add(bs.getTotalEquity())), WIDTH));
-
-        boolean balanced = bs.getTotalAssets().compareTo(bs.getTotalLiabilities().add(bs.getTotalEquity())) == 0;
-        System.out.println("--------------------------------------------------");
-        System.out.println(balanced ? "✅ Balanced" : "❌ Not Balanced");
-        System.out.println("==================================================");
+        TextSink out = TextSink.console();
+        render(bs, out);
+        out.flush();
     }
 
-    private static void printSection(String title, Map<String, BigDecimal> map, BigDecimal total) {
-        System.out.println(title);
+    /** Writes the balance sheet to {@code out} (the caller flushes or closes it). */
+    public static void render(BalanceSheet bs, TextSink out) {
+        out.newLine();
+        out.append("BALANCE SHEET (As of ").append(String.valueOf(bs.getAsOf())).println(")");
+        out.println("==================================================");
+
+        printSection(out, "ASSETS", bs.getAssets(), bs.getTotalAssets());
+        printSection(out, "LIABILITIES", bs.getLiabilities(), bs.getTotalLiabilities());
+        printSection(out, "EQUITY", bs.getEquity(), bs.getTotalEquity());
+
+        BigDecimal liabilitiesAndEquity = bs.getTotalLiabilities().add(bs.getTotalEquity());
+        out.println("--------------------------------------------------");
+        out.padRight("Total Assets", 30).amount(bs.getTotalAssets(), WIDTH).newLine();
+        out.padRight("Total Liabilities + Equity", 30).amount(liabilitiesAndEquity, WIDTH).newLine();
+
+        boolean balanced = bs.getTotalAssets().compareTo(liabilitiesAndEquity) == 0;
+        out.println("--------------------------------------------------");
+        out.println(balanced ? "✅ Balanced" : "❌ Not Balanced");
+        out.println("==================================================");
+    }
+
+    private static void printSection(TextSink out, String title, Map<String, BigDecimal> map, BigDecimal total) {
+        out.println(title);
         if (map.isEmpty()) {
-            System.out.println("  (none)");
+            out.println("  (none)");
         } else {
             for (var e : map.entrySet()) {
-                System.out.println("  " + padRight(e.getKey(), 30) + padLeft(fmt(e.getValue()), WIDTH));
+                out.append("  ").padRight(e.getKey(), 30).amount(e.getValue(), WIDTH).newLine();
             }
         }
-        System.out.println("  " + padRight("Total " + title, 30) + padLeft(fmt(total), WIDTH));
-        System.out.println();
-    }
-
-    /* ---------------- Formatting helpers ---------------- */
-
-    private static String fmt(BigDecimal v) {
-        return v.setScale(2, RoundingMode.HALF_UP).toPlainString();
-    }
-
-    private static String padLeft(String s, int width) {
-        if (s == null) s = "";
-        if (s.length() >= width) return s;
-        return " ".repeat(width - s.length()) + s;
-    }
-
-    private static String padRight(String s, int width) {
-        if (s == null) s = "";
-        if (s.length() >= width) return s;
-        return s + " ".repeat(width - s.length());
+        out.append("  ").padRight("Total " + title, 30).amount(total, WIDTH).newLine();
+        out.newLine();
     }
 }
@@ -1,30 +1,36 @@
 package services;
 
+import manager.JournalStore;
+import metrics.Metrics;
+import model.AccountRegistry;
 import model.BalanceSheet;
 import model.IncomeStatement;
 import model.JournalEntry;
+import model.Money;
+import utils.InputValidator;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.util.*;
 
 public class BalanceSheetService {
+    private static final Metrics.Operation GENERATE = Metrics.operation("balance_sheet.generate");
+    private static final Metrics.Operation FROM_BALANCES = Metrics.operation("balance_sheet.from_balances");
+    private static final Metrics.Operation PARALLEL = Metrics.operation("balance_sheet.generate_parallel");
 
     /** Classification buckets for Balance Sheet (separate from Income Statement categories). */
     public enum BSClass { ASSET, CONTRA_ASSET, LIABILITY, EQUITY, OTHER }
 
     private final Map<String, BSClass> chart; // normalized name -> BSClass
-    private final GeneralLedger ledger;       // reuse ledger to get closing balances
+    private BSClass[] classes = new BSClass[0]; // account id -> BSClass (lazy cache)
 
-    public BalanceSheetService(Map<String, BSClass> chartOfAccounts, GeneralLedger ledger) {
+    public BalanceSheetService(Map<String, BSClass> chartOfAccounts) {
         this.chart = new HashMap<>();
         if (chartOfAccounts != null) {
             for (var e : chartOfAccounts.entrySet()) {
                 this.chart.put(normalize(e.getKey()), e.getValue());
             }
         }
-        this.ledger = ledger;
 
         // Default mapping if account names are missing from user chart
         addDefaultIfMissing("cash", BSClass.ASSET);
@@ -46,6 +52,15 @@ public class BalanceSheetService {
         addDefaultIfMissing("retained earnings", BSClass.EQUITY);
     }
 
+    /**
+     * Read-only view of the chart of accounts (normalized name -> BSClass). It is
+     * fixed once the service is built; the report cache compares it by content,
+     * so reports built with another chart are never reused (see ReportCache).
+     */
+    public Map<String, BSClass> getChart() {
+        return Collections.unmodifiableMap(chart);
+    }
+
     private void addDefaultIfMissing(String name, BSClass cls) {
         chart.putIfAbsent(normalize(name), cls);
     }
@@ -55,75 +70,149 @@ public class BalanceSheetService {
         if (asOf == null) throw new IllegalArgumentException("As-of date is required.");
         if (allEntries == null) allEntries = Collections.emptyList();
 
-        // Filter only approved entries up to the given date
-        List<JournalEntry> filtered = new ArrayList<>();
-        for (var entry : allEntries) {
-            if (entry == null || entry.getDate() == null) continue;
-            if (!"approved".equalsIgnoreCase(entry.getStatus())) continue;
-            if (!entry.getDate().isAfter(asOf)) filtered.add(entry);
+        // Closing balance per account id (debit +, credit −) over approved entries up to the given date
+        try (Metrics.Timer timer = GENERATE.start()) {
+            AccountSums balances = new AccountSums();
+            for (var entry : allEntries) {
+                accumulate(balances, entry, asOf);
+            }
+            timer.entries(allEntries.size());
+            return assemble(asOf, balances, incomeStatement);
+        }
+    }
+
+    /**
+     * Closing balances are read from a {@link BalanceSource} (prefix sums or
+     * period checkpoints) instead of scanning the journal, so balance sheets
+     * for many dates do not each cost a full pass.
+     */
+    public BalanceSheet generate(BalanceSource balances, LocalDate asOf, IncomeStatement incomeStatement) {
+        if (asOf == null) throw new IllegalArgumentException("As-of date is required.");
+        return FROM_BALANCES.time(() -> assemble(asOf, balances.balancesAsOf(asOf), incomeStatement));
+    }
+
+    /**
+     * Parallel variant: per-account partial balances are computed on each core
+     * and merged. The result is identical to {@link #generate}.
+     */
+    public BalanceSheet generateParallel(List<JournalEntry> allEntries, LocalDate asOf, IncomeStatement incomeStatement) {
+        if (asOf == null) throw new IllegalArgumentException("As-of date is required.");
+        if (allEntries == null) allEntries = Collections.emptyList();
+
+        try (Metrics.Timer timer = PARALLEL.start()) {
+            AccountSums balances;
+            if (allEntries instanceof JournalStore) {
+                JournalStore store = (JournalStore) allEntries;
+                int approved = store.statusCodeOf("approved");
+                long asOfDay = asOf.toEpochDay();
+                balances = ParallelAggregation.aggregate(store.size(),
+                        (sums, i) -> accumulate(sums, store, i, approved, asOfDay));
+            } else {
+                balances = ParallelAggregation.aggregate(allEntries, (sums, e) -> accumulate(sums, e, asOf));
+            }
+            timer.entries(allEntries.size());
+            return assemble(asOf, balances, incomeStatement);
         }
+    }
+
+    // Adds one approved entry dated on/before asOf to the closing balances.
+    private static void accumulate(AccountSums balances, JournalEntry entry, LocalDate asOf) {
+        if (entry == null || entry.getDate() == null) return;
+        if (!InputValidator.isApproved(entry.getStatus())) return;
+        if (entry.getDate().isAfter(asOf)) return;
 
-        ledger.clear();
-        ledger.build(filtered);
+        balances.addLines(entry);
+    }
 
-        Map<String, BigDecimal> assets = new TreeMap<>();
-        Map<String, BigDecimal> liabilities = new TreeMap<>();
-        Map<String, BigDecimal> equity = new TreeMap<>();
+    // Same rule on row i of a JournalStore's columns.
+    private static void accumulate(AccountSums balances, JournalStore store, int i, int approved, long asOfDay) {
+        if (store.getStatusCode(i) != approved) return;
 
-        // Classify each account from ledger balances
-        for (String account : ledger.getAccounts()) {
-            BigDecimal balance = ledger.getFinalBalance(account).setScale(2, RoundingMode.HALF_UP);
-            if (balance.compareTo(BigDecimal.ZERO) == 0) continue;
+        int day = store.getEpochDay(i);
+        if (day == JournalStore.NO_DATE || day > asOfDay) return;
 
-            BSClass type = chart.getOrDefault(normalize(account), inferBSClass(account));
+        balances.addLines(store, i);
+    }
 
-            switch (type) {
+    /**
+     * Builds the balance sheet from closing balances per account id (minor units).
+     * Every touched account is classified exactly once.
+     */
+    BalanceSheet assemble(LocalDate asOf, AccountSums balances, IncomeStatement incomeStatement) {
+        // Section sums in minor units (cents)
+        Map<String, long[]> assets = new TreeMap<>();
+        Map<String, long[]> liabilities = new TreeMap<>();
+        Map<String, long[]> equity = new TreeMap<>();
+
+        // Classify each account from its closing balance
+        for (int id = balances.nextTouched(0); id >= 0; id = balances.nextTouched(id + 1)) {
+            long balance = balances.get(id);
+            if (balance == 0L) continue;
+
+            String account = AccountRegistry.displayName(id);
+            switch (classOf(id)) {
                 case ASSET -> merge(assets, account, balance);
-                case CONTRA_ASSET -> merge(assets, account, balance.negate());
-                case LIABILITY -> merge(liabilities, account, balance.abs());
-                case EQUITY -> merge(equity, account, balance.abs());
+                case CONTRA_ASSET -> merge(assets, account, -balance);
+                case LIABILITY -> merge(liabilities, account, Math.abs(balance));
+                case EQUITY -> merge(equity, account, Math.abs(balance));
                 default -> { /* Ignore OTHER */ }
             }
         }
 
         // Add Net Income from Income Statement into Equity section
         if (incomeStatement != null) {
-            merge(equity, "Retained Earnings / Net Income", incomeStatement.getNetIncome());
+            merge(equity, "Retained Earnings / Net Income", Money.toMinor(incomeStatement.getNetIncome()));
         }
 
-        BigDecimal totalAssets = sum(assets.values());
-        BigDecimal totalLiabilities = sum(liabilities.values());
-        BigDecimal totalEquity = sum(equity.values());
-
         return new BalanceSheet(
                 asOf,
-                assets,
-                liabilities,
-                equity,
-                totalAssets.setScale(2, RoundingMode.HALF_UP),
-                totalLiabilities.setScale(2, RoundingMode.HALF_UP),
-                totalEquity.setScale(2, RoundingMode.HALF_UP)
+                toAmounts(assets),
+                toAmounts(liabilities),
+                toAmounts(equity),
+                Money.toBigDecimal(sum(assets.values())),
+                Money.toBigDecimal(sum(liabilities.values())),
+                Money.toBigDecimal(sum(equity.values()))
         );
     }
 
+    // Classification per account id, resolved from the chart (or inferred) once and cached.
+    // Read through a local copy so concurrent reports can share the service.
+    private BSClass classOf(int accountId) {
+        BSClass[] cache = classes;
+        if (accountId >= cache.length) {
+            cache = Arrays.copyOf(cache, Math.max(accountId + 1, AccountRegistry.size()));
+            classes = cache;
+        }
+        BSClass cls = cache[accountId];
+        if (cls == null) {
+            String normalized = AccountRegistry.normalizedName(accountId);
+            cls = chart.getOrDefault(normalized, inferBSClass(normalized));
+            cache[accountId] = cls;
+        }
+        return cls;
+    }
+
     /* ---------------- Helpers ---------------- */
 
-    private static void merge(Map<String, BigDecimal> map, String key, BigDecimal value) {
-        map.merge(key.trim(), value, BigDecimal::add);
+    private static void merge(Map<String, long[]> map, String key, long value) {
+        map.computeIfAbsent(key.trim(), k -> new long[1])[0] += value;
     }
 
-    private static BigDecimal sum(Collection<BigDecimal> values) {
-        BigDecimal total = BigDecimal.ZERO;
-        for (BigDecimal v : values) total = total.add(v);
+    private static long sum(Collection<long[]> values) {
+        long total = 0L;
+        for (long[] v : values) total += v[0];
         return total;
     }
 
+    // Report boundary: minor units → BigDecimal, keeping the section's order.
+    private static Map<String, BigDecimal> toAmounts(Map<String, long[]> sums) {
+        Map<String, BigDecimal> out = new LinkedHashMap<>();
+        for (var e : sums.entrySet()) out.put(e.getKey(), Money.toBigDecimal(e.getValue()[0]));
+        return out;
+    }
+
     private static String normalize(String s) {
-        if (s == null) return "";
-        String t = s.trim().toLowerCase();
-        t = t.replaceAll("\\s+", " ");
-        t = t.replace('–', '-');
-        return t;
+        return AccountRegistry.normalize(s);
     }
 
     /** Infer classification from account name if not found in chart. */
@@ -0,0 +1,34 @@
+package services;
+
+import java.time.LocalDate;
+import java.util.function.Consumer;
+
+/**
+ * Source of per-account balances that can answer date queries without the
+ * caller scanning the journal (approved entries only, minor units, debit +,
+ * credit −). Implemented by {@link BalanceHistory} and {@link PeriodCheckpoints}.
+ *
+ * Several reads at the same journal version (e.g. a balance sheet and the
+ * income statement that feeds it) go through {@link #readConsistent}; keep
+ * report assembly outside of it, since the source may block postings meanwhile.
+ */
+public interface BalanceSource {
+
+    /** Closing balance of every account with postings on or before {@code asOf}. */
+    AccountSums balancesAsOf(LocalDate asOf);
+
+    /** Net activity of every account with postings within [from, to]. */
+    AccountSums activityBetween(LocalDate from, LocalDate to);
+
+    /**
+     * Runs {@code reads} against a view of this source where every read sees
+     * the same journal version. The view is only valid inside the call.
+     * The default holds the source's monitor (implementations whose methods
+     * are synchronized on themselves).
+     */
+    default void readConsistent(Consumer<BalanceSource> reads) {
+        synchronized (this) {
+            reads.accept(this);
+        }
+    }
+}
@@ -1,236 +1,892 @@
 package services;
 
+import manager.JournalListener;
+import manager.JournalStore;
+import metrics.Metrics;
+import model.AccountRegistry;
 import model.JournalEntry;
-import model.DebitTransaction;
-import model.CreditTransaction;
+import model.Money;
+import utils.TextSink;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * General Ledger (دفتر الأستاذ) with running balances.
  * - build(entries): group by account, sort by date, compute running balance
+ * - post(entry): insert one entry's lines in date order (incremental update)
  * - printAll(): print all accounts
  * - printAccount(name): print a single account
+ * - writeAll(out): stream all accounts to a TextSink (e.g. a file), account by account
  * - getAccounts(): list account names (alphabetical)
  * - getFinalBalance(name): last running balance for account
+ * - snapshot(): frozen view of the ledger at the current journal version
+ * - snapshot().cursor(name): one account's lines page by page (seek by date, forward / backward)
  * - clear(): reset internal state
  *
+ * Registered as a {@link JournalListener}, the ledger is fed by
+ * UnifiedJournalManager.addEntry and never needs a full rebuild: each line is
+ * inserted at its date position and only the running balances after that
+ * position are recomputed (lazily, on the next read of that account).
+ *
+ * Thread-safe with striped per-account locks: a post locks only the stripes
+ * of its accounts (two, or one per line of a compound entry), and reading an account locks only its stripe, so
+ * writers to other accounts are never held up. The ledger is a concurrent
+ * listener: UnifiedJournalManager posts to it after releasing its append
+ * lock, so posts from several threads run in parallel here.
+ *
+ * Every line carries the sequence number of the post that created it, taken
+ * under the stripes of its accounts (so one account's lines are numbered in
+ * the order they were posted). A {@link Snapshot} pins the number of posts
+ * completed without gaps and only ever shows lines below it, with running
+ * balances recomputed over those lines, so printing the whole ledger
+ * reflects one point in time while posts keep arriving.
+ *
  * This class is read-only over your JournalEntry list (doesn't modify entries).
+ * It holds every line in memory; to export a journal larger than the heap use
+ * {@link StreamingLedgerExport}, which prints the same layout.
  */
-public class GeneralLedger {
+public class GeneralLedger implements JournalListener {
+
+    private static final Metrics.Operation BUILD = Metrics.operation("ledger.build");
+    private static final Metrics.Counter POSTS = Metrics.counter("ledger.posts");
 
-    // Keep accounts alphabetically ordered for nice printing.
-    private final Map<String, List<LedgerLine>> ledger = new TreeMap<>();
+    // Per-account ledgers indexed by AccountRegistry id (null = no lines yet).
+    // Grown (copied) under growLock; an account's ledger is read and written under its stripe.
+    private volatile AccountLedger[] ledger = new AccountLedger[64];
+    private final Object growLock = new Object();
+
+    // Sequence of the next post / number of completed posts (the ledger version): every
+    // post below it has finished. Posts that finish ahead of an earlier one wait in finishedAhead.
+    private final AtomicLong nextSequence = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final PriorityQueue<Long> finishedAhead = new PriorityQueue<>();
+
+    // Account id → lock stripe (id & (STRIPES - 1)).
+    private static final int STRIPES = 16;
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+    {
+        for (int i = 0; i < STRIPES; i++) stripes[i] = new ReentrantLock();
+    }
+
+    // Lines copied per stripe hold when a snapshot reads a whole account
+    private static final int COPY_PAGE_LINES = 4096;
 
     // Column width for printing amounts neatly.
     private static final int WIDTH = 12;
 
+    // Ledger order: by date, then by transaction id (nulls last) for stability.
+    private static final Comparator<LedgerLine> LINE_ORDER = (a, b) -> {
+        int cmp = a.date.compareTo(b.date);
+        if (cmp != 0) return cmp;
+        String ta = a.transactionId;
+        String tb = b.transactionId;
+        if (ta == null && tb == null) return 0;
+        if (ta == null) return 1;
+        if (tb == null) return -1;
+        return ta.compareTo(tb);
+    };
+
     /**
      * Build (or rebuild) the general ledger structure from raw journal entries.
      * Groups by account, sorts each account's lines by date, and computes running balance.
      */
     public void build(List<JournalEntry> entries) {
-        ledger.clear();
-        if (entries == null || entries.isEmpty()) return;
-
-        // 1) Expand entries into per-account lines (debit: +amount, credit: -amount).
-        for (JournalEntry e : entries) {
-            if (e == null) continue;
-
-            LocalDate date = e.getDate();
-            // Defensive: if date is null, put it last by using LocalDate.MAX for ordering later.
-            LocalDate safeDate = (date != null) ? date : LocalDate.MAX;
-
-            // Debit side → +amount for that account
-            DebitTransaction d = e.getDebitTransaction();
-            if (d != null && d.getAccountName() != null) {
-                addLine(
-                        d.getAccountName().trim(),
-                        safeDate,
-                        BigDecimal.valueOf(d.getAmount()),   // debit amount
-                        BigDecimal.ZERO,                      // credit amount
-                        +1,                                   // sign for delta (+)
-                        e                                     // reference back to entry if needed
-                );
-            }
-
-            // Credit side → -amount for that account
-            CreditTransaction c = e.getCreditTransaction();
-            if (c != null && c.getAccountName() != null) {
-                addLine(
-                        c.getAccountName().trim(),
-                        safeDate,
-                        BigDecimal.ZERO,                      // debit amount
-                        BigDecimal.valueOf(c.getAmount()),    // credit amount
-                        -1,                                   // sign for delta (−)
-                        e
-                );
-            }
-        }
-
-        // 2) Sort each account’s lines by date (and by transaction id as tiebreaker for stability).
-        for (Map.Entry<String, List<LedgerLine>> accountEntry : ledger.entrySet()) {
-            List<LedgerLine> lines = accountEntry.getValue();
-            lines.sort((a, b) -> {
-                int cmp = a.date.compareTo(b.date);
-                if (cmp != 0) return cmp;
-                // Tie-breaker: by transaction id if available (nulls last)
-                String ta = a.entryRef != null ? a.entryRef.getTransactionID() : null;
-                String tb = b.entryRef != null ? b.entryRef.getTransactionID() : null;
-                if (ta == null && tb == null) return 0;
-                if (ta == null) return 1;
-                if (tb == null) return -1;
-                return ta.compareTo(tb);
-            });
-
-            // 3) Compute running balance: start from zero
-            BigDecimal running = BigDecimal.ZERO;
-            for (LedgerLine line : lines) {
-                // delta = +debit or -credit (already applied when created)
-                running = running.add(line.delta);
-                line.runningBalance = running;
+        lockAll();
+        try (Metrics.Timer timer = BUILD.start()) {
+            resetLedger();
+            if (entries == null || entries.isEmpty()) return;
+            timer.entries(entries.size());
+
+            // 1) Expand entries into per-account lines (debit: +amount, credit: -amount).
+            long sequence = 0;
+            for (JournalEntry e : entries) {
+                expand(e, sequence++, false);
+            }
+            nextSequence.set(sequence);
+            completeThrough(sequence, true);
+
+            // 2) Sort each account’s lines by date (and by transaction id as tiebreaker for stability).
+            //    Running balances are recomputed from the start on the next read.
+            for (AccountLedger account : ledger) {
+                if (account == null) continue;
+                account.lines.sort(LINE_ORDER);
+                account.dirtyFrom = 0;
+                account.sortedTo = account.lines.size();
             }
+        } finally {
+            unlockAll();
         }
     }
 
     /**
-     * Print the full general ledger (all accounts).
+     * Incrementally add one journal entry: each line is inserted in date order and
+     * only the running balances from the insertion point onward are invalidated.
+     * Appending in date order (the common case) costs O(log n) per line.
      */
-    public void printAll() {
-        if (ledger.isEmpty()) {
-            System.out.println("📭 General Ledger is empty.");
-            return;
+    public void post(JournalEntry entry) {
+        if (entry == null) return;
+        // Lock the stripes of every line's account in index order (no deadlock between posts)
+        int mask = stripeMask(entry);
+        long sequence;
+        lockStripes(mask);
+        try {
+            sequence = nextSequence.getAndIncrement();
+            expand(entry, sequence, true);
+        } finally {
+            unlockStripes(mask);
         }
+        complete(sequence);
+        POSTS.increment();
+    }
 
-        System.out.println("\n📒 General Ledger (All Accounts)");
-        System.out.println("================================");
+    /**
+     * Pins the current ledger version. The snapshot shows exactly the posts
+     * completed so far (without gaps), however many arrive while it is being
+     * read.
+     */
+    public Snapshot snapshot() {
+        long version = completed.get(); // read before the accounts: every line below it is reachable
+        return new Snapshot(ledger, version);
+    }
 
-        for (String account : ledger.keySet()) {
-            printAccount(account);
-        }
+    @Override
+    public void onEntryAdded(JournalEntry entry) {
+        post(entry);
+    }
+
+    /** Posts are thread-safe and ordered by the ledger's own sequence: no need for the append lock. */
+    @Override
+    public boolean isConcurrent() {
+        return true;
     }
 
     /**
-     * Print a single account’s ledger with running balance.
+     * Bulk load straight from the journal columns (e.g. after a restart):
+     * lines are appended per account and each touched account is sorted once,
+     * as in {@link #build}, without building a JournalEntry per row.
      */
-    public void printAccount(String accountName) {
-        List<LedgerLine> lines = ledger.get(accountName);
-        if (lines == null || lines.isEmpty()) {
-            System.out.println("\nNo entries for account: " + accountName);
-            return;
+    @Override
+    public void onRowsAdded(JournalStore store, int from, int to) {
+        lockAll();
+        try (Metrics.Timer timer = BUILD.start()) {
+            timer.entries(to - from);
+            long sequence = nextSequence.get();
+            int day = JournalStore.NO_DATE;
+            LocalDate date = LocalDate.MAX;
+            for (int row = from; row < to; row++, sequence++) {
+                if (store.getEpochDay(row) != day) { // rows mostly arrive in date order: reuse the date
+                    day = store.getEpochDay(row);
+                    date = day == JournalStore.NO_DATE ? LocalDate.MAX : LocalDate.ofEpochDay(day);
+                }
+                String transactionId = store.getTransactionId(row);
+                int lines = store.getLineCount(row);
+                int debitLines = store.getDebitLineCount(row);
+                for (int i = 0; i < lines; i++) {
+                    int accountId = store.getLineAccountId(row, i);
+                    if (accountId < 0) continue;
+                    long amount = store.getLineAmountMinor(row, i);
+                    if (i < debitLines) {
+                        addLine(accountId, date, amount, 0L, +1, transactionId, sequence, false);
+                    } else {
+                        addLine(accountId, date, 0L, amount, -1, transactionId, sequence, false);
+                    }
+                }
+            }
+            nextSequence.set(sequence);
+            completeThrough(sequence, false);
+            for (AccountLedger account : ledger) {
+                if (account == null || account.sortedTo == account.lines.size()) continue;
+                account.lines.sort(LINE_ORDER);
+                account.dirtyFrom = 0;
+                account.sortedTo = account.lines.size();
+            }
+        } finally {
+            unlockAll();
         }
+    }
 
-        System.out.println("\nAccount: " + accountName);
-        System.out.println("Date       | Debit        | Credit       | Balance");
-        System.out.println("---------------------------------------------------");
-
-        for (LedgerLine line : lines) {
-            String date = (line.date == null || line.date.equals(LocalDate.MAX))
-                    ? "N/A"
-                    : line.date.toString();
-
-            String debitStr  = (line.debit.signum()  == 0) ? "" : fmt(line.debit);
-            String creditStr = (line.credit.signum() == 0) ? "" : fmt(line.credit);
-            String balStr    = fmt(line.runningBalance);
+    /**
+     * Print the full general ledger (all accounts), as of one ledger version.
+     */
+    public void printAll() {
+        snapshot().printAll();
+    }
 
-            System.out.println(
-                    pad(date, 10) + " | " +
-                            padLeft(debitStr,  WIDTH) + " | " +
-                            padLeft(creditStr, WIDTH) + " | " +
-                            padLeft(balStr,    WIDTH)
-            );
-        }
+    /**
+     * Print a single account’s ledger with running balance.
+     */
+    public void printAccount(String accountName) {
+        snapshot().printAccount(accountName);
+    }
 
-        // Totals (optional nice touch)
-        BigDecimal totalDebit  = BigDecimal.ZERO;
-        BigDecimal totalCredit = BigDecimal.ZERO;
-        for (LedgerLine line : lines) {
-            totalDebit  = totalDebit.add(line.debit);
-            totalCredit = totalCredit.add(line.credit);
-        }
-        System.out.println("---------------------------------------------------");
-        System.out.println(
-                pad("Totals", 10) + " | " +
-                        padLeft(fmt(totalDebit),  WIDTH) + " | " +
-                        padLeft(fmt(totalCredit), WIDTH) + " | " +
-                        padLeft(fmt(lines.get(lines.size()-1).runningBalance), WIDTH)
-        );
+    /**
+     * Stream the full general ledger to {@code out}, as of one ledger version.
+     */
+    public void writeAll(TextSink out) {
+        snapshot().writeAll(out);
     }
 
     /**
      * Get the list of account names (alphabetical).
      */
     public Set<String> getAccounts() {
-        return new LinkedHashSet<>(ledger.keySet());
+        return snapshot().getAccounts();
     }
 
     /**
      * Get the final (closing) running balance for an account.
      */
     public BigDecimal getFinalBalance(String accountName) {
-        List<LedgerLine> lines = ledger.get(accountName);
-        if (lines == null || lines.isEmpty()) return BigDecimal.ZERO;
-        return lines.get(lines.size() - 1).runningBalance;
+        return Money.toBigDecimal(getFinalBalanceMinor(accountName));
+    }
+
+    /**
+     * Same as {@link #getFinalBalance(String)} in minor units (no allocation).
+     */
+    public long getFinalBalanceMinor(String accountName) {
+        int id = AccountRegistry.find(accountName == null ? null : accountName.trim());
+        if (id < 0) return 0L;
+        ReentrantLock lock = stripes[id & (STRIPES - 1)];
+        lock.lock();
+        try {
+            AccountLedger acc = accountAt(id);
+            if (acc == null || acc.lines.isEmpty()) return 0L;
+            acc.settle();
+            return acc.lines.get(acc.lines.size() - 1).runningBalance;
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
      * Clear internal state (rebuild from scratch later).
      */
     public void clear() {
-        ledger.clear();
+        lockAll();
+        try {
+            resetLedger();
+            nextSequence.set(0);
+            completeThrough(0, true);
+        } finally {
+            unlockAll();
+        }
     }
 
     /* ------------------- internals ------------------- */
 
-    private void addLine(String account, LocalDate date,
-                         BigDecimal debit, BigDecimal credit,
-                         int sign, JournalEntry ref) {
+    private void expand(JournalEntry e, long sequence, boolean inOrder) {
+        if (e == null) return;
+
+        LocalDate date = e.getDate();
+        // Defensive: if date is null, put it last by using LocalDate.MAX for ordering later.
+        LocalDate safeDate = (date != null) ? date : LocalDate.MAX;
+
+        // One ledger line per entry line: debit → +amount, credit → -amount
+        int lines = e.getLineCount();
+        int debitLines = e.getDebitLineCount();
+        for (int i = 0; i < lines; i++) {
+            int accountId = e.getLineAccountId(i);
+            if (accountId < 0) continue; // no account name
+            long amount = e.getLineAmountMinor(i);
+            if (i < debitLines) {
+                addLine(accountId, safeDate, amount, 0L, +1, e.getTransactionID(), sequence, inOrder);
+            } else {
+                addLine(accountId, safeDate, 0L, amount, -1, e.getTransactionID(), sequence, inOrder);
+            }
+        }
+    }
+
+    private void addLine(int accountId, LocalDate date,
+                         long debit, long credit,
+                         int sign, String transactionId, long sequence, boolean inOrder) {
         // delta = +debit or -credit
-        BigDecimal delta = (sign > 0) ? debit : credit.negate();
+        long delta = (sign > 0) ? debit : -credit;
+        LedgerLine line = new LedgerLine(date, debit, credit, delta, transactionId, sequence);
+
+        AccountLedger acc = ledgerFor(accountId, sequence);
+        acc.lastSequence = Math.max(acc.lastSequence, sequence);
+        acc.bySequence.add(line); // posts to one account are sequenced under its stripe
+        if (!inOrder) {
+            acc.lines.add(line);
+            return;
+        }
+        int pos = acc.insertionPoint(line);
+        acc.lines.add(pos, line);
+        acc.dirtyFrom = Math.min(acc.dirtyFrom, pos);
+        acc.sortedTo = acc.lines.size();
+    }
+
+    // Ledger of an account, created on first use (caller holds the account's stripe).
+    private AccountLedger ledgerFor(int accountId, long sequence) {
+        AccountLedger acc = accountAt(accountId);
+        if (acc != null) return acc;
+        synchronized (growLock) {
+            AccountLedger[] current = ledger;
+            if (accountId >= current.length) {
+                current = Arrays.copyOf(current, Math.max(accountId + 1, current.length * 2));
+            }
+            acc = new AccountLedger(sequence);
+            current[accountId] = acc;
+            ledger = current;
+        }
+        return acc;
+    }
+
+    // Marks one post finished; the version only moves past it once every earlier post has finished too
+    private void complete(long sequence) {
+        synchronized (finishedAhead) {
+            long next = completed.get();
+            if (sequence < next) return; // already covered by a rebuild or bulk load
+            if (sequence > next) {
+                finishedAhead.add(sequence);
+                return;
+            }
+            next++;
+            while (!finishedAhead.isEmpty() && finishedAhead.peek() == next) {
+                finishedAhead.poll();
+                next++;
+            }
+            completed.set(next);
+        }
+    }
+
+    // Every post below count is finished (caller holds all stripes); reset starts over at count
+    private void completeThrough(long count, boolean reset) {
+        synchronized (finishedAhead) {
+            if (reset) {
+                finishedAhead.clear();
+                completed.set(count);
+                return;
+            }
+            if (count <= completed.get()) return;
+            finishedAhead.removeIf(sequence -> sequence < count);
+            completed.set(count - 1);
+            complete(count - 1);
+        }
+    }
+
+    private AccountLedger accountAt(int accountId) {
+        AccountLedger[] current = ledger;
+        return accountId < current.length ? current[accountId] : null;
+    }
+
+    private void resetLedger() {
+        synchronized (growLock) {
+            ledger = new AccountLedger[64];
+        }
+    }
+
+    // Bit i set = stripe i holds one of the entry's accounts
+    private static int stripeMask(JournalEntry entry) {
+        int mask = 0;
+        int lines = entry.getLineCount();
+        for (int i = 0; i < lines; i++) {
+            int accountId = entry.getLineAccountId(i);
+            if (accountId >= 0) mask |= 1 << (accountId & (STRIPES - 1));
+        }
+        return mask;
+    }
+
+    private void lockStripes(int mask) {
+        for (int i = 0; i < STRIPES; i++) {
+            if ((mask & (1 << i)) != 0) stripes[i].lock();
+        }
+    }
+
+    private void unlockStripes(int mask) {
+        for (int i = STRIPES - 1; i >= 0; i--) {
+            if ((mask & (1 << i)) != 0) stripes[i].unlock();
+        }
+    }
+
+    private void lockAll() {
+        for (ReentrantLock lock : stripes) lock.lock();
+    }
+
+    private void unlockAll() {
+        for (int i = STRIPES - 1; i >= 0; i--) stripes[i].unlock();
+    }
+
+    /* ------------------- text layout (shared with StreamingLedgerExport) ------------------- */
+
+    /**
+     * Write lines of one account (a whole ledger or one cursor page) with
+     * their running balances; the totals row covers these lines only.
+     */
+    public static void writeLines(String accountName, List<LedgerLine> lines, TextSink out) {
+        writeAccountHeader(accountName, out);
+        long totalDebit  = 0L;
+        long totalCredit = 0L;
+        for (LedgerLine line : lines) {
+            writeRow(line.date, line.debit, line.credit, line.runningBalance, out);
+            totalDebit  += line.debit;
+            totalCredit += line.credit;
+        }
+        writeTotals(totalDebit, totalCredit, lines.isEmpty() ? 0L : lines.get(lines.size() - 1).runningBalance, out);
+    }
+
+    static void writeTitle(TextSink out) {
+        out.newLine().println("📒 General Ledger (All Accounts)");
+        out.println("================================");
+    }
+
+    static void writeAccountHeader(String accountName, TextSink out) {
+        out.newLine().append("Account: ").println(accountName);
+        out.println("Date       | Debit        | Credit       | Balance");
+        out.println("---------------------------------------------------");
+    }
 
-        List<LedgerLine> list = ledger.computeIfAbsent(account, k -> new ArrayList<>());
-        list.add(new LedgerLine(date, debit, credit, delta, ref));
+    // One line: date (N/A if undated), debit or credit (blank when zero), running balance
+    static void writeRow(LocalDate date, long debit, long credit, long runningBalance, TextSink out) {
+        if (date == null || date.equals(LocalDate.MAX)) {
+            out.padRight("N/A", 10);
+        } else {
+            out.date(date); // yyyy-MM-dd fills the 10-char column
+        }
+        out.append(" | ");
+        if (debit == 0) out.repeat(' ', WIDTH); else out.amount(debit, WIDTH);
+        out.append(" | ");
+        if (credit == 0) out.repeat(' ', WIDTH); else out.amount(credit, WIDTH);
+        out.append(" | ").amount(runningBalance, WIDTH).newLine();
     }
 
-    // Nice 2-decimal formatting without forcing locale here.
-    private String fmt(BigDecimal v) {
-        return v.setScale(2, BigDecimal.ROUND_HALF_UP).toPlainString();
+    static void writeTotals(long totalDebit, long totalCredit, long closingBalance, TextSink out) {
+        out.println("---------------------------------------------------");
+        out.padRight("Totals", 10)
+                .append(" | ").amount(totalDebit, WIDTH)
+                .append(" | ").amount(totalCredit, WIDTH)
+                .append(" | ").amount(closingBalance, WIDTH)
+                .newLine();
     }
 
-    // Simple padding helpers for console output.
-    private static String pad(String s, int width) {
-        if (s == null) s = "";
-        if (s.length() >= width) return s;
-        return s + " ".repeat(width - s.length());
+    /**
+     * Read-only view of the ledger at one version: only lines from posts
+     * numbered below {@link #getVersion()} are shown, with their own running
+     * balances. Each account is copied under its stripe when it is read.
+     */
+    public class Snapshot {
+        private final AccountLedger[] accounts;
+        private final long version;
+
+        private Snapshot(AccountLedger[] accounts, long version) {
+            this.accounts = accounts;
+            this.version = version;
+        }
+
+        /** Number of posts included in this snapshot. */
+        public long getVersion() {
+            return version;
+        }
+
+        /**
+         * Print the full general ledger (all accounts).
+         */
+        public void printAll() {
+            TextSink out = TextSink.console();
+            writeAll(out);
+            out.flush();
+        }
+
+        /**
+         * Print a single account’s ledger with running balance.
+         */
+        public void printAccount(String accountName) {
+            TextSink out = TextSink.console();
+            writeAccount(accountName, out);
+            out.flush();
+        }
+
+        /**
+         * Write the full general ledger to {@code out}, one account at a time:
+         * only the account being written is copied out of the ledger, so a
+         * huge ledger can be streamed to a file (the caller flushes or closes it).
+         */
+        public void writeAll(TextSink out) {
+            Set<String> names = getAccounts();
+            if (names.isEmpty()) {
+                out.println("📭 General Ledger is empty.");
+                return;
+            }
+
+            writeTitle(out);
+            for (String account : names) {
+                writeAccount(account, out);
+            }
+        }
+
+        /**
+         * Write a single account’s ledger with running balance to {@code out}.
+         */
+        public void writeAccount(String accountName, TextSink out) {
+            List<LedgerLine> lines = lines(accountName);
+            if (lines.isEmpty()) {
+                out.newLine().append("No entries for account: ").println(String.valueOf(accountName));
+                return;
+            }
+
+            writeLines(accountName, lines, out);
+        }
+
+        /**
+         * Cursor over one account's lines in this snapshot, positioned before
+         * the first line (an unknown account gives an empty cursor).
+         */
+        public LedgerCursor cursor(String accountName) {
+            int id = AccountRegistry.find(accountName == null ? null : accountName.trim());
+            AccountLedger acc = id < 0 || id >= accounts.length ? null : accounts[id];
+            if (acc != null && acc.firstSequence >= version) acc = null;
+            return new LedgerCursor(acc, version, acc == null ? null : stripes[id & (STRIPES - 1)]);
+        }
+
+        /**
+         * Get the list of account names (alphabetical).
+         */
+        public Set<String> getAccounts() {
+            Set<String> names = new TreeSet<>();
+            for (int id = 0; id < accounts.length; id++) {
+                AccountLedger acc = accounts[id];
+                if (acc != null && acc.firstSequence < version) names.add(AccountRegistry.displayName(id));
+            }
+            return new LinkedHashSet<>(names);
+        }
+
+        /**
+         * Lines of one account in this snapshot (date order, read-only).
+         */
+        public List<LedgerLine> getLines(String accountName) {
+            return Collections.unmodifiableList(lines(accountName));
+        }
+
+        /**
+         * Closing balance of an account in this snapshot.
+         */
+        public BigDecimal getFinalBalance(String accountName) {
+            List<LedgerLine> lines = lines(accountName);
+            return Money.toBigDecimal(lines.isEmpty() ? 0L : lines.get(lines.size() - 1).runningBalance);
+        }
+
+        // Lines of one account visible in this snapshot, with running balances over those lines.
+        // Copied a page at a time through a cursor, so a huge account never holds its stripe
+        // (and posts to it) for the whole copy.
+        private List<LedgerLine> lines(String accountName) {
+            LedgerCursor cursor = cursor(accountName);
+            List<LedgerLine> visible = new ArrayList<>();
+            for (List<LedgerLine> page; !(page = cursor.next(COPY_PAGE_LINES)).isEmpty(); ) {
+                visible.addAll(page);
+            }
+            return visible;
+        }
     }
-    private static String padLeft(String s, int width) {
-        if (s == null) s = "";
-        if (s.length() >= width) return s;
-        return " ".repeat(width - s.length()) + s;
+
+    /**
+     * One account's lines in a snapshot, a page at a time, in ledger order.
+     *
+     * Pages are cut straight out of the live ledger under the account's
+     * stripe: finding the cursor's place is a binary search, and only the
+     * lines of the page are copied, so the first page of a huge account is
+     * as cheap as any other. The balance carried into a page is the running
+     * balance of the line just before it (every settled line is a
+     * checkpoint), not a sum from the account's first line. Lines posted
+     * after the snapshot are skipped; when the account has any, their
+     * amounts are taken back out of that balance.
+     *
+     * The cursor remembers its place as the line it sits before, so lines
+     * inserted elsewhere (back-dated posts) don't move it; if that line is
+     * gone, it continues from where the line would sort. Not thread-safe:
+     * one cursor per reader.
+     */
+    public final class LedgerCursor {
+        private final AccountLedger account; // null = no lines in the snapshot
+        private final long version;
+        private final ReentrantLock lock;
+        private LedgerLine before;           // cursor sits just before this line
+        private boolean atEnd;               // ... or after the last line
+
+        private LedgerCursor(AccountLedger account, long version, ReentrantLock lock) {
+            this.account = account;
+            this.version = version;
+            this.lock = lock;
+            this.atEnd = true;
+            toStart();
+        }
+
+        /** Moves before the first line. */
+        public LedgerCursor toStart() {
+            return moveTo(0);
+        }
+
+        /** Moves after the last line (then read backwards with {@link #previous}). */
+        public LedgerCursor toEnd() {
+            before = null;
+            atEnd = true;
+            return this;
+        }
+
+        /** Moves before the first line dated on or after {@code date} (null = the undated lines). */
+        public LedgerCursor seek(LocalDate date) {
+            if (account == null) return this;
+            LocalDate key = date != null ? date : LocalDate.MAX;
+            lock.lock();
+            try {
+                List<LedgerLine> lines = account.lines;
+                int lo = 0, hi = lines.size();
+                while (lo < hi) {
+                    int mid = (lo + hi) >>> 1;
+                    if (lines.get(mid).date.isBefore(key)) lo = mid + 1;
+                    else hi = mid;
+                }
+                return moveTo(lo);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /** Up to {@code pageSize} lines after the cursor, with running balances; the cursor moves past them. */
+        public List<LedgerLine> next(int pageSize) {
+            checkPageSize(pageSize);
+            if (account == null) return new ArrayList<>();
+            lock.lock();
+            try {
+                List<LedgerLine> lines = account.lines;
+                int i = position();
+                long running = account.balanceBefore(i, version);
+                List<LedgerLine> page = new ArrayList<>(Math.min(pageSize, lines.size() - i));
+                while (i < lines.size() && page.size() < pageSize) {
+                    LedgerLine line = lines.get(i++);
+                    if (line.sequence >= version) continue;
+                    running += line.delta;
+                    page.add(line.withRunningBalance(running));
+                }
+                moveTo(i);
+                return page;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /** Up to {@code pageSize} lines before the cursor (in ledger order); the cursor moves before them. */
+        public List<LedgerLine> previous(int pageSize) {
+            checkPageSize(pageSize);
+            if (account == null) return new ArrayList<>();
+            lock.lock();
+            try {
+                List<LedgerLine> lines = account.lines;
+                int end = position();
+                int start = end;
+                int visible = 0;
+                while (start > 0 && visible < pageSize) {
+                    if (lines.get(--start).sequence < version) visible++;
+                }
+                long running = account.balanceBefore(start, version);
+                List<LedgerLine> page = new ArrayList<>(visible);
+                for (int i = start; i < end; i++) {
+                    LedgerLine line = lines.get(i);
+                    if (line.sequence >= version) continue;
+                    running += line.delta;
+                    page.add(line.withRunningBalance(running));
+                }
+                if (visible > 0) moveTo(start);
+                return page;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        public boolean hasNext() {
+            if (account == null) return false;
+            lock.lock();
+            try {
+                List<LedgerLine> lines = account.lines;
+                for (int i = position(); i < lines.size(); i++) {
+                    if (lines.get(i).sequence < version) return true;
+                }
+                return false;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        public boolean hasPrevious() {
+            if (account == null) return false;
+            lock.lock();
+            try {
+                List<LedgerLine> lines = account.lines;
+                for (int i = position() - 1; i >= 0; i--) {
+                    if (lines.get(i).sequence < version) return true;
+                }
+                return false;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        // Current index in the account's lines (caller holds the stripe)
+        private int position() {
+            return atEnd ? account.lines.size() : account.indexOf(before);
+        }
+
+        private LedgerCursor moveTo(int index) {
+            if (account == null) return this;
+            lock.lock(); // reentrant: also called with the stripe held
+            try {
+                List<LedgerLine> lines = account.lines;
+                atEnd = index >= lines.size();
+                before = atEnd ? null : lines.get(index);
+                return this;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void checkPageSize(int pageSize) {
+            if (pageSize < 1) throw new IllegalArgumentException("Page size must be at least 1.");
+        }
+    }
+
+    /**
+     * Date-ordered lines of one account. Running balances are valid for
+     * indexes below {@code dirtyFrom}; the rest is recomputed on demand.
+     */
+    private static class AccountLedger {
+        final List<LedgerLine> lines = new ArrayList<>();
+        final List<LedgerLine> bySequence = new ArrayList<>(); // same lines in post order
+        final long firstSequence; // sequence of the post that opened the account
+        long lastSequence = -1;   // newest post with a line here
+        int dirtyFrom = 0;
+        int sortedTo = 0;         // lines below it are in LINE_ORDER (bulk loads append, then sort)
+
+        AccountLedger(long firstSequence) {
+            this.firstSequence = firstSequence;
+        }
+
+        // First index whose line sorts strictly after the new one (keeps equal keys in arrival order).
+        int insertionPoint(LedgerLine line) {
+            int lo = 0, hi = lines.size();
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (LINE_ORDER.compare(lines.get(mid), line) <= 0) lo = mid + 1;
+                else hi = mid;
+            }
+            return lo;
+        }
+
+        // Index of this line, or of the first line sorting after it if it is no longer here.
+        // Equal keys are in post order, so (key, sequence) is a total order over the lines
+        // (only a compound entry's repeated account shares both: scan those for identity).
+        int indexOf(LedgerLine line) {
+            int lo = 0, hi = lines.size();
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (compareInLedger(lines.get(mid), line) < 0) lo = mid + 1;
+                else hi = mid;
+            }
+            for (int i = lo; i < lines.size() && compareInLedger(lines.get(i), line) == 0; i++) {
+                if (lines.get(i) == line) return i;
+            }
+            return lo;
+        }
+
+        // Balance of the lines before index that are visible at version: the running
+        // balance just before it, less the lines posted after version that sort before
+        // it. Those are the newest posts, found by sequence, so a snapshot's correction
+        // costs O(late lines) however long the account is.
+        long balanceBefore(int index, long version) {
+            if (index == 0) return 0L;
+            settle();
+            long balance = lines.get(index - 1).runningBalance;
+            if (lastSequence < version) return balance;
+            LedgerLine at = index < lines.size() ? lines.get(index) : null;
+            for (int i = firstPostedFrom(version); i < bySequence.size(); i++) {
+                LedgerLine late = bySequence.get(i);
+                int cmp = at == null ? -1 : compareInLedger(late, at);
+                if (cmp < 0 || (cmp == 0 && indexOf(late) < index)) balance -= late.delta;
+            }
+            return balance;
+        }
+
+        // First index in bySequence whose line was posted at or after version
+        private int firstPostedFrom(long version) {
+            int lo = 0, hi = bySequence.size();
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (bySequence.get(mid).sequence < version) lo = mid + 1;
+                else hi = mid;
+            }
+            return lo;
+        }
+
+        private static int compareInLedger(LedgerLine a, LedgerLine b) {
+            int cmp = LINE_ORDER.compare(a, b);
+            return cmp != 0 ? cmp : Long.compare(a.sequence, b.sequence);
+        }
+
+        void settle() {
+            if (dirtyFrom >= lines.size()) return;
+            long running = (dirtyFrom == 0) ? 0L : lines.get(dirtyFrom - 1).runningBalance;
+            for (int i = dirtyFrom; i < lines.size(); i++) {
+                LedgerLine line = lines.get(i);
+                // delta = +debit or -credit (already applied when created)
+                running += line.delta;
+                line.runningBalance = running;
+            }
+            dirtyFrom = lines.size();
+        }
     }
 
     /**
      * One printed row in the General Ledger for a specific account.
      * debit and credit are non-negative; delta is applied sign (+ or -).
+     * All amounts are in minor units (cents).
      */
-    private static class LedgerLine {
+    public static final class LedgerLine {
         final LocalDate date;
-        final BigDecimal debit;           // >= 0
-        final BigDecimal credit;          // >= 0
-        final BigDecimal delta;           // +debit or -credit
-        final JournalEntry entryRef;      // reference to original entry (optional for future)
-        BigDecimal runningBalance;        // balance AFTER applying this line
-
-        LedgerLine(LocalDate date, BigDecimal debit, BigDecimal credit,
-                   BigDecimal delta, JournalEntry entryRef) {
+        final long debit;                 // >= 0
+        final long credit;                // >= 0
+        final long delta;                 // +debit or -credit
+        final String transactionId;       // of the entry that posted the line
+        final long sequence;              // post that created the line (ledger version)
+        long runningBalance;              // balance AFTER applying this line
+
+        LedgerLine(LocalDate date, long debit, long credit,
+                   long delta, String transactionId, long sequence) {
             this.date = date;
             this.debit = debit;
             this.credit = credit;
             this.delta = delta;
-            this.entryRef = entryRef;
-            this.runningBalance = BigDecimal.ZERO;
+            this.transactionId = transactionId;
+            this.sequence = sequence;
+        }
+
+        // Copy carrying the running balance of a snapshot or cursor page
+        LedgerLine withRunningBalance(long balance) {
+            LedgerLine copy = new LedgerLine(date, debit, credit, delta, transactionId, sequence);
+            copy.runningBalance = balance;
+            return copy;
+        }
+
+        /** Posting date, or null for an undated entry. */
+        public LocalDate getDate() {
+            return date.equals(LocalDate.MAX) ? null : date;
+        }
+
+        public String getTransactionId() {
+            return transactionId;
+        }
+
+        public long getDebitMinor() {
+            return debit;
+        }
+
+        public long getCreditMinor() {
+            return credit;
+        }
+
+        public long getRunningBalanceMinor() {
+            return runningBalance;
         }
     }
 }
\ No newline at end of file
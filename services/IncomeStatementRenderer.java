@@ -1,66 +1,61 @@
 package services;
 
 import model.IncomeStatement;
+import utils.TextSink;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.util.Map;
 
 public class IncomeStatementRenderer {
     private static final int WIDTH = 14;
 
     public static void render(IncomeStatement is) {
-        System.out.println();
-        System.out.println("Income Statement");
-        System.out.println("For the period: " + is.getFrom() + " to " + is.getTo());
-        System.out.println("==================================================");
+        TextSink out = TextSink.console();
+        render(is, out);
+        out.flush();
+    }
+
+    /** Writes the statement to {@code out} (the caller flushes or closes it). */
+    public static void render(IncomeStatement is, TextSink out) {
+        out.newLine();
+        out.println("Income Statement");
+        out.append("For the period: ").append(String.valueOf(is.getFrom()))
+                .append(" to ").append(String.valueOf(is.getTo())).newLine();
+        out.println("==================================================");
 
         // Revenues
-        System.out.println("Revenues");
-        if (is.getRevenues().isEmpty()) {
-            System.out.println(" (none)");
-        } else {
-            for (Map.Entry<String, BigDecimal> e : is.getRevenues().entrySet()) {
-                System.out.println(" " + padRight(e.getKey(), 30) + padLeft(fmt(e.getValue()), WIDTH));
-            }
-        }
-        System.out.println(" " + padRight("Total Revenues", 30) + padLeft(fmt(is.getTotalRevenues()), WIDTH));
-        System.out.println();
+        out.println("Revenues");
+        writeLines(out, is.getRevenues());
+        writeLine(out, "Total Revenues", is.getTotalRevenues());
+        out.newLine();
 
         // Expenses
-        System.out.println("Expenses");
-        if (is.getExpenses().isEmpty()) {
-            System.out.println(" (none)");
-        } else {
-            for (Map.Entry<String, BigDecimal> e : is.getExpenses().entrySet()) {
-                System.out.println(" " + padRight(e.getKey(), 30) + padLeft(fmt(e.getValue()), WIDTH));
-            }
-        }
-        System.out.println(" " + padRight("Total Expenses", 30) + padLeft(fmt(is.getTotalExpenses()), WIDTH));
-        System.out.println();
+        out.println("Expenses");
+        writeLines(out, is.getExpenses());
+        writeLine(out, "Total Expenses", is.getTotalExpenses());
+        out.newLine();
 
         // Net Income
-        System.out.println(padRight("Net Income", 32) + padLeft(fmt(is.getNetIncome()), WIDTH));
-        System.out.println("==================================================");
+        out.padRight("Net Income", 32).amount(is.getNetIncome(), WIDTH).newLine();
+        out.println("==================================================");
 
         if (!is.getIgnoredAccounts().isEmpty()) {
-            System.out.println("Note: Ignored (not revenue/expense): " + String.join(", ", is.getIgnoredAccounts()));
+            out.println("Note: Ignored (not revenue/expense): " + String.join(", ", is.getIgnoredAccounts()));
         }
     }
 
-    private static String fmt(BigDecimal v) {
-        return v.setScale(2, RoundingMode.HALF_UP).toPlainString();
-    }
-
-    private static String padLeft(String s, int width) {
-        if (s == null) s = "";
-        if (s.length() >= width) return s;
-        return " ".repeat(width - s.length()) + s;
+    private static void writeLines(TextSink out, Map<String, BigDecimal> amounts) {
+        if (amounts.isEmpty()) {
+            out.println(" (none)");
+            return;
+        }
+        for (Map.Entry<String, BigDecimal> e : amounts.entrySet()) {
+            writeLine(out, e.getKey(), e.getValue());
+        }
     }
 
-    private static String padRight(String s, int width) {
-        if (s == null) s = "";
-        if (s.length() >= width) return s;
-        return s + " ".repeat(width - s.length());
+    // Amounts are rounded to 2 decimals (HALF_UP) by the sink's AmountFormatter
+    private static void writeLine(TextSink out, String label, BigDecimal amount) {
+        out.append(' ').padRight(label, 30).amount(amount, WIDTH).newLine();
     }
 }
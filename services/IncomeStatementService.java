@@ -1,12 +1,11 @@
 package services;
 
+import manager.JournalStore;
+import metrics.Metrics;
 import model.*;
-import model.CreditTransaction;
-import model.DebitTransaction;
-import model.JournalEntry;
+import utils.InputValidator;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.util.*;
 
@@ -17,7 +16,12 @@ import java.util.*;
  * - Applies correct debit/credit logic by account type
  */
 public class IncomeStatementService {
+    private static final Metrics.Operation GENERATE = Metrics.operation("income_statement.generate");
+    private static final Metrics.Operation FROM_BALANCES = Metrics.operation("income_statement.from_balances");
+    private static final Metrics.Operation PARALLEL = Metrics.operation("income_statement.generate_parallel");
+
     private final Map<String, AccountType> chart; // normalized name -> type
+    private AccountType[] types = new AccountType[0]; // account id -> type (lazy cache)
 
     public IncomeStatementService(Map<String, AccountType> chartOfAccounts) {
         this.chart = new HashMap<>();
@@ -41,121 +45,180 @@ public class IncomeStatementService {
         addDefaultIfMissing("cost of goods sold", AccountType.EXPENSE);
     }
 
+    /**
+     * Read-only view of the chart of accounts (normalized name -> AccountType). It is
+     * fixed once the service is built; the report cache compares it by content,
+     * so reports built with another chart are never reused (see ReportCache).
+     */
+    public Map<String, AccountType> getChart() {
+        return Collections.unmodifiableMap(chart);
+    }
+
     private void addDefaultIfMissing(String name, AccountType type) {
         this.chart.putIfAbsent(normalize(name), type);
     }
 
     public IncomeStatement generate(List<JournalEntry> allEntries, LocalDate from, LocalDate to) {
+        if (allEntries instanceof JournalStore) return generate((JournalStore) allEntries, from, to);
         if (allEntries == null) allEntries = Collections.emptyList();
         if (from == null || to == null) throw new IllegalArgumentException("from/to dates are required");
 
-        Map<String, BigDecimal> revenueLines = new HashMap<>();
-        Map<String, BigDecimal> expenseLines = new HashMap<>();
-        Set<String> unknowns = new TreeSet<>();
-
-        for (JournalEntry e : allEntries) {
-            if (e == null) continue;
-            if (!"approved".equalsIgnoreCase(safe(e.getStatus()))) continue;
-
-            LocalDate d = e.getDate();
-            if (d == null || d.isBefore(from) || d.isAfter(to)) continue;
-
-            // Debit line
-            DebitTransaction dt = e.getDebitTransaction();
-            if (dt != null && dt.getAccountName() != null) {
-                classifyAndAccumulate(dt.getAccountName(), bd(dt.getAmount()), true, revenueLines, expenseLines, unknowns);
-            }
-
-            // Credit line
-            CreditTransaction ct = e.getCreditTransaction();
-            if (ct != null && ct.getAccountName() != null) {
-                classifyAndAccumulate(ct.getAccountName(), bd(ct.getAmount()), false, revenueLines, expenseLines, unknowns);
+        // Net activity per account id (debit +, credit −) in minor units; classification happens once per account
+        try (Metrics.Timer timer = GENERATE.start()) {
+            AccountSums activity = new AccountSums();
+            for (JournalEntry e : allEntries) {
+                accumulate(activity, e, from, to);
             }
+            timer.entries(allEntries.size());
+            return assemble(from, to, activity);
         }
+    }
 
-        BigDecimal totalRevenues = sum(revenueLines.values());
-        BigDecimal totalExpenses = sum(expenseLines.values());
-        BigDecimal netIncome = totalRevenues.subtract(totalExpenses);
+    /**
+     * Columnar variant: scans the primitive date/status/account/amount columns
+     * of a JournalStore without materializing JournalEntry objects.
+     */
+    public IncomeStatement generate(JournalStore store, LocalDate from, LocalDate to) {
+        if (from == null || to == null) throw new IllegalArgumentException("from/to dates are required");
 
-        Map<String, BigDecimal> revSorted = new TreeMap<>(revenueLines);
-        Map<String, BigDecimal> expSorted = new TreeMap<>(expenseLines);
+        try (Metrics.Timer timer = GENERATE.start()) {
+            int approved = store.statusCodeOf("approved");
+            AccountSums activity = new AccountSums();
+            int rows = store.size(); // rows appended meanwhile are not part of this statement
+            for (int i = 0; i < rows; i++) {
+                accumulate(activity, store, i, approved, from.toEpochDay(), to.toEpochDay());
+            }
+            timer.entries(rows);
+            return assemble(from, to, activity);
+        }
+    }
 
-        return new IncomeStatement(
-                from,
-                to,
-                revSorted,
-                expSorted,
-                totalRevenues.setScale(2, RoundingMode.HALF_UP),
-                totalExpenses.setScale(2, RoundingMode.HALF_UP),
-                netIncome.setScale(2, RoundingMode.HALF_UP),
-                new ArrayList<>(unknowns)
-        );
+    /**
+     * Period activity per account is read from a {@link BalanceSource}
+     * (prefix sums or period checkpoints) instead of scanning every entry.
+     */
+    public IncomeStatement generate(BalanceSource balances, LocalDate from, LocalDate to) {
+        if (from == null || to == null) throw new IllegalArgumentException("from/to dates are required");
+        return FROM_BALANCES.time(() -> assemble(from, to, balances.activityBetween(from, to)));
     }
 
-    private void classifyAndAccumulate(
-            String rawAccount,
-            BigDecimal amount,
-            boolean isDebit,
-            Map<String, BigDecimal> revenueLines,
-            Map<String, BigDecimal> expenseLines,
-            Set<String> unknowns
-    ) {
-        String normalized = normalize(rawAccount);
-        AccountType type = chart.getOrDefault(normalized, inferType(normalized));
-
-        switch (type) {
-            case REVENUE: {
-                // Credit increases revenue (+), Debit decreases (−)
-                BigDecimal signed = isDebit ? amount.negate() : amount;
-                merge(revenueLines, normalized , signed);
-                break;
-            }
-            case CONTRA_REVENUE: {
-                // Treat contra-revenue as negative revenue overall
-                BigDecimal signed = isDebit ? amount : amount.negate();
-                merge(revenueLines, normalized, signed.negate()); // subtract from total revenues
-                break;
-            }
-            case EXPENSE: {
-                // Debit increases expense (+), Credit decreases (−)
-                BigDecimal signed = isDebit ? amount : amount.negate();
-                merge(expenseLines, normalized, signed);
-                break;
+    /**
+     * Parallel variant: per-account partial sums are computed on each core and
+     * merged. The result is identical to {@link #generate(List, LocalDate, LocalDate)}.
+     */
+    public IncomeStatement generateParallel(List<JournalEntry> allEntries, LocalDate from, LocalDate to) {
+        if (allEntries == null) allEntries = Collections.emptyList();
+        if (from == null || to == null) throw new IllegalArgumentException("from/to dates are required");
+
+        try (Metrics.Timer timer = PARALLEL.start()) {
+            AccountSums activity;
+            if (allEntries instanceof JournalStore) {
+                JournalStore store = (JournalStore) allEntries;
+                int approved = store.statusCodeOf("approved");
+                long fromDay = from.toEpochDay();
+                long toDay = to.toEpochDay();
+                activity = ParallelAggregation.aggregate(store.size(),
+                        (sums, i) -> accumulate(sums, store, i, approved, fromDay, toDay));
+            } else {
+                activity = ParallelAggregation.aggregate(allEntries, (sums, e) -> accumulate(sums, e, from, to));
             }
-            case OTHER:
-            default:
-                unknowns.add(normalized);
+            timer.entries(allEntries.size());
+            return assemble(from, to, activity);
         }
     }
 
-    private static void merge(Map<String, BigDecimal> map, String key, BigDecimal delta) {
-        map.merge(key, delta, BigDecimal::add);
-    }
+    // Adds one approved entry within [from, to] to the activity sums.
+    private static void accumulate(AccountSums activity, JournalEntry e, LocalDate from, LocalDate to) {
+        if (e == null) return;
+        if (!InputValidator.isApproved(e.getStatus())) return;
+
+        LocalDate d = e.getDate();
+        if (d == null || d.isBefore(from) || d.isAfter(to)) return;
 
-    private static BigDecimal sum(Collection<BigDecimal> values) {
-        BigDecimal t = BigDecimal.ZERO;
-        for (BigDecimal v : values) t = t.add(v);
-        return t;
+        // Every line: debit +, credit −
+        activity.addLines(e);
     }
 
-    private static String normalize(String s) {
-        if (s == null) return "";
-        String t = s.trim().toLowerCase();
-        t = t.replaceAll("\\s+", " ");
-        t = t.replace('–', '-');
-        return t;
+    // Same rule on row i of a JournalStore's columns.
+    private static void accumulate(AccountSums activity, JournalStore store, int i,
+                                   int approved, long fromDay, long toDay) {
+        if (store.getStatusCode(i) != approved) return;
+
+        int day = store.getEpochDay(i);
+        if (day == JournalStore.NO_DATE || day < fromDay || day > toDay) return;
+
+        activity.addLines(store, i);
     }
 
-    private static String displayName(String s) {
-        return s == null ? "" : s.trim();
+    /**
+     * Builds the statement from net activity per account (debits − credits, minor units)
+     * over [from, to]. Every touched account is classified exactly once; spellings
+     * that differ only in case are reported on one line.
+     */
+    IncomeStatement assemble(LocalDate from, LocalDate to, AccountSums activity) {
+        Map<String, BigDecimal> revenueLines = new TreeMap<>();
+        Map<String, BigDecimal> expenseLines = new TreeMap<>();
+        Set<String> unknowns = new TreeSet<>();
+        long totalRevenues = 0L;
+        long totalExpenses = 0L;
+
+        for (int id = activity.nextTouched(0); id >= 0; id = activity.nextTouched(id + 1)) {
+            String normalized = AccountRegistry.normalizedName(id);
+            long net = activity.get(id);
+
+            switch (typeOf(id)) {
+                // REVENUE: Credit increases revenue (+), Debit decreases (−)
+                // CONTRA_REVENUE: debit balance is subtracted from total revenues
+                case REVENUE:
+                case CONTRA_REVENUE: {
+                    revenueLines.merge(normalized, Money.toBigDecimal(-net), BigDecimal::add);
+                    totalRevenues -= net;
+                    break;
+                }
+                case EXPENSE: {
+                    // Debit increases expense (+), Credit decreases (−)
+                    expenseLines.merge(normalized, Money.toBigDecimal(net), BigDecimal::add);
+                    totalExpenses += net;
+                    break;
+                }
+                case OTHER:
+                default:
+                    unknowns.add(normalized);
+            }
+        }
+
+        return new IncomeStatement(
+                from,
+                to,
+                revenueLines,
+                expenseLines,
+                Money.toBigDecimal(totalRevenues),
+                Money.toBigDecimal(totalExpenses),
+                Money.toBigDecimal(totalRevenues - totalExpenses),
+                new ArrayList<>(unknowns)
+        );
     }
 
-    private static String safe(String s) {
-        return s == null ? "" : s;
+    // Classification per account id, resolved from the chart (or inferred) once and cached.
+    // Safe for concurrent reports: the cache is read through a local copy, and a lost
+    // update only means the same classification is computed again.
+    private AccountType typeOf(int accountId) {
+        AccountType[] cache = types;
+        if (accountId >= cache.length) {
+            cache = Arrays.copyOf(cache, Math.max(accountId + 1, AccountRegistry.size()));
+            types = cache;
+        }
+        AccountType type = cache[accountId];
+        if (type == null) {
+            String normalized = AccountRegistry.normalizedName(accountId);
+            type = chart.getOrDefault(normalized, inferType(normalized));
+            cache[accountId] = type;
+        }
+        return type;
     }
 
-    private static BigDecimal bd(double d) {
-        return BigDecimal.valueOf(d).setScale(2, RoundingMode.HALF_UP);
+    private static String normalize(String s) {
+        return AccountRegistry.normalize(s);
     }
 
     /** Fallback naming rules when not found in chart */
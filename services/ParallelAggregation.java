@@ -0,0 +1,44 @@
+package services;
+
+import model.JournalEntry;
+
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.ObjIntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Fork-join aggregation of per-account sums.
+ * The journal is split into chunks on the common ForkJoinPool, each chunk is
+ * summed into its own AccountSums, and the partial results are merged with
+ * {@link AccountSums#addAll}. Sums are exact long minor units, so the result
+ * is identical to the sequential loop regardless of how the work was split.
+ */
+final class ParallelAggregation {
+
+    /** Below this many rows the split/merge overhead outweighs the gain; run sequentially. */
+    static final int PARALLEL_THRESHOLD = 8_192;
+
+    private ParallelAggregation() {
+    }
+
+    /** Aggregates a journal list (ArrayList's spliterator splits it into index ranges). */
+    static AccountSums aggregate(List<JournalEntry> entries, BiConsumer<AccountSums, JournalEntry> accumulator) {
+        if (entries.size() < PARALLEL_THRESHOLD) {
+            AccountSums sums = new AccountSums();
+            for (JournalEntry e : entries) accumulator.accept(sums, e);
+            return sums;
+        }
+        return entries.parallelStream().collect(AccountSums::new, accumulator, AccountSums::addAll);
+    }
+
+    /** Aggregates rows {@code 0 .. size-1} by index (used for the columnar JournalStore). */
+    static AccountSums aggregate(int size, ObjIntConsumer<AccountSums> accumulator) {
+        if (size < PARALLEL_THRESHOLD) {
+            AccountSums sums = new AccountSums();
+            for (int i = 0; i < size; i++) accumulator.accept(sums, i);
+            return sums;
+        }
+        return IntStream.range(0, size).parallel().collect(AccountSums::new, accumulator, AccountSums::addAll);
+    }
+}
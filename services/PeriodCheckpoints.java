@@ -0,0 +1,265 @@
+package services;
+
+import manager.JournalListener;
+import manager.JournalStore;
+import manager.UnifiedJournalManager;
+import metrics.Metrics;
+import model.JournalEntry;
+import utils.InputValidator;
+
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * Month-end closing checkpoints (approved entries only).
+ * For every closed month it materializes:
+ * - the closing balance of each account at the month end
+ * - the net activity of each account within the month
+ *
+ * Reports start from the nearest checkpoint and replay only the tail:
+ * - balancesAsOf(asOf): last month-end closing + entries after it up to asOf
+ * - activityBetween(from, to): whole months from their checkpoints (e.g. YTD
+ *   from Jan 1) + the remaining days from the journal
+ * The tail is read through the manager's date index, so only entries inside
+ * it are visited.
+ *
+ * Checkpoints are built lazily, month by month from the previous one, the
+ * first time a report needs them. An approved entry dated on or before the
+ * last checkpoint (a back-dated entry in a closed period) drops every
+ * checkpoint from its month on; they are rebuilt on the next report.
+ * Checkpoints are kept in memory only, so after a restart the first report
+ * pays for one pass over the entries of the months it needs.
+ *
+ * The listener only records what it saw (entry count, earliest date, earliest
+ * back-dated day) under a small lock of its own, so posting never waits for a
+ * report. Each report first takes over those records: it drops the stale
+ * checkpoints, then reads only the entries the listener had seen at that
+ * point, including entries whose other listeners are still running. A month
+ * is therefore never closed without an entry whose invalidation is pending.
+ * Must be registered with replay, so its entry count matches the journal's.
+ *
+ * Report methods are synchronized. A report holds the lock while it replays its
+ * tail (at most one month of entries) or builds missing months.
+ * {@link #readConsistent} pins one entry count for all of its reads, under the
+ * report lock only, so postings continue meanwhile.
+ */
+public class PeriodCheckpoints implements JournalListener, BalanceSource {
+
+    private static final int NO_DATE = JournalStore.NO_DATE;
+    private static final Metrics.Operation CLOSE_MONTHS = Metrics.operation("checkpoints.close_months");
+
+    private final UnifiedJournalManager manager;
+    // Month-end epoch day → checkpoint; always a contiguous run of months
+    private final NavigableMap<Integer, Checkpoint> checkpoints = new TreeMap<>();
+    private int firstDay = NO_DATE; // earliest approved entry date
+    private long invalidations;
+
+    // Recorded by the listener, taken over by the next report (guarded by pendingLock)
+    private final Object pendingLock = new Object();
+    private int seen;                     // entries passed to onEntryAdded (= journal positions below it)
+    private int seenFirstDay = NO_DATE;   // earliest approved entry date seen
+    private int staleFrom = NO_DATE;      // earliest approved date seen since the last report
+
+    public PeriodCheckpoints(UnifiedJournalManager manager) {
+        this.manager = manager;
+    }
+
+    @Override
+    public void onEntryAdded(JournalEntry entry) {
+        synchronized (pendingLock) {
+            seen++;
+            if (entry == null || entry.getDate() == null) return;
+            if (!InputValidator.isApproved(entry.getStatus())) return;
+
+            int day = (int) entry.getDate().toEpochDay();
+            if (day < seenFirstDay) seenFirstDay = day;
+            if (day < staleFrom) staleFrom = day;
+        }
+    }
+
+    // Bulk load from the columns (no JournalEntry per row)
+    @Override
+    public void onRowsAdded(JournalStore store, int from, int to) {
+        int approved = store.statusCodeOf("approved");
+        int earliest = NO_DATE;
+        for (int row = from; approved >= 0 && row < to; row++) {
+            if (store.getStatusCode(row) == approved) earliest = Math.min(earliest, store.getEpochDay(row));
+        }
+        synchronized (pendingLock) {
+            seen += to - from;
+            if (earliest < seenFirstDay) seenFirstDay = earliest;
+            if (earliest < staleFrom) staleFrom = earliest;
+        }
+    }
+
+    @Override
+    public synchronized AccountSums balancesAsOf(LocalDate asOf) {
+        return balancesAsOf(asOf, catchUp());
+    }
+
+    @Override
+    public synchronized AccountSums activityBetween(LocalDate from, LocalDate to) {
+        return activityBetween(from, to, catchUp());
+    }
+
+    // The view runs on the caller's thread while it holds the report lock
+    @Override
+    public synchronized void readConsistent(Consumer<BalanceSource> reads) {
+        int upTo = catchUp();
+        reads.accept(new BalanceSource() {
+            @Override
+            public AccountSums balancesAsOf(LocalDate asOf) {
+                return PeriodCheckpoints.this.balancesAsOf(asOf, upTo);
+            }
+
+            @Override
+            public AccountSums activityBetween(LocalDate from, LocalDate to) {
+                return PeriodCheckpoints.this.activityBetween(from, to, upTo);
+            }
+
+            @Override
+            public void readConsistent(Consumer<BalanceSource> nested) {
+                nested.accept(this);
+            }
+        });
+    }
+
+    /* ---------------- reads at a pinned entry count ---------------- */
+
+    private AccountSums balancesAsOf(LocalDate asOf, int upTo) {
+        ensureThrough(lastMonthEndOnOrBefore(asOf), upTo);
+
+        AccountSums balances = new AccountSums();
+        Map.Entry<Integer, Checkpoint> nearest = checkpoints.floorEntry((int) asOf.toEpochDay());
+        LocalDate tailStart;
+        if (nearest != null) {
+            balances.addAll(nearest.getValue().closing);
+            tailStart = LocalDate.ofEpochDay(nearest.getKey() + 1L);
+        } else if (firstDay != NO_DATE) {
+            tailStart = LocalDate.ofEpochDay(firstDay);
+        } else {
+            return balances; // no approved entries yet
+        }
+        replay(tailStart, asOf, balances, upTo);
+        return balances;
+    }
+
+    private AccountSums activityBetween(LocalDate from, LocalDate to, int upTo) {
+        AccountSums activity = new AccountSums();
+        LocalDate cursor = from;
+
+        // Whole months at the start of the range come from their checkpoints
+        if (from.getDayOfMonth() == 1) {
+            ensureThrough(lastMonthEndOnOrBefore(to), upTo);
+            while (true) {
+                LocalDate monthEnd = cursor.with(TemporalAdjusters.lastDayOfMonth());
+                if (monthEnd.isAfter(to)) break;
+                int endDay = (int) monthEnd.toEpochDay();
+                Checkpoint cp = checkpoints.get(endDay);
+                if (cp != null) {
+                    activity.addAll(cp.monthActivity);
+                } else if (endDay >= firstDay) {
+                    break; // not materialized: replay from here
+                }
+                cursor = monthEnd.plusDays(1);
+            }
+        }
+        replay(cursor, to, activity, upTo);
+        return activity;
+    }
+
+    /** Number of materialized month-end checkpoints. */
+    public synchronized int size() {
+        catchUp();
+        return checkpoints.size();
+    }
+
+    /** Times back-dated entries invalidated closed periods. */
+    public synchronized long getInvalidations() {
+        catchUp();
+        return invalidations;
+    }
+
+    /* ---------------- internals ---------------- */
+
+    // Takes over what the listener recorded: drops checkpoints made stale by back-dated
+    // entries, then returns how many journal positions reports may read (all seen entries).
+    private int catchUp() {
+        int upTo;
+        int stale;
+        synchronized (pendingLock) {
+            upTo = seen;
+            firstDay = seenFirstDay;
+            stale = staleFrom;
+            staleFrom = NO_DATE;
+        }
+        if (stale != NO_DATE && !checkpoints.isEmpty() && stale <= checkpoints.lastKey()) {
+            // Back-dated into a closed period: every checkpoint from its month on is stale
+            checkpoints.tailMap(stale, true).clear();
+            invalidations++;
+        }
+        return upTo;
+    }
+
+    // Materializes every month end up to (and including) target, starting from the last valid checkpoint.
+    private void ensureThrough(LocalDate target, int upTo) {
+        if (firstDay == NO_DATE) return;
+
+        Map.Entry<Integer, Checkpoint> last = checkpoints.lastEntry();
+        LocalDate monthStart = (last == null)
+                ? LocalDate.ofEpochDay(firstDay).withDayOfMonth(1)
+                : LocalDate.ofEpochDay(last.getKey() + 1L);
+        AccountSums running = (last == null) ? new AccountSums() : last.getValue().closing;
+        if (monthStart.with(TemporalAdjusters.lastDayOfMonth()).isAfter(target)) return; // nothing to close
+
+        try (Metrics.Timer timer = CLOSE_MONTHS.start()) {
+            while (true) {
+                LocalDate monthEnd = monthStart.with(TemporalAdjusters.lastDayOfMonth());
+                if (monthEnd.isAfter(target)) break;
+
+                AccountSums monthActivity = new AccountSums();
+                timer.entries(replay(monthStart, monthEnd, monthActivity, upTo));
+                AccountSums closing = new AccountSums();
+                closing.addAll(running);
+                closing.addAll(monthActivity);
+
+                checkpoints.put((int) monthEnd.toEpochDay(), new Checkpoint(closing, monthActivity));
+                running = closing;
+                monthStart = monthEnd.plusDays(1);
+            }
+        }
+    }
+
+    // Adds approved entries dated within [from, to] among the first upTo journal positions
+    // (date index lookup) to the sums. Returns the number of entries read.
+    private int replay(LocalDate from, LocalDate to, AccountSums sums, int upTo) {
+        if (from.isAfter(to)) return 0;
+        List<JournalEntry> tail = manager.entriesBetween(from, to, upTo);
+        for (JournalEntry e : tail) {
+            if (!InputValidator.isApproved(e.getStatus())) continue;
+            sums.addLines(e);
+        }
+        return tail.size();
+    }
+
+    private static LocalDate lastMonthEndOnOrBefore(LocalDate date) {
+        LocalDate monthEnd = date.with(TemporalAdjusters.lastDayOfMonth());
+        return monthEnd.equals(date) ? date : date.withDayOfMonth(1).minusDays(1);
+    }
+
+    /** Materialized state of one closed month. */
+    private static class Checkpoint {
+        final AccountSums closing;
+        final AccountSums monthActivity;
+
+        Checkpoint(AccountSums closing, AccountSums monthActivity) {
+            this.closing = closing;
+            this.monthActivity = monthActivity;
+        }
+    }
+}
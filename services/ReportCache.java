@@ -0,0 +1,185 @@
+package services;
+
+import manager.JournalListener;
+import model.BalanceSheet;
+import model.IncomeStatement;
+import model.JournalEntry;
+import utils.InputValidator;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Size-bounded LRU cache of generated reports.
+ * Key: (report type, from, to/asOf, chart). Each cached report
+ * covers a date range:
+ * - Income Statement: [from, to]
+ * - Balance Sheet:    everything up to asOf (closing balances and YTD net income)
+ *
+ * Registered as a {@link JournalListener}, the cache drops only the reports
+ * whose range contains an added approved entry's date; appends outside every
+ * cached range (e.g. the current month while last year's reports are cached)
+ * keep them valid. Pending and undated entries never affect a report.
+ *
+ * Thread-safe. Reports are generated outside the lock; one whose range gets
+ * a new entry while it is being generated is returned but not cached.
+ */
+public class ReportCache implements JournalListener {
+
+    public enum ReportType { INCOME_STATEMENT, BALANCE_SHEET }
+
+    private final Map<Key, Object> reports;
+    private final List<InFlight> inFlight = new ArrayList<>(); // reports being generated
+    private long journalVersion; // approved, dated entries seen so far
+    private long hits;
+    private long misses;
+    private long invalidations;
+
+    public ReportCache(int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("Capacity must be > 0.");
+        // Access-ordered LinkedHashMap: the eldest entry is the least recently used
+        this.reports = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Object> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    @Override
+    public synchronized void onEntryAdded(JournalEntry entry) {
+        if (entry == null || entry.getDate() == null) return;
+        if (!InputValidator.isApproved(entry.getStatus())) return;
+
+        journalVersion++;
+        long day = entry.getDate().toEpochDay();
+        Iterator<Key> it = reports.keySet().iterator();
+        while (it.hasNext()) {
+            if (it.next().covers(day)) {
+                it.remove();
+                invalidations++;
+            }
+        }
+        for (InFlight pending : inFlight) {
+            if (pending.key.covers(day)) pending.stale = true;
+        }
+    }
+
+    /** Cached income statement for [from, to], computed with {@code generator} on a miss. */
+    public IncomeStatement incomeStatement(LocalDate from, LocalDate to, Object chart,
+                                           Supplier<IncomeStatement> generator) {
+        return lookup(new Key(ReportType.INCOME_STATEMENT, from, to, chart), generator);
+    }
+
+    /** Cached balance sheet as of {@code asOf}, computed with {@code generator} on a miss. */
+    public BalanceSheet balanceSheet(LocalDate asOf, Object chart, Supplier<BalanceSheet> generator) {
+        return lookup(new Key(ReportType.BALANCE_SHEET, null, asOf, chart), generator);
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /** Cached reports dropped because an entry landed in their range. */
+    public synchronized long getInvalidations() {
+        return invalidations;
+    }
+
+    /** Number of approved, dated entries added since the cache was created. */
+    public synchronized long getJournalVersion() {
+        return journalVersion;
+    }
+
+    public synchronized int size() {
+        return reports.size();
+    }
+
+    public synchronized void clear() {
+        reports.clear();
+    }
+
+    /* ---------------- internals ---------------- */
+
+    @SuppressWarnings("unchecked")
+    private <R> R lookup(Key key, Supplier<R> generator) {
+        InFlight pending = new InFlight(key);
+        synchronized (this) {
+            Object cached = reports.get(key);
+            if (cached != null) {
+                hits++;
+                return (R) cached;
+            }
+            misses++;
+            inFlight.add(pending);
+        }
+
+        R report = null;
+        try {
+            report = generator.get();
+            return report;
+        } finally {
+            synchronized (this) {
+                inFlight.remove(pending);
+                if (report != null && !pending.stale) reports.put(key, report);
+            }
+        }
+    }
+
+    /** A report being generated; marked stale if an entry lands in its range meanwhile. */
+    private static class InFlight {
+        final Key key;
+        boolean stale;
+
+        InFlight(Key key) {
+            this.key = key;
+        }
+    }
+
+    /**
+     * Report type + date range + chart. {@code from == null} = unbounded start.
+     * The chart is compared by equals(), never by its hash alone, so two charts
+     * whose hashes collide cannot share a report.
+     */
+    private static class Key {
+        final ReportType type;
+        final long fromDay;
+        final long toDay;
+        final Object chart;
+        final int hash;
+
+        Key(ReportType type, LocalDate from, LocalDate to, Object chart) {
+            this.type = type;
+            this.fromDay = (from == null) ? Long.MIN_VALUE : from.toEpochDay();
+            this.toDay = to.toEpochDay();
+            this.chart = chart;
+            this.hash = Objects.hash(type, fromDay, toDay, chart);
+        }
+
+        boolean covers(long day) {
+            return day >= fromDay && day <= toDay;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key k = (Key) o;
+            return type == k.type && fromDay == k.fromDay && toDay == k.toDay && Objects.equals(chart, k.chart);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
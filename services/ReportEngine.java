@@ -0,0 +1,253 @@
+package services;
+
+import manager.JournalStore;
+import metrics.Metrics;
+import model.BalanceSheet;
+import model.IncomeStatement;
+import model.JournalEntry;
+import utils.InputValidator;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Fused month-end report engine.
+ * Walks the journal ONCE and fills three sets of accumulators at the same time:
+ * - trial balance totals (all approved entries)
+ * - closing balance per account up to {@code asOf} (balance sheet)
+ * - net activity per account within [from, asOf] (income statement)
+ * The Income Statement, Balance Sheet and Trial Balance are then derived from
+ * those accumulators, using the same classification rules as the services.
+ *
+ * Journals of at least {@link #PARALLEL_ROWS} rows are summed on all cores
+ * instead ({@link #generateParallel}) when more than one is available.
+ */
+public class ReportEngine {
+
+    private static final Metrics.Operation GENERATE = Metrics.operation("report_engine.generate");
+    private static final Metrics.Operation BALANCE_SHEETS = Metrics.operation("report_engine.balance_sheets_as_of");
+    private static final Metrics.Operation GENERATE_PARALLEL = Metrics.operation("report_engine.generate_parallel");
+
+    /** Rows from which generate() switches to the parallel passes (-Dreports.parallelRows=...). */
+    public static final int PARALLEL_ROWS = Integer.getInteger("reports.parallelRows", 1 << 18);
+
+    private final IncomeStatementService incomeStatementService;
+    private final BalanceSheetService balanceSheetService;
+
+    public ReportEngine(IncomeStatementService incomeStatementService,
+                        BalanceSheetService balanceSheetService) {
+        this.incomeStatementService = incomeStatementService;
+        this.balanceSheetService = balanceSheetService;
+    }
+
+    /** Charts of both services (cache key for reports built here). */
+    public List<Object> getChart() {
+        return List.of(incomeStatementService.getChart(), balanceSheetService.getChart());
+    }
+
+    /**
+     * Generate all three reports in a single pass.
+     * @param from start of the income statement period (e.g. Jan 1 of asOf's year)
+     * @param asOf balance sheet date and end of the income statement period
+     */
+    public Reports generate(List<JournalEntry> entries, LocalDate from, LocalDate asOf) {
+        if (from == null || asOf == null) throw new IllegalArgumentException("from/asOf dates are required");
+        if (entries == null) entries = Collections.emptyList();
+        if (runParallel(entries.size())) return generateParallel(entries, from, asOf);
+        if (entries instanceof JournalStore) return generate((JournalStore) entries, from, asOf);
+
+        try (Metrics.Timer timer = GENERATE.start()) {
+            Accumulators acc = new Accumulators();
+            for (JournalEntry e : entries) {
+                if (e == null) continue;
+                if (!InputValidator.isApproved(e.getStatus())) continue;
+
+                LocalDate date = e.getDate();
+                boolean posted = date != null && !date.isAfter(asOf);
+                boolean inPeriod = posted && !date.isBefore(from);
+
+                int lines = e.getLineCount();
+                int debitLines = e.getDebitLineCount();
+                for (int l = 0; l < lines; l++) {
+                    long amount = e.getLineAmountMinor(l);
+                    if (l < debitLines) acc.debitTotal += amount;
+                    else acc.creditTotal += amount;
+                    if (posted) acc.post(e.getLineAccountId(l), l < debitLines ? amount : -amount, inPeriod);
+                }
+            }
+            timer.entries(entries.size());
+            return acc.toReports(from, asOf);
+        }
+    }
+
+    /**
+     * Comparative balance sheets: one per date, each with net income for its own
+     * fiscal year to date (Jan 1 → date). Balances come from {@code balances}
+     * (e.g. the prefix sums of a BalanceHistory), so every extra date costs
+     * O(accounts · log days) instead of another pass over the journal.
+     * All balances are read first, at one journal version; the sheets are then
+     * assembled without holding the source, so postings are not held up.
+     */
+    public List<BalanceSheet> balanceSheetsAsOf(BalanceSource balances, List<LocalDate> dates) {
+        return BALANCE_SHEETS.time(() -> {
+            List<BalanceSheet> sheets = new ArrayList<>(dates.size());
+            List<AccountSums> activity = new ArrayList<>(dates.size());
+            List<AccountSums> closing = new ArrayList<>(dates.size());
+            balances.readConsistent(source -> {
+                for (LocalDate asOf : dates) {
+                    activity.add(source.activityBetween(asOf.withDayOfYear(1), asOf));
+                    closing.add(source.balancesAsOf(asOf));
+                }
+            });
+            for (int i = 0; i < dates.size(); i++) {
+                LocalDate asOf = dates.get(i);
+                IncomeStatement is = incomeStatementService.assemble(asOf.withDayOfYear(1), asOf, activity.get(i));
+                sheets.add(balanceSheetService.assemble(asOf, closing.get(i), is));
+            }
+            return sheets;
+        });
+    }
+
+    /** Columnar variant over a JournalStore (no JournalEntry objects are built). */
+    public Reports generate(JournalStore store, LocalDate from, LocalDate asOf) {
+        if (from == null || asOf == null) throw new IllegalArgumentException("from/asOf dates are required");
+        if (runParallel(store.size())) return generateParallel(store, from, asOf);
+
+        try (Metrics.Timer timer = GENERATE.start()) {
+            Accumulators acc = new Accumulators();
+            int approved = store.statusCodeOf("approved");
+            long fromDay = from.toEpochDay();
+            long asOfDay = asOf.toEpochDay();
+
+            int rows = store.size(); // one point in time: rows appended meanwhile are ignored
+            for (int i = 0; i < rows; i++) {
+                if (store.getStatusCode(i) != approved) continue;
+
+                int day = store.getEpochDay(i);
+                boolean posted = day != JournalStore.NO_DATE && day <= asOfDay;
+                boolean inPeriod = posted && day >= fromDay;
+
+                if (!store.isCompound(i)) {
+                    long amount = store.getAmountMinor(i);
+                    int debitId = store.getDebitAccountId(i);
+                    int creditId = store.getCreditAccountId(i);
+                    if (debitId != JournalStore.NONE) acc.debitTotal += amount;
+                    if (creditId != JournalStore.NONE) acc.creditTotal += amount;
+                    if (posted) {
+                        acc.post(debitId, amount, inPeriod);
+                        acc.post(creditId, -amount, inPeriod);
+                    }
+                    continue;
+                }
+                int lines = store.getLineCount(i);
+                int debitLines = store.getDebitLineCount(i);
+                for (int l = 0; l < lines; l++) {
+                    long amount = store.getLineAmountMinor(i, l);
+                    if (l < debitLines) acc.debitTotal += amount;
+                    else acc.creditTotal += amount;
+                    if (posted) acc.post(store.getLineAccountId(i, l), l < debitLines ? amount : -amount, inPeriod);
+                }
+            }
+            timer.entries(rows);
+            return acc.toReports(from, asOf);
+        }
+    }
+
+    /**
+     * Same three reports, summed on all cores: the income statement and the
+     * balance sheet through the services' generateParallel, and the trial
+     * balance totals in a parallel pass of their own. Exact long sums, so the
+     * result equals the single pass; it only pays off on large journals.
+     */
+    public Reports generateParallel(List<JournalEntry> entries, LocalDate from, LocalDate asOf) {
+        if (from == null || asOf == null) throw new IllegalArgumentException("from/asOf dates are required");
+        if (entries == null) entries = Collections.emptyList();
+        // The three passes must see the same rows: pin a store's current size
+        List<JournalEntry> rows = entries instanceof JournalStore
+                ? ((JournalStore) entries).snapshot(entries.size()) : entries;
+
+        try (Metrics.Timer timer = GENERATE_PARALLEL.start()) {
+            IncomeStatement is = incomeStatementService.generateParallel(rows, from, asOf);
+            BalanceSheet bs = balanceSheetService.generateParallel(rows, asOf, is);
+            long[] totals = trialTotals(rows);
+            TrialBalanceCalculator tb = new TrialBalanceCalculator();
+            tb.load(totals[0], totals[1]);
+            timer.entries(rows.size());
+            return new Reports(tb, is, bs);
+        }
+    }
+
+    /* ---------------- internals ---------------- */
+
+    private static boolean runParallel(int rows) {
+        return rows >= PARALLEL_ROWS && ForkJoinPool.getCommonPoolParallelism() > 1;
+    }
+
+    // Debit / credit totals of every approved entry (any date), as {debit, credit}
+    private static long[] trialTotals(List<JournalEntry> rows) {
+        if (rows instanceof JournalStore) {
+            JournalStore store = (JournalStore) rows;
+            int approved = store.statusCodeOf("approved");
+            return IntStream.range(0, store.size()).parallel().collect(() -> new long[2], (totals, i) -> {
+                if (store.getStatusCode(i) != approved) return;
+                int lines = store.getLineCount(i);
+                int debitLines = store.getDebitLineCount(i);
+                for (int l = 0; l < lines; l++) totals[l < debitLines ? 0 : 1] += store.getLineAmountMinor(i, l);
+            }, ReportEngine::addTotals);
+        }
+        return rows.parallelStream().collect(() -> new long[2], (totals, e) -> {
+            if (e == null || !InputValidator.isApproved(e.getStatus())) return;
+            int lines = e.getLineCount();
+            int debitLines = e.getDebitLineCount();
+            for (int l = 0; l < lines; l++) totals[l < debitLines ? 0 : 1] += e.getLineAmountMinor(l);
+        }, ReportEngine::addTotals);
+    }
+
+    private static void addTotals(long[] into, long[] other) {
+        into[0] += other[0];
+        into[1] += other[1];
+    }
+
+    private class Accumulators {
+        final AccountSums balances = new AccountSums(); // everything up to asOf
+        final AccountSums activity = new AccountSums(); // only [from, asOf]
+        long debitTotal;
+        long creditTotal;
+
+        void post(int accountId, long delta, boolean inPeriod) {
+            balances.add(accountId, delta);
+            if (inPeriod) activity.add(accountId, delta);
+        }
+
+        Reports toReports(LocalDate from, LocalDate asOf) {
+            IncomeStatement is = incomeStatementService.assemble(from, asOf, activity);
+            BalanceSheet bs = balanceSheetService.assemble(asOf, balances, is);
+            TrialBalanceCalculator tb = new TrialBalanceCalculator();
+            tb.load(debitTotal, creditTotal);
+            return new Reports(tb, is, bs);
+        }
+    }
+
+    /**
+     * The three month-end reports produced by one pass.
+     */
+    public static class Reports {
+        private final TrialBalanceCalculator trialBalance;
+        private final IncomeStatement incomeStatement;
+        private final BalanceSheet balanceSheet;
+
+        Reports(TrialBalanceCalculator trialBalance, IncomeStatement incomeStatement, BalanceSheet balanceSheet) {
+            this.trialBalance = trialBalance;
+            this.incomeStatement = incomeStatement;
+            this.balanceSheet = balanceSheet;
+        }
+
+        public BalanceCalculator getTrialBalance() { return trialBalance; }
+        public IncomeStatement getIncomeStatement() { return incomeStatement; }
+        public BalanceSheet getBalanceSheet() { return balanceSheet; }
+    }
+}
@@ -0,0 +1,455 @@
+package services;
+
+import manager.JournalStore;
+import metrics.Metrics;
+import model.AccountRegistry;
+import model.JournalEntry;
+import storage.JournalSegmentReader;
+import utils.TextSink;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.stream.Stream;
+
+/**
+ * General ledger export with bounded memory (external merge sort).
+ *
+ * {@link GeneralLedger} keeps every line of every account in memory. This
+ * export reads the journal once instead (a JournalStore, an entry list, or
+ * straight from a journal segment file) and expands it into ledger lines.
+ * The lines are collected in runs of at most {@code runLines} lines, held in
+ * primitive arrays. Each full run is sorted in ledger order (account name,
+ * then date with undated last, then transaction id with nulls last, then
+ * journal order) and spilled to a temporary file.
+ * The runs are then merged, at most {@link #MAX_FAN_IN} at a time, with extra
+ * passes if there are more. The merged stream is written account by account
+ * with running balances, in the same layout as
+ * {@link GeneralLedger#writeAll(TextSink)}.
+ *
+ * Memory use is one run (about 40 bytes per line plus the transaction ids)
+ * plus one read buffer per merged run, whatever the journal size. A journal
+ * that fits in one run is written without touching the disk. Spill files go
+ * to a temporary directory that is deleted when the export ends.
+ *
+ * Account ids in spill files are AccountRegistry ids, so spill files are only
+ * meaningful to the process that wrote them. Not thread-safe: run one export
+ * at a time per instance.
+ */
+public class StreamingLedgerExport {
+
+    public static final int DEFAULT_RUN_LINES = 1 << 20;
+    /** Runs merged in one pass (one open file and read buffer each). */
+    public static final int MAX_FAN_IN = 64;
+
+    private static final int IO_BUFFER_BYTES = 64 * 1024;
+    private static final Metrics.Operation EXPORT = Metrics.operation("ledger.export");
+    private static final Metrics.Counter SPILLS = Metrics.counter("ledger.export.spills");
+
+    private final Path spillDir;
+    private final int runLines;
+
+    /** Spills to the system temporary directory, {@link #DEFAULT_RUN_LINES} lines per run. */
+    public StreamingLedgerExport() {
+        this(null, DEFAULT_RUN_LINES);
+    }
+
+    /**
+     * @param spillDir directory for the temporary run files (null = system temporary directory)
+     * @param runLines ledger lines sorted in memory before a run is spilled
+     */
+    public StreamingLedgerExport(Path spillDir, int runLines) {
+        if (runLines < 2) throw new IllegalArgumentException("A run must hold at least 2 lines.");
+        this.spillDir = spillDir;
+        this.runLines = runLines;
+    }
+
+    /**
+     * Writes the ledger of {@code entries} to {@code out} (the caller flushes or
+     * closes it). A JournalStore is read column by column, without
+     * materializing entries.
+     *
+     * @return number of ledger lines written
+     */
+    public long export(List<JournalEntry> entries, TextSink out) throws IOException {
+        if (entries instanceof JournalStore) return export((JournalStore) entries, out);
+        try (Metrics.Timer timer = EXPORT.start(); Session session = new Session()) {
+            long position = 0;
+            for (JournalEntry e : entries) {
+                if (e == null) continue;
+                int day = e.getDate() == null ? JournalStore.NO_DATE : (int) e.getDate().toEpochDay();
+                String txnId = e.getTransactionID();
+                int debitLines = e.getDebitLineCount();
+                for (int i = 0, n = e.getLineCount(); i < n; i++) {
+                    session.add(e.getLineAccountId(i), day, txnId, e.getLineAmountMinor(i), i < debitLines);
+                }
+                position++;
+            }
+            timer.entries(position);
+            return session.finish(out);
+        }
+    }
+
+    /** Same as {@link #export(List, TextSink)} over the rows of a columnar store. */
+    public long export(JournalStore store, TextSink out) throws IOException {
+        try (Metrics.Timer timer = EXPORT.start(); Session session = new Session()) {
+            int rows = store.size();
+            for (int row = 0; row < rows; row++) {
+                int day = store.getEpochDay(row);
+                String txnId = store.getTransactionId(row);
+                int debitLines = store.getDebitLineCount(row);
+                for (int i = 0, n = store.getLineCount(row); i < n; i++) {
+                    session.add(store.getLineAccountId(row, i), day, txnId,
+                            store.getLineAmountMinor(row, i), i < debitLines);
+                }
+            }
+            timer.entries(rows);
+            return session.finish(out);
+        }
+    }
+
+    /**
+     * Same as {@link #export(List, TextSink)}, reading a journal segment file
+     * record by record: the journal itself is never loaded.
+     */
+    public long export(Path journalFile, TextSink out) throws IOException {
+        try (Metrics.Timer timer = EXPORT.start(); Session session = new Session();
+             JournalSegmentReader reader = new JournalSegmentReader(journalFile)) {
+            long records = 0;
+            while (reader.next()) {
+                int day = reader.epochDay();
+                String txnId = reader.transactionId();
+                if (reader.isCompound()) {
+                    int debitLines = reader.debitLineCount();
+                    for (int i = 0, n = reader.lineCount(); i < n; i++) {
+                        session.add(reader.lineAccountId(i), day, txnId, reader.lineAmountMinor(i), i < debitLines);
+                    }
+                } else {
+                    session.add(reader.debitAccountId(), day, txnId, reader.amountMinor(), true);
+                    session.add(reader.creditAccountId(), day, txnId, reader.amountMinor(), false);
+                }
+                records++;
+            }
+            timer.entries(records);
+            return session.finish(out);
+        }
+    }
+
+    /* ---------------- ledger order ---------------- */
+
+    // Display names by account id, looked up once per account
+    private String[] names = new String[64];
+
+    private String name(int accountId) {
+        if (accountId >= names.length) names = Arrays.copyOf(names, Math.max(accountId + 1, names.length * 2));
+        String name = names[accountId];
+        if (name == null) names[accountId] = name = AccountRegistry.displayName(accountId);
+        return name;
+    }
+
+    // Account name, date, transaction id (nulls last), then journal order (unique: a total order)
+    private int compare(int accountA, int dayA, String txnA, long ordinalA,
+                        int accountB, int dayB, String txnB, long ordinalB) {
+        if (accountA != accountB) {
+            int cmp = name(accountA).compareTo(name(accountB));
+            return cmp != 0 ? cmp : Integer.compare(accountA, accountB);
+        }
+        if (dayA != dayB) return Integer.compare(dayA, dayB);
+        if (txnA != txnB) {
+            if (txnA == null) return 1;
+            if (txnB == null) return -1;
+            int cmp = txnA.compareTo(txnB);
+            if (cmp != 0) return cmp;
+        }
+        return Long.compare(ordinalA, ordinalB);
+    }
+
+    /* ---------------- one export ---------------- */
+
+    private final class Session implements Closeable {
+        // Current run: one slot per ledger line, grown up to runLines
+        private int[] accounts = new int[0];
+        private int[] days = new int[0];
+        private String[] txnIds = new String[0];
+        private long[] ordinals = new long[0];
+        private long[] amounts = new long[0];
+        private boolean[] debits = new boolean[0];
+        private int[] order = new int[0];   // sort scratch
+        private int[] scratch = new int[0];
+        private int count;
+        private long nextOrdinal;
+
+        private Path dir;
+        private final Deque<Path> runs = new ArrayDeque<>();
+        private int runNumber;
+
+        void add(int accountId, int day, String txnId, long amount, boolean debit) throws IOException {
+            if (accountId < 0) return; // no account name
+            if (count == accounts.length) {
+                if (count == runLines) {
+                    spill();
+                } else {
+                    grow(Math.min(runLines, Math.max(1024, count * 2)));
+                }
+            }
+            accounts[count] = accountId;
+            days[count] = day;
+            txnIds[count] = txnId;
+            ordinals[count] = nextOrdinal++;
+            amounts[count] = amount;
+            debits[count] = debit;
+            count++;
+        }
+
+        // Sorts the last run and writes the ledger, straight from memory if nothing was spilled
+        long finish(TextSink out) throws IOException {
+            LedgerWriter writer = new LedgerWriter(out);
+            if (runs.isEmpty()) {
+                int[] sorted = sortedRun();
+                for (int k = 0; k < count; k++) {
+                    int i = sorted[k];
+                    writer.line(accounts[i], days[i], amounts[i], debits[i]);
+                }
+                return writer.finish();
+            }
+            if (count > 0) spill();
+            release();
+            while (runs.size() > MAX_FAN_IN) {
+                List<RunReader> readers = open(MAX_FAN_IN);
+                Path merged = newRunFile();
+                try (DataOutputStream spillOut = output(merged)) {
+                    spillOut.writeInt(readers.stream().mapToInt(r -> r.remaining).sum());
+                    merge(readers, r -> r.writeTo(spillOut));
+                }
+                runs.addLast(merged);
+            }
+            merge(open(runs.size()), r -> writer.line(r.account, r.day, r.amount, r.debit));
+            return writer.finish();
+        }
+
+        private void grow(int capacity) {
+            accounts = Arrays.copyOf(accounts, capacity);
+            days = Arrays.copyOf(days, capacity);
+            txnIds = Arrays.copyOf(txnIds, capacity);
+            ordinals = Arrays.copyOf(ordinals, capacity);
+            amounts = Arrays.copyOf(amounts, capacity);
+            debits = Arrays.copyOf(debits, capacity);
+            order = new int[capacity];
+            scratch = new int[capacity];
+        }
+
+        private void release() {
+            accounts = days = new int[0];
+            txnIds = new String[0];
+            ordinals = amounts = new long[0];
+            debits = new boolean[0];
+            order = scratch = new int[0];
+        }
+
+        // Sorted run → new run file; the run arrays are reused for the next run
+        private void spill() throws IOException {
+            Path file = newRunFile();
+            try (DataOutputStream spillOut = output(file)) {
+                spillOut.writeInt(count);
+                int[] sorted = sortedRun();
+                for (int k = 0; k < count; k++) {
+                    int i = sorted[k];
+                    RunReader.write(spillOut, accounts[i], days[i], txnIds[i], ordinals[i], amounts[i], debits[i]);
+                }
+            }
+            runs.addLast(file);
+            Arrays.fill(txnIds, 0, count, null);
+            count = 0;
+            SPILLS.increment();
+        }
+
+        // Indexes of the current run in ledger order (bottom-up merge sort, no boxing)
+        private int[] sortedRun() {
+            int[] src = order;
+            int[] dst = scratch;
+            for (int i = 0; i < count; i++) src[i] = i;
+            for (int width = 1; width < count; width *= 2) {
+                for (int lo = 0; lo < count; lo += 2 * width) {
+                    int mid = Math.min(lo + width, count);
+                    int hi = Math.min(lo + 2 * width, count);
+                    int a = lo, b = mid, k = lo;
+                    while (a < mid && b < hi) dst[k++] = before(src[b], src[a]) ? src[b++] : src[a++];
+                    while (a < mid) dst[k++] = src[a++];
+                    while (b < hi) dst[k++] = src[b++];
+                }
+                int[] swap = src;
+                src = dst;
+                dst = swap;
+            }
+            return src;
+        }
+
+        private boolean before(int i, int j) {
+            return compare(accounts[i], days[i], txnIds[i], ordinals[i],
+                    accounts[j], days[j], txnIds[j], ordinals[j]) < 0;
+        }
+
+        // Opens the oldest runs; their files are deleted once the readers are exhausted
+        private List<RunReader> open(int fanIn) throws IOException {
+            List<RunReader> readers = new ArrayList<>(fanIn);
+            try {
+                for (int i = 0; i < fanIn; i++) readers.add(new RunReader(runs.pollFirst()));
+            } catch (IOException e) {
+                for (RunReader reader : readers) reader.close();
+                throw e;
+            }
+            return readers;
+        }
+
+        private void merge(List<RunReader> readers, LineSink sink) throws IOException {
+            PriorityQueue<RunReader> queue = new PriorityQueue<>(readers.size(), (a, b) ->
+                    compare(a.account, a.day, a.txnId, a.ordinal, b.account, b.day, b.txnId, b.ordinal));
+            try {
+                for (RunReader reader : readers) {
+                    if (reader.advance()) queue.add(reader);
+                }
+                while (!queue.isEmpty()) {
+                    RunReader head = queue.poll();
+                    sink.accept(head);
+                    if (head.advance()) queue.add(head);
+                }
+            } finally {
+                for (RunReader reader : readers) reader.close();
+            }
+        }
+
+        private Path newRunFile() throws IOException {
+            if (dir == null) {
+                dir = spillDir == null ? Files.createTempDirectory("ledger-export")
+                        : Files.createTempDirectory(spillDir, "ledger-export");
+            }
+            return dir.resolve("run-" + (runNumber++) + ".bin");
+        }
+
+        private DataOutputStream output(Path file) throws IOException {
+            return new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), IO_BUFFER_BYTES));
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (dir == null) return;
+            for (Path run : runs) Files.deleteIfExists(run);
+            runs.clear();
+            try (Stream<Path> files = Files.list(dir)) { // a run file left half-written by a failure
+                for (Path file : (Iterable<Path>) files::iterator) Files.deleteIfExists(file);
+            }
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    private interface LineSink {
+        void accept(RunReader line) throws IOException;
+    }
+
+    /**
+     * Sequential reader over one sorted run file, holding its current line.
+     * Record: account, epoch day, journal ordinal, amount, debit flag, transaction id.
+     */
+    private static final class RunReader implements Closeable {
+        private final Path file;
+        private final DataInputStream in;
+        private int remaining;
+
+        int account;
+        int day;
+        long ordinal;
+        long amount;
+        boolean debit;
+        String txnId;
+
+        RunReader(Path file) throws IOException {
+            this.file = file;
+            this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), IO_BUFFER_BYTES));
+            this.remaining = in.readInt();
+        }
+
+        boolean advance() throws IOException {
+            if (remaining == 0) return false;
+            remaining--;
+            account = in.readInt();
+            day = in.readInt();
+            ordinal = in.readLong();
+            amount = in.readLong();
+            debit = in.readBoolean();
+            txnId = in.readBoolean() ? in.readUTF() : null;
+            return true;
+        }
+
+        // Re-spills the current line during an intermediate merge pass (count written up front)
+        void writeTo(DataOutputStream out) throws IOException {
+            write(out, account, day, txnId, ordinal, amount, debit);
+        }
+
+        static void write(DataOutputStream out, int account, int day, String txnId,
+                          long ordinal, long amount, boolean debit) throws IOException {
+            out.writeInt(account);
+            out.writeInt(day);
+            out.writeLong(ordinal);
+            out.writeLong(amount);
+            out.writeBoolean(debit);
+            out.writeBoolean(txnId != null);
+            if (txnId != null) out.writeUTF(txnId);
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /** Lines in ledger order → account blocks with running balances and totals. */
+    private static final class LedgerWriter {
+        private final TextSink out;
+        private int account = -1;
+        private long balance;
+        private long totalDebit;
+        private long totalCredit;
+        private long lines;
+
+        LedgerWriter(TextSink out) {
+            this.out = out;
+        }
+
+        void line(int accountId, int day, long amount, boolean debit) {
+            if (accountId != account) {
+                if (account >= 0) GeneralLedger.writeTotals(totalDebit, totalCredit, balance, out);
+                else GeneralLedger.writeTitle(out);
+                GeneralLedger.writeAccountHeader(AccountRegistry.displayName(accountId), out);
+                account = accountId;
+                balance = totalDebit = totalCredit = 0L;
+            }
+            long debitAmount = debit ? amount : 0L;
+            long creditAmount = debit ? 0L : amount;
+            balance += debitAmount - creditAmount;
+            totalDebit += debitAmount;
+            totalCredit += creditAmount;
+            GeneralLedger.writeRow(day == JournalStore.NO_DATE ? null : LocalDate.ofEpochDay(day),
+                    debitAmount, creditAmount, balance, out);
+            lines++;
+        }
+
+        long finish() {
+            if (account >= 0) GeneralLedger.writeTotals(totalDebit, totalCredit, balance, out);
+            else out.println("📭 General Ledger is empty.");
+            return lines;
+        }
+    }
+}
@@ -1,42 +1,65 @@
 package services;
 
+import metrics.Metrics;
 import model.JournalEntry;
+import model.Money;
+import utils.InputValidator;
+import utils.TextSink;
+
 import java.util.List;
 
 /**
  * TrialBalanceCalculator implements BalanceCalculator interface.
  * It calculates and displays total debit and credit for approved entries,
  * and checks whether the journal is balanced.
+ * Totals are kept in minor units (cents) so the balanced check is exact.
  */
 public class TrialBalanceCalculator implements BalanceCalculator {
-    private double debitTotal;
-    private double creditTotal;
+    private static final Metrics.Operation CALCULATE = Metrics.operation("trial_balance.calculate");
+
+    private long debitTotal;
+    private long creditTotal;
 
     // 🔢 Calculate total debit and credit for approved entries
     @Override
     public void calculate(List<JournalEntry> entries) {
-        debitTotal = 0.0;
-        creditTotal = 0.0;
+        debitTotal = 0L;
+        creditTotal = 0L;
 
-        for (JournalEntry entry : entries) {
-            if ("approved".equalsIgnoreCase(entry.getStatus())) {
-                debitTotal += entry.getDebitTransaction().getAmount();
-                creditTotal += entry.getCreditTransaction().getAmount();
+        try (Metrics.Timer timer = CALCULATE.start()) {
+            for (JournalEntry entry : entries) {
+                if (InputValidator.isApproved(entry.getStatus())) {
+                    int lines = entry.getLineCount();
+                    int debitLines = entry.getDebitLineCount();
+                    for (int i = 0; i < lines; i++) {
+                        if (i < debitLines) debitTotal += entry.getLineAmountMinor(i);
+                        else creditTotal += entry.getLineAmountMinor(i);
+                    }
+                }
             }
+            timer.entries(entries.size());
         }
     }
 
+    // 📥 Load totals computed elsewhere (e.g. by the single-pass ReportEngine)
+    void load(long debitTotalMinor, long creditTotalMinor) {
+        debitTotal = debitTotalMinor;
+        creditTotal = creditTotalMinor;
+    }
+
     // 📊 Display the results of the trial balance
     @Override
     public void displayResult() {
-        System.out.printf("Total Debit  : %.2f%n", debitTotal);
-        System.out.printf("Total Credit : %.2f%n", creditTotal);
+        TextSink out = TextSink.console();
+        out.append("Total Debit  : ").amount(debitTotal).newLine();
+        out.append("Total Credit : ").amount(creditTotal).newLine();
 
         if (isBalanced()) {
-            System.out.println("✅ Balanced.");
+            out.println("✅ Balanced.");
         } else {
-            System.out.printf("❌ Not balanced. Difference: %.2f%n", getDifference());
+            out.append("❌ Not balanced. Difference: ").amount(Math.abs(debitTotal - creditTotal)).newLine();
         }
+        out.flush();
     }
 
     // ✅ Check if totals are equal
@@ -45,8 +68,16 @@ public class TrialBalanceCalculator implements BalanceCalculator {
         return debitTotal == creditTotal;
     }
 
+    public long getDebitTotalMinor() {
+        return debitTotal;
+    }
+
+    public long getCreditTotalMinor() {
+        return creditTotal;
+    }
+
     // 🔁 Calculate the difference between totals
     public double getDifference() {
-        return Math.abs(debitTotal - creditTotal);
+        return Money.toDouble(Math.abs(debitTotal - creditTotal));
     }
 }
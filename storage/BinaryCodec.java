@@ -0,0 +1,481 @@
+package storage;
+
+import model.AccountRegistry;
+import model.BalanceSheet;
+import model.CreditTransaction;
+import model.DebitTransaction;
+import model.IncomeStatement;
+import model.JournalEntry;
+import model.Money;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 📦 Compact binary codec for journal entries and reports, for shipping them
+ * between processes or to disk.
+ *
+ * A stream starts with a header ({@code int MAGIC | byte VERSION}) followed by
+ * records, each a type byte and its fields:
+ * <pre>
+ * Entry:            flags | txnId | date | createdBy | status
+ *                   [debitAccount | debitAmount] [creditAccount | creditAmount - debitAmount]
+ *                   or, for a compound entry (version 2):
+ *                   lineCount | debitLines | lineCount × (account | amount)
+ * Income statement: from | to | revenues | expenses | totalRevenues | totalExpenses | netIncome | ignored
+ * Balance sheet:    asOf | assets | liabilities | equity | totalAssets | totalLiabilities | totalEquity
+ * </pre>
+ * Integers are LEB128 varints (signed values zigzag-encoded), so a date is its
+ * epoch day in 3 bytes and an amount its minor units in 1-9 bytes. Account,
+ * creator and status values go through a per-stream dictionary: the first use
+ * writes the string, later uses a small id. Transaction ids are written as
+ * length-prefixed UTF-8. Report amounts keep their exact BigDecimal value
+ * (unscaled value + scale); maps keep their order.
+ *
+ * {@link Encoder} and {@link Decoder} carry the dictionary, so a stream must
+ * be decoded in order by one decoder. Both are stateful and not thread-safe.
+ * The encoder never splits a record across buffers; reading a record cut
+ * off at the end of a buffer throws {@link BufferUnderflowException}.
+ */
+public final class BinaryCodec {
+
+    public static final int MAGIC = 0x55414331; // "UAC1"
+    public static final byte VERSION = 2;
+    public static final byte MIN_VERSION = 1;
+    public static final int HEADER_BYTES = 5;
+
+    public static final byte TYPE_ENTRY = 1;
+    public static final byte TYPE_INCOME_STATEMENT = 2;
+    public static final byte TYPE_BALANCE_SHEET = 3;
+
+    private static final int HAS_DEBIT = 1;
+    private static final int HAS_CREDIT = 2;
+    private static final int HAS_LINES = 4;
+
+    // Dictionary references: 0 = null, 1 = new value follows, n >= 2 = id n - 2
+    private static final int REF_NULL = 0;
+    private static final int REF_NEW = 1;
+
+    // Decimal tags
+    private static final int DECIMAL_NULL = 0;
+    private static final int DECIMAL_MINOR = 1;   // default scale, unscaled value as a varint
+    private static final int DECIMAL_SCALED = 2;  // explicit scale, unscaled value as a varint
+    private static final int DECIMAL_BIG = 3;     // explicit scale, unscaled value as two's-complement bytes
+
+    private BinaryCodec() {
+    }
+
+    /* ---------------- Encoding ---------------- */
+
+    /**
+     * Writes records to ByteBuffers. Each {@code write} either writes the whole
+     * record and returns true, or leaves the buffer (and the dictionary)
+     * unchanged and returns false when the record does not fit; the caller
+     * then drains the buffer and writes the record again.
+     */
+    public static final class Encoder {
+        private final Map<String, Integer> dictionary = new HashMap<>();
+        private final List<String> added = new ArrayList<>(); // in id order, for rollback
+
+        /** Stream header; write it once before the first record. */
+        public boolean writeHeader(ByteBuffer buf) {
+            if (buf.remaining() < HEADER_BYTES) return false;
+            buf.putInt(MAGIC).put(VERSION);
+            return true;
+        }
+
+        public boolean write(JournalEntry entry, ByteBuffer buf) {
+            int mark = buf.position();
+            int dictionarySize = added.size();
+            try {
+                if (entry.isCompound()) {
+                    writeCompound(entry, buf);
+                    return true;
+                }
+                DebitTransaction debit = entry.getDebitTransaction();
+                CreditTransaction credit = entry.getCreditTransaction();
+                buf.put(TYPE_ENTRY);
+                putVarInt(buf, (debit != null ? HAS_DEBIT : 0) | (credit != null ? HAS_CREDIT : 0));
+                putString(buf, entry.getTransactionID());
+                putDate(buf, entry.getDate());
+                putRef(buf, entry.getCreatedBy());
+                putRef(buf, entry.getStatus());
+                long debitMinor = 0;
+                if (debit != null) {
+                    debitMinor = debit.getAmountMinor();
+                    putRef(buf, debit.getAccountName());
+                    putVarLong(buf, zigzag(debitMinor));
+                }
+                if (credit != null) {
+                    putRef(buf, credit.getAccountName());
+                    putVarLong(buf, zigzag(credit.getAmountMinor() - debitMinor)); // usually 0: one byte
+                }
+                return true;
+            } catch (BufferOverflowException e) {
+                rollback(buf, mark, dictionarySize);
+                return false;
+            }
+        }
+
+        public boolean write(IncomeStatement is, ByteBuffer buf) {
+            int mark = buf.position();
+            int dictionarySize = added.size();
+            try {
+                buf.put(TYPE_INCOME_STATEMENT);
+                putDate(buf, is.getFrom());
+                putDate(buf, is.getTo());
+                putAmounts(buf, is.getRevenues());
+                putAmounts(buf, is.getExpenses());
+                putDecimal(buf, is.getTotalRevenues());
+                putDecimal(buf, is.getTotalExpenses());
+                putDecimal(buf, is.getNetIncome());
+                putVarInt(buf, is.getIgnoredAccounts().size());
+                for (String account : is.getIgnoredAccounts()) putRef(buf, account);
+                return true;
+            } catch (BufferOverflowException e) {
+                rollback(buf, mark, dictionarySize);
+                return false;
+            }
+        }
+
+        public boolean write(BalanceSheet bs, ByteBuffer buf) {
+            int mark = buf.position();
+            int dictionarySize = added.size();
+            try {
+                buf.put(TYPE_BALANCE_SHEET);
+                putDate(buf, bs.getAsOf());
+                putAmounts(buf, bs.getAssets());
+                putAmounts(buf, bs.getLiabilities());
+                putAmounts(buf, bs.getEquity());
+                putDecimal(buf, bs.getTotalAssets());
+                putDecimal(buf, bs.getTotalLiabilities());
+                putDecimal(buf, bs.getTotalEquity());
+                return true;
+            } catch (BufferOverflowException e) {
+                rollback(buf, mark, dictionarySize);
+                return false;
+            }
+        }
+
+        private void writeCompound(JournalEntry entry, ByteBuffer buf) {
+            buf.put(TYPE_ENTRY);
+            putVarInt(buf, HAS_LINES);
+            putString(buf, entry.getTransactionID());
+            putDate(buf, entry.getDate());
+            putRef(buf, entry.getCreatedBy());
+            putRef(buf, entry.getStatus());
+            int lines = entry.getLineCount();
+            putVarInt(buf, lines);
+            putVarInt(buf, entry.getDebitLineCount());
+            for (int i = 0; i < lines; i++) {
+                putRef(buf, entry.getLineAccountName(i));
+                putVarLong(buf, zigzag(entry.getLineAmountMinor(i)));
+            }
+        }
+
+        private void putRef(ByteBuffer buf, String value) {
+            if (value == null) {
+                putVarInt(buf, REF_NULL);
+                return;
+            }
+            Integer id = dictionary.get(value);
+            if (id != null) {
+                putVarInt(buf, id + 2);
+                return;
+            }
+            putVarInt(buf, REF_NEW);
+            putString(buf, value);
+            dictionary.put(value, added.size());
+            added.add(value);
+        }
+
+        private void putAmounts(ByteBuffer buf, Map<String, BigDecimal> amounts) {
+            putVarInt(buf, amounts.size());
+            for (Map.Entry<String, BigDecimal> e : amounts.entrySet()) {
+                putRef(buf, e.getKey());
+                putDecimal(buf, e.getValue());
+            }
+        }
+
+        // Forget dictionary values first written by the record that did not fit
+        private void rollback(ByteBuffer buf, int mark, int dictionarySize) {
+            buf.position(mark);
+            while (added.size() > dictionarySize) dictionary.remove(added.remove(added.size() - 1));
+        }
+    }
+
+    /* ---------------- Decoding ---------------- */
+
+    /** Reads records written by an {@link Encoder}, in the same order. */
+    public static final class Decoder {
+        private final List<String> dictionary = new ArrayList<>();
+        private byte[] scratch = new byte[64];
+
+        /** Checks the stream header. */
+        public void readHeader(ByteBuffer buf) throws IOException {
+            if (buf.remaining() < HEADER_BYTES) throw new IOException("Not a codec stream (too short).");
+            if (buf.getInt() != MAGIC) throw new IOException("Not a codec stream (bad magic).");
+            byte version = buf.get();
+            if (version < MIN_VERSION || version > VERSION) throw new IOException("Unsupported codec version " + version + ".");
+        }
+
+        /** Type of the next record without consuming it, or -1 at the end of the buffer. */
+        public int nextType(ByteBuffer buf) {
+            return buf.hasRemaining() ? buf.get(buf.position()) : -1;
+        }
+
+        public JournalEntry readEntry(ByteBuffer buf) throws IOException {
+            expect(buf, TYPE_ENTRY);
+            int flags = getVarInt(buf);
+            String transactionId = getString(buf);
+            LocalDate date = getDate(buf);
+            String createdBy = getRef(buf);
+            String status = getRef(buf);
+            if ((flags & HAS_LINES) != 0) {
+                int lines = getVarInt(buf);
+                int debitLines = getVarInt(buf);
+                int[] accountIds = new int[lines];
+                long[] amounts = new long[lines];
+                for (int i = 0; i < lines; i++) {
+                    accountIds[i] = AccountRegistry.register(getRef(buf));
+                    amounts[i] = unzigzag(getVarLong(buf));
+                }
+                try {
+                    return JournalEntry.ofLines(transactionId, date, accountIds, amounts, debitLines, createdBy, status);
+                } catch (IllegalArgumentException e) {
+                    throw new IOException("Corrupt codec stream: " + e.getMessage(), e);
+                }
+            }
+            DebitTransaction debit = null;
+            CreditTransaction credit = null;
+            long debitMinor = 0;
+            if ((flags & HAS_DEBIT) != 0) {
+                String account = getRef(buf);
+                debitMinor = unzigzag(getVarLong(buf));
+                debit = DebitTransaction.ofMinor(account, debitMinor);
+            }
+            if ((flags & HAS_CREDIT) != 0) {
+                String account = getRef(buf);
+                credit = CreditTransaction.ofMinor(account, debitMinor + unzigzag(getVarLong(buf)));
+            }
+            return new JournalEntry(transactionId, date, debit, credit, createdBy, status);
+        }
+
+        public IncomeStatement readIncomeStatement(ByteBuffer buf) throws IOException {
+            expect(buf, TYPE_INCOME_STATEMENT);
+            LocalDate from = getDate(buf);
+            LocalDate to = getDate(buf);
+            Map<String, BigDecimal> revenues = getAmounts(buf);
+            Map<String, BigDecimal> expenses = getAmounts(buf);
+            BigDecimal totalRevenues = getDecimal(buf);
+            BigDecimal totalExpenses = getDecimal(buf);
+            BigDecimal netIncome = getDecimal(buf);
+            int ignoredCount = getVarInt(buf);
+            List<String> ignored = new ArrayList<>(ignoredCount);
+            for (int i = 0; i < ignoredCount; i++) ignored.add(getRef(buf));
+            return new IncomeStatement(from, to, revenues, expenses, totalRevenues, totalExpenses, netIncome, ignored);
+        }
+
+        public BalanceSheet readBalanceSheet(ByteBuffer buf) throws IOException {
+            expect(buf, TYPE_BALANCE_SHEET);
+            LocalDate asOf = getDate(buf);
+            Map<String, BigDecimal> assets = getAmounts(buf);
+            Map<String, BigDecimal> liabilities = getAmounts(buf);
+            Map<String, BigDecimal> equity = getAmounts(buf);
+            return new BalanceSheet(asOf, assets, liabilities, equity,
+                    getDecimal(buf), getDecimal(buf), getDecimal(buf));
+        }
+
+        private void expect(ByteBuffer buf, byte type) throws IOException {
+            byte actual = buf.get();
+            if (actual != type) {
+                throw new IOException("Corrupt codec stream: expected record type " + type + " but found " + actual
+                        + " at offset " + (buf.position() - 1));
+            }
+        }
+
+        private String getRef(ByteBuffer buf) throws IOException {
+            int ref = getVarInt(buf);
+            if (ref == REF_NULL) return null;
+            if (ref == REF_NEW) {
+                String value = getString(buf);
+                dictionary.add(value);
+                return value;
+            }
+            if (ref - 2 >= dictionary.size()) throw new IOException("Corrupt codec stream: unknown dictionary id " + (ref - 2));
+            return dictionary.get(ref - 2);
+        }
+
+        private Map<String, BigDecimal> getAmounts(ByteBuffer buf) throws IOException {
+            int count = getVarInt(buf);
+            Map<String, BigDecimal> amounts = new LinkedHashMap<>();
+            for (int i = 0; i < count; i++) {
+                String key = getRef(buf);
+                amounts.put(key, getDecimal(buf));
+            }
+            return amounts;
+        }
+
+        private String getString(ByteBuffer buf) throws IOException {
+            int length = getVarInt(buf) - 1;
+            if (length < 0) return null;
+            if (length > buf.remaining()) throw new BufferUnderflowException();
+            if (buf.hasArray()) {
+                int offset = buf.arrayOffset() + buf.position();
+                buf.position(buf.position() + length);
+                return new String(buf.array(), offset, length, StandardCharsets.UTF_8);
+            }
+            if (scratch.length < length) scratch = new byte[Math.max(length, scratch.length * 2)];
+            buf.get(scratch, 0, length);
+            return new String(scratch, 0, length, StandardCharsets.UTF_8);
+        }
+    }
+
+    /* ---------------- Field encodings ---------------- */
+
+    // Length + 1 (0 = null), then UTF-8 bytes encoded straight into the buffer
+    static void putString(ByteBuffer buf, String s) {
+        if (s == null) {
+            putVarInt(buf, 0);
+            return;
+        }
+        int length = s.length();
+        int utf8 = 0;
+        for (int i = 0; i < length; i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) utf8 += 1;
+            else if (c < 0x800) utf8 += 2;
+            else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(s.charAt(i + 1))) {
+                utf8 += 4;
+                i++;
+            } else utf8 += 3;
+        }
+        if (utf8 == length) {
+            putVarInt(buf, length + 1);
+            if (buf.remaining() < length) throw new BufferOverflowException();
+            for (int i = 0; i < length; i++) buf.put((byte) s.charAt(i));
+        } else {
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8); // non-ASCII: rare, let the JDK encode it
+            putVarInt(buf, bytes.length + 1);
+            buf.put(bytes);
+        }
+    }
+
+    // Epoch day, zigzag-encoded, + 1 (0 = null)
+    static void putDate(ByteBuffer buf, LocalDate date) {
+        putVarLong(buf, date == null ? 0 : zigzag(date.toEpochDay()) + 1);
+    }
+
+    static LocalDate getDate(ByteBuffer buf) throws IOException {
+        long v = getVarLong(buf);
+        return v == 0 ? null : LocalDate.ofEpochDay(unzigzag(v - 1));
+    }
+
+    static void putDecimal(ByteBuffer buf, BigDecimal value) {
+        if (value == null) {
+            putVarInt(buf, DECIMAL_NULL);
+        } else if (value.precision() <= 18) {
+            long unscaled = value.unscaledValue().longValue();
+            if (value.scale() == Money.DEFAULT_SCALE) {
+                putVarInt(buf, DECIMAL_MINOR);
+            } else {
+                putVarInt(buf, DECIMAL_SCALED);
+                putVarInt(buf, zigzag(value.scale()));
+            }
+            putVarLong(buf, zigzag(unscaled));
+        } else {
+            byte[] bytes = value.unscaledValue().toByteArray();
+            putVarInt(buf, DECIMAL_BIG);
+            putVarInt(buf, zigzag(value.scale()));
+            putVarInt(buf, bytes.length);
+            buf.put(bytes);
+        }
+    }
+
+    static BigDecimal getDecimal(ByteBuffer buf) throws IOException {
+        int tag = getVarInt(buf);
+        switch (tag) {
+            case DECIMAL_NULL:
+                return null;
+            case DECIMAL_MINOR:
+                return BigDecimal.valueOf(unzigzag(getVarLong(buf)), Money.DEFAULT_SCALE);
+            case DECIMAL_SCALED: {
+                int scale = unzigzag(getVarInt(buf));
+                return BigDecimal.valueOf(unzigzag(getVarLong(buf)), scale);
+            }
+            case DECIMAL_BIG: {
+                int scale = unzigzag(getVarInt(buf));
+                byte[] bytes = new byte[getVarInt(buf)];
+                buf.get(bytes);
+                return new BigDecimal(new BigInteger(bytes), scale);
+            }
+            default:
+                throw new IOException("Corrupt codec stream: unknown decimal tag " + tag);
+        }
+    }
+
+    /* ---------------- Varints ---------------- */
+
+    static void putVarInt(ByteBuffer buf, int value) {
+        while ((value & ~0x7F) != 0) {
+            buf.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buf.put((byte) value);
+    }
+
+    static void putVarLong(ByteBuffer buf, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buf.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buf.put((byte) value);
+    }
+
+    static int getVarInt(ByteBuffer buf) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = buf.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) return value;
+        }
+        throw new IOException("Corrupt codec stream: varint too long");
+    }
+
+    static long getVarLong(ByteBuffer buf) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 70; shift += 7) {
+            byte b = buf.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) return value;
+        }
+        throw new IOException("Corrupt codec stream: varint too long");
+    }
+
+    static int zigzag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static int unzigzag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,311 @@
+package storage;
+
+import manager.UnifiedJournalManager;
+import metrics.Metrics;
+import model.CreditTransaction;
+import model.DebitTransaction;
+import model.JournalEntry;
+import model.Money;
+import utils.InputValidator;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * 📥 Streaming bulk importer for delimited journal files (CSV / TSV).
+ *
+ * Expected columns (a header line is detected and skipped):
+ * <pre>transactionId, date (YYYY-MM-DD), debitAccount, creditAccount, amount, createdBy, status</pre>
+ *
+ * The file is read in chunks of {@link #CHUNK_LINES} lines; each chunk is
+ * parsed in parallel, then appended to the manager in file order. Dates and
+ * plain decimal amounts are parsed by hand (no LocalDate.parse /
+ * Double.parseDouble), the amount straight into minor units; other numeric
+ * forms the console accepts ("1e5", "-0", long integer parts) go through
+ * BigDecimal. Every row goes through the same rules as InputValidator; bad
+ * rows are reported in the result (line number and reason, the first
+ * {@link #MAX_REJECTED_KEPT} kept, the rest only counted) instead of
+ * aborting the import.
+ */
+public class JournalImporter {
+
+    static final int CHUNK_LINES = 50_000;
+    /** Rejected rows kept in the result; later ones are only counted, so a bad file can't fill the heap. */
+    public static final int MAX_REJECTED_KEPT = 1_000;
+    private static final int COLUMNS = 7;
+    private static final Metrics.Operation IMPORT = Metrics.operation("journal.import");
+
+    private final char delimiter;
+
+    public JournalImporter(char delimiter) {
+        this.delimiter = delimiter;
+    }
+
+    /** Picks the delimiter from the file extension: tab for .tsv, comma otherwise. */
+    public static JournalImporter forPath(Path path) {
+        return new JournalImporter(path.toString().toLowerCase().endsWith(".tsv") ? '\t' : ',');
+    }
+
+    public ImportResult importFile(Path path, UnifiedJournalManager manager) throws IOException {
+        try (Reader reader = new InputStreamReader(Files.newInputStream(path), StandardCharsets.UTF_8)) {
+            return importFrom(reader, manager);
+        }
+    }
+
+    public ImportResult importFrom(Reader source, UnifiedJournalManager manager) throws IOException {
+        long start = System.nanoTime();
+        ImportResult result = new ImportResult();
+        BufferedReader reader = new BufferedReader(source, 1 << 20);
+
+        List<String> chunk = new ArrayList<>(CHUNK_LINES);
+        long firstLineNumber = 1;
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (lineNumber == 1 && isHeader(line)) {
+                firstLineNumber = 2;
+                continue;
+            }
+            chunk.add(line);
+            if (chunk.size() == CHUNK_LINES) {
+                processChunk(chunk, firstLineNumber, manager, result);
+                firstLineNumber = lineNumber + 1;
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) processChunk(chunk, firstLineNumber, manager, result);
+
+        result.elapsedNanos = System.nanoTime() - start;
+        IMPORT.record(result.elapsedNanos, result.getImported());
+        return result;
+    }
+
+    /* ---------------- chunk processing ---------------- */
+
+    private void processChunk(List<String> lines, long firstLineNumber,
+                              UnifiedJournalManager manager, ImportResult result) {
+        int n = lines.size();
+        JournalEntry[] parsed = new JournalEntry[n];
+        String[] errors = new String[n];
+
+        // Parse in parallel: each index writes only its own slot
+        IntStream.range(0, n).parallel().forEach(i -> {
+            try {
+                parsed[i] = parseRow(lines.get(i));
+            } catch (IllegalArgumentException e) {
+                errors[i] = e.getMessage();
+            }
+        });
+
+        // Append in file order
+        List<JournalEntry> batch = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            if (parsed[i] != null) {
+                batch.add(parsed[i]);
+            } else if (!lines.get(i).isBlank()) {
+                result.reject(firstLineNumber + i, errors[i]);
+            }
+        }
+        manager.addEntries(batch);
+        result.imported += batch.size();
+    }
+
+    /** Parses and validates one row; throws IllegalArgumentException with the reason if rejected. */
+    JournalEntry parseRow(String line) {
+        if (line.isBlank()) return null;
+        List<String> f = split(line);
+        if (f.size() != COLUMNS) {
+            throw new IllegalArgumentException("Expected " + COLUMNS + " columns but found " + f.size() + ".");
+        }
+
+        String transactionId = f.get(0);
+        LocalDate date = parseDate(f.get(1));
+        String debitAccount = f.get(2);
+        String creditAccount = f.get(3);
+        long amountMinor = parseAmountMinor(f.get(4));
+        String createdBy = f.get(5);
+        String status = f.get(6);
+
+        if (!InputValidator.isValidDate(date)) throw new IllegalArgumentException("Date cannot be in the future.");
+        if (!InputValidator.isValidAccount(debitAccount)) throw new IllegalArgumentException("Invalid debit account name.");
+        if (!InputValidator.isValidAccount(creditAccount)) throw new IllegalArgumentException("Invalid credit account name.");
+        if (!InputValidator.isValidAmountMinor(amountMinor)) throw new IllegalArgumentException("Amount must be > 0.");
+        if (!InputValidator.isValidAccount(createdBy)) throw new IllegalArgumentException("Invalid creator name.");
+        if (!InputValidator.isValidStatus(status)) throw new IllegalArgumentException("Invalid status: " + status);
+
+        return new JournalEntry(transactionId, date,
+                DebitTransaction.ofMinor(debitAccount, amountMinor),
+                CreditTransaction.ofMinor(creditAccount, amountMinor),
+                createdBy, status);
+    }
+
+    // Splits one line on the delimiter; double-quoted fields may contain the delimiter ("" = quote).
+    private List<String> split(String line) {
+        List<String> fields = new ArrayList<>(COLUMNS);
+        int i = 0;
+        int len = line.length();
+        while (true) {
+            String field;
+            if (i < len && line.charAt(i) == '"') {
+                StringBuilder sb = new StringBuilder();
+                i++;
+                while (i < len) {
+                    char c = line.charAt(i++);
+                    if (c == '"') {
+                        if (i < len && line.charAt(i) == '"') {
+                            sb.append('"');
+                            i++;
+                        } else {
+                            break;
+                        }
+                    } else {
+                        sb.append(c);
+                    }
+                }
+                while (i < len && line.charAt(i) != delimiter) i++;
+                field = sb.toString().trim();
+            } else {
+                int end = line.indexOf(delimiter, i);
+                if (end < 0) end = len;
+                field = line.substring(i, end).trim();
+                i = end;
+            }
+            fields.add(field);
+            if (i >= len) break;
+            i++; // skip delimiter
+        }
+        return fields;
+    }
+
+    // Strict YYYY-MM-DD without a DateTimeFormatter.
+    static LocalDate parseDate(String s) {
+        if (s.length() != 10 || s.charAt(4) != '-' || s.charAt(7) != '-') {
+            throw new IllegalArgumentException("Invalid date format (expected YYYY-MM-DD): " + s);
+        }
+        int year = digits(s, 0, 4);
+        int month = digits(s, 5, 7);
+        int day = digits(s, 8, 10);
+        if (year < 0 || month < 0 || day < 0) {
+            throw new IllegalArgumentException("Invalid date format (expected YYYY-MM-DD): " + s);
+        }
+        try {
+            return LocalDate.of(year, month, day);
+        } catch (DateTimeException e) {
+            throw new IllegalArgumentException("Invalid date: " + s);
+        }
+    }
+
+    /**
+     * Parses an amount into cents, rounding HALF_UP: plain decimals ("1234", "12.5", "0.125")
+     * on the fast path, any other BigDecimal form ("1e5", "-0", "1.5E+3") through BigDecimal.
+     */
+    static long parseAmountMinor(String s) {
+        if (s.isEmpty()) throw new IllegalArgumentException("Amount is missing.");
+        long minor = parsePlainMinor(s);
+        if (minor >= 0) return minor;
+        BigDecimal amount;
+        try {
+            amount = new BigDecimal(s);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid amount: " + s);
+        }
+        return Money.toMinor(amount);
+    }
+
+    // Plain decimal ([+]digits[.digits], up to 15 integer digits) in cents, or -1 for any other form.
+    private static long parsePlainMinor(String s) {
+        int len = s.length();
+        int i = (s.charAt(0) == '+') ? 1 : 0;
+        long units = 0;
+        int intDigits = 0;
+        for (; i < len && s.charAt(i) != '.'; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9' || ++intDigits > 15) return -1;
+            units = units * 10 + (c - '0');
+        }
+        long cents = 0;
+        int fracDigits = 0;
+        boolean roundUp = false;
+        if (i < len) {
+            for (i++; i < len; i++) {
+                char c = s.charAt(i);
+                if (c < '0' || c > '9') return -1;
+                if (fracDigits < 2) cents = cents * 10 + (c - '0');
+                else if (fracDigits == 2) roundUp = c >= '5';
+                fracDigits++;
+            }
+        }
+        if (intDigits == 0 && fracDigits == 0) return -1;
+        for (int d = Math.min(fracDigits, 2); d < 2; d++) cents *= 10;
+        return units * 100 + cents + (roundUp ? 1 : 0);
+    }
+
+    private static int digits(String s, int from, int to) {
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') return -1;
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    // A first line whose date column does not start with a digit is a header.
+    private boolean isHeader(String line) {
+        List<String> f = split(line);
+        return f.size() > 1 && (f.get(1).isEmpty() || !Character.isDigit(f.get(1).charAt(0)));
+    }
+
+    /* ---------------- results ---------------- */
+
+    /** One row that failed parsing or validation (the row's text is not kept). */
+    public static class RejectedRow {
+        private final long lineNumber;
+        private final String reason;
+
+        RejectedRow(long lineNumber, String reason) {
+            this.lineNumber = lineNumber;
+            this.reason = reason;
+        }
+
+        public long getLineNumber() { return lineNumber; }
+        public String getReason() { return reason; }
+    }
+
+    /** Outcome of one import: counts, the first rejected rows and throughput. */
+    public static class ImportResult {
+        private long imported;
+        private long rejectedCount;
+        private final List<RejectedRow> rejected = new ArrayList<>();
+        private long elapsedNanos;
+
+        public long getImported() { return imported; }
+        /** All rejected rows, including the ones beyond {@link #MAX_REJECTED_KEPT}. */
+        public long getRejectedCount() { return rejectedCount; }
+        /** The first {@link #MAX_REJECTED_KEPT} rejected rows, in file order. */
+        public List<RejectedRow> getRejected() { return rejected; }
+        public long getElapsedNanos() { return elapsedNanos; }
+
+        /** Rows (imported + rejected) processed per second. */
+        public double getRowsPerSecond() {
+            if (elapsedNanos <= 0) return 0.0;
+            return (imported + rejectedCount) * 1_000_000_000.0 / elapsedNanos;
+        }
+
+        private void reject(long lineNumber, String reason) {
+            if (rejectedCount++ < MAX_REJECTED_KEPT) rejected.add(new RejectedRow(lineNumber, reason));
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package storage;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 💾 Binary layout of an append-only journal segment file.
+ *
+ * <pre>
+ * File header (8 bytes):  int MAGIC | short VERSION | short reserved
+ *
+ * Dictionary record:      byte TYPE_DICT | byte kind | int id | short length | UTF-8 bytes
+ *                         (kind = KIND_ACCOUNT / KIND_CREATOR / KIND_STATUS)
+ *
+ * Entry record:           byte TYPE_ENTRY
+ *   fixed-width header    int epochDay | int debitAccount | int creditAccount | int creator
+ *                         | byte status | long amountMinor | short txnIdLength
+ *   variable tail         UTF-8 transaction id bytes
+ *
+ * Compound entry record:  byte TYPE_COMPOUND            (version 2)
+ *   fixed-width header    int epochDay | int creator | byte status
+ *                         | short lineCount | short debitLines | short txnIdLength
+ *   lines                 lineCount × (int account | long amountMinor), debit lines first
+ *   variable tail         UTF-8 transaction id bytes
+ * </pre>
+ *
+ * Account, creator and status values are written once as dictionary records
+ * (ids are local to the file) and entries refer to them by id, so the common
+ * record is a fixed 28-byte header plus the transaction id.
+ * Missing values use {@link #NONE} (ids / length) and {@link #NO_DATE}.
+ * Version 1 files (no compound records) are read as they are and upgraded
+ * to version 2 when opened for appending.
+ */
+public final class JournalSegment {
+
+    public static final int MAGIC = 0x55414A31; // "UAJ1"
+    public static final short VERSION = 2;
+    public static final short MIN_VERSION = 1;
+    public static final int FILE_HEADER_BYTES = 8;
+
+    public static final byte TYPE_DICT = 1;
+    public static final byte TYPE_ENTRY = 2;
+    public static final byte TYPE_COMPOUND = 3;
+
+    public static final byte KIND_ACCOUNT = 0;
+    public static final byte KIND_CREATOR = 1;
+    public static final byte KIND_STATUS = 2;
+
+    /** type + kind + id + length (string bytes follow). */
+    public static final int DICT_HEADER_BYTES = 1 + 1 + 4 + 2;
+    /** type + epochDay + debit + credit + creator + status + amount + txnIdLength (txn id bytes follow). */
+    public static final int ENTRY_HEADER_BYTES = 1 + 4 + 4 + 4 + 4 + 1 + 8 + 2;
+
+    /** type + epochDay + creator + status + lineCount + debitLines + txnIdLength (lines, then txn id bytes follow). */
+    public static final int COMPOUND_HEADER_BYTES = 1 + 4 + 4 + 1 + 2 + 2 + 2;
+    /** account + amount */
+    public static final int LINE_BYTES = 4 + 8;
+    /** Most lines a compound record can carry. */
+    public static final int MAX_LINES = 4096;
+
+    /** Longest string a record can carry (length is an unsigned short; 0xFFFF marks null). */
+    public static final int MAX_STRING_BYTES = 0xFFFE;
+    /** Largest possible record, used to size read windows. */
+    public static final int MAX_RECORD_BYTES = COMPOUND_HEADER_BYTES + MAX_LINES * LINE_BYTES + MAX_STRING_BYTES;
+
+    public static final int NONE = -1;
+    public static final int NO_DATE = Integer.MAX_VALUE;
+    static final int NULL_LENGTH = 0xFFFF;
+
+    private JournalSegment() {
+    }
+
+    static byte[] encode(String s) {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_STRING_BYTES) {
+            throw new IllegalArgumentException("Value too long for journal segment (" + bytes.length + " bytes).");
+        }
+        return bytes;
+    }
+}
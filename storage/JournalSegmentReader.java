@@ -0,0 +1,325 @@
+package storage;
+
+import manager.JournalStore;
+import metrics.Metrics;
+import model.AccountRegistry;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static storage.JournalSegment.*;
+
+/**
+ * 📖 Reads a journal segment through {@link MappedByteBuffer} windows.
+ *
+ * {@link #next()} moves a cursor from entry record to entry record; the
+ * fixed-width fields are read straight from the mapped file, with no
+ * per-record object. Compound entries expose their lines through
+ * {@link #lineCount()}, {@link #lineAccountId(int)} and
+ * {@link #lineAmountMinor(int)}. Dictionary records are absorbed along the way: account
+ * names are registered with AccountRegistry once, so {@link #debitAccountId()}
+ * and {@link #creditAccountId()} return registry ids.
+ *
+ * Files larger than one window are mapped piece by piece. A truncated record
+ * at the end (e.g. after a crash mid-write) simply ends iteration;
+ * {@link #validLength()} reports where the last complete record ended.
+ */
+public class JournalSegmentReader implements Closeable {
+
+    private static final long WINDOW_BYTES = 256L * 1024 * 1024;
+    private static final Metrics.Operation LOAD = Metrics.operation("journal.load");
+
+    private final FileChannel channel;
+    private final long fileSize;
+    private MappedByteBuffer window;
+    private long windowStart;
+    private long validLength;
+
+    // File-local dictionaries (id → value), accounts also mapped to registry ids.
+    private final List<String> accountNames = new ArrayList<>();
+    private int[] accountIds = new int[64];
+    private final List<String> creators = new ArrayList<>();
+    private final List<String> statuses = new ArrayList<>();
+
+    // Current entry record (offset of its fixed header in the window) and its kind
+    private int entryOffset = -1;
+    private boolean compound;
+
+    public JournalSegmentReader(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.fileSize = channel.size();
+        if (fileSize < FILE_HEADER_BYTES) {
+            throw new IOException("Not a journal segment (too short): " + path);
+        }
+        map(0);
+        if (window.getInt(0) != MAGIC) throw new IOException("Not a journal segment (bad magic): " + path);
+        short version = window.getShort(4);
+        if (version < MIN_VERSION || version > VERSION) throw new IOException("Unsupported journal segment version " + version + ": " + path);
+        window.position(FILE_HEADER_BYTES);
+        validLength = FILE_HEADER_BYTES;
+    }
+
+    /**
+     * Loads every entry of a segment straight into a columnar store. The
+     * result also carries the file's dictionaries and valid length, so a
+     * writer can continue the file without reading it again.
+     */
+    public static LoadResult loadInto(Path path, JournalStore store) throws IOException {
+        if (!Files.exists(path)) return new LoadResult(0, 0, 0, List.of(), List.of(), List.of());
+        int count = 0;
+        try (Metrics.Timer timer = LOAD.start();
+             JournalSegmentReader reader = new JournalSegmentReader(path)) {
+            while (reader.next()) {
+                if (reader.isCompound()) {
+                    int lines = reader.lineCount();
+                    int[] accountIds = new int[lines];
+                    long[] amounts = new long[lines];
+                    for (int i = 0; i < lines; i++) {
+                        accountIds[i] = reader.lineAccountId(i);
+                        amounts[i] = reader.lineAmountMinor(i);
+                    }
+                    store.appendCompound(reader.transactionId(), reader.epochDay(), accountIds, amounts,
+                            reader.debitLineCount(), reader.createdBy(), reader.status());
+                } else {
+                    store.append(reader.transactionId(), reader.epochDay(),
+                            reader.debitAccountId(), reader.creditAccountId(), reader.amountMinor(),
+                            reader.createdBy(), reader.status());
+                }
+                count++;
+            }
+            timer.entries(count);
+            return new LoadResult(count, reader.fileSize, reader.validLength(),
+                    reader.accountNames, reader.creators, reader.statuses);
+        }
+    }
+
+    /** Outcome of {@link #loadInto}: entries read, and where a writer can continue the file. */
+    public static final class LoadResult {
+        private final int entries;
+        private final long fileSize;
+        private final long validLength;
+        final List<String> accountNames;
+        final List<String> creators;
+        final List<String> statuses;
+
+        LoadResult(int entries, long fileSize, long validLength,
+                   List<String> accountNames, List<String> creators, List<String> statuses) {
+            this.entries = entries;
+            this.fileSize = fileSize;
+            this.validLength = validLength;
+            this.accountNames = accountNames;
+            this.creators = creators;
+            this.statuses = statuses;
+        }
+
+        public int getEntries() { return entries; }
+        public long getValidLength() { return validLength; }
+
+        /** File size when it was read: a writer only reuses this state if the file still has it. */
+        long getFileSize() { return fileSize; }
+    }
+
+    /**
+     * Advances to the next entry record.
+     * @return false at end of file (or at a truncated trailing record)
+     */
+    public boolean next() throws IOException {
+        while (ensure(1)) {
+            int start = window.position();
+            byte type = window.get(start);
+
+            if (type == TYPE_DICT) {
+                if (!ensure(DICT_HEADER_BYTES)) return false;
+                start = window.position();
+                int length = Short.toUnsignedInt(window.getShort(start + 6));
+                if (!ensure(DICT_HEADER_BYTES + length)) return false;
+                start = window.position();
+                readDictionary(window.get(start + 1), window.getInt(start + 2), readString(start + DICT_HEADER_BYTES, length));
+                advance(DICT_HEADER_BYTES + length);
+            } else if (type == TYPE_ENTRY) {
+                if (!ensure(ENTRY_HEADER_BYTES)) return false;
+                start = window.position();
+                int length = txnIdLength(start);
+                if (!ensure(ENTRY_HEADER_BYTES + length)) return false;
+                entryOffset = window.position();
+                compound = false;
+                advance(ENTRY_HEADER_BYTES + length);
+                return true;
+            } else if (type == TYPE_COMPOUND) {
+                if (!ensure(COMPOUND_HEADER_BYTES)) return false;
+                start = window.position();
+                int recordBytes = COMPOUND_HEADER_BYTES + Short.toUnsignedInt(window.getShort(start + 10)) * LINE_BYTES
+                        + compoundTxnIdLength(start);
+                if (!ensure(recordBytes)) return false;
+                entryOffset = window.position();
+                compound = true;
+                advance(recordBytes);
+                return true;
+            } else {
+                throw new IOException("Corrupt journal segment: unknown record type " + type
+                        + " at offset " + (windowStart + start));
+            }
+        }
+        return false;
+    }
+
+    /* ---------------- Current entry (read from the mapped buffer) ---------------- */
+
+    public int epochDay() {
+        return window.getInt(entryOffset + 1);
+    }
+
+    /** Debit account of a simple entry (NONE for a compound entry: read its lines). */
+    public int debitAccountId() {
+        return compound ? AccountRegistry.NONE : toRegistryId(window.getInt(entryOffset + 5));
+    }
+
+    /** Credit account of a simple entry (NONE for a compound entry: read its lines). */
+    public int creditAccountId() {
+        return compound ? AccountRegistry.NONE : toRegistryId(window.getInt(entryOffset + 9));
+    }
+
+    public String createdBy() {
+        int id = window.getInt(entryOffset + (compound ? 5 : 13));
+        return id == NONE ? null : creators.get(id);
+    }
+
+    public String status() {
+        int id = window.get(entryOffset + (compound ? 9 : 17));
+        return id == NONE ? null : statuses.get(id);
+    }
+
+    /** Entry amount (the debit total of a compound entry). */
+    public long amountMinor() {
+        if (!compound) return window.getLong(entryOffset + 18);
+        long total = 0L;
+        for (int i = 0; i < debitLineCount(); i++) total += lineAmountMinor(i);
+        return total;
+    }
+
+    public String transactionId() {
+        if (compound) {
+            int length = Short.toUnsignedInt(window.getShort(entryOffset + 14));
+            return length == NULL_LENGTH ? null
+                    : readString(entryOffset + COMPOUND_HEADER_BYTES + lineCount() * LINE_BYTES, length);
+        }
+        int length = Short.toUnsignedInt(window.getShort(entryOffset + 26));
+        return length == NULL_LENGTH ? null : readString(entryOffset + ENTRY_HEADER_BYTES, length);
+    }
+
+    /* ---------------- Compound entry lines (debit lines first) ---------------- */
+
+    public boolean isCompound() {
+        return compound;
+    }
+
+    public int lineCount() {
+        return compound ? Short.toUnsignedInt(window.getShort(entryOffset + 10)) : 0;
+    }
+
+    public int debitLineCount() {
+        return compound ? Short.toUnsignedInt(window.getShort(entryOffset + 12)) : 0;
+    }
+
+    public int lineAccountId(int line) {
+        return toRegistryId(window.getInt(entryOffset + COMPOUND_HEADER_BYTES + line * LINE_BYTES));
+    }
+
+    public long lineAmountMinor(int line) {
+        return window.getLong(entryOffset + COMPOUND_HEADER_BYTES + line * LINE_BYTES + 4);
+    }
+
+    /* ---------------- File-level info ---------------- */
+
+    /** Offset just past the last complete record read so far. */
+    public long validLength() {
+        return validLength;
+    }
+
+    List<String> getAccountNames() {
+        return accountNames;
+    }
+
+    List<String> getCreators() {
+        return creators;
+    }
+
+    List<String> getStatuses() {
+        return statuses;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /* ---------------- internals ---------------- */
+
+    private void readDictionary(byte kind, int id, String value) throws IOException {
+        List<String> target;
+        switch (kind) {
+            case KIND_ACCOUNT -> target = accountNames;
+            case KIND_CREATOR -> target = creators;
+            case KIND_STATUS -> target = statuses;
+            default -> throw new IOException("Corrupt journal segment: unknown dictionary kind " + kind);
+        }
+        if (id != target.size()) throw new IOException("Corrupt journal segment: dictionary id out of order");
+        target.add(value);
+
+        if (kind == KIND_ACCOUNT) {
+            if (id >= accountIds.length) accountIds = Arrays.copyOf(accountIds, id * 2);
+            accountIds[id] = AccountRegistry.register(value);
+        }
+    }
+
+    private int toRegistryId(int fileId) {
+        return fileId == NONE ? AccountRegistry.NONE : accountIds[fileId];
+    }
+
+    private int compoundTxnIdLength(int start) {
+        int length = Short.toUnsignedInt(window.getShort(start + 14));
+        return length == NULL_LENGTH ? 0 : length;
+    }
+
+    private int txnIdLength(int start) {
+        int length = Short.toUnsignedInt(window.getShort(start + 26));
+        return length == NULL_LENGTH ? 0 : length;
+    }
+
+    private String readString(int offset, int length) {
+        byte[] bytes = new byte[length];
+        window.get(offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void advance(int bytes) {
+        window.position(window.position() + bytes);
+        validLength = windowStart + window.position();
+    }
+
+    // Makes sure {@code bytes} bytes from the cursor are mapped; false if the file ends first.
+    private boolean ensure(int bytes) throws IOException {
+        if (window.remaining() >= bytes) return true;
+        long position = windowStart + window.position();
+        if (position + bytes > fileSize) return false;
+        map(position);
+        return true;
+    }
+
+    private void map(long position) throws IOException {
+        long size = Math.min(fileSize - position, Math.max(WINDOW_BYTES, MAX_RECORD_BYTES));
+        window = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+        window.order(ByteOrder.BIG_ENDIAN);
+        windowStart = position;
+    }
+}
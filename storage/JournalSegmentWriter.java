@@ -0,0 +1,284 @@
+package storage;
+
+import manager.JournalListener;
+import model.AccountRegistry;
+import model.CreditTransaction;
+import model.DebitTransaction;
+import model.JournalEntry;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static storage.JournalSegment.*;
+
+/**
+ * ✍️ Append-only writer for a journal segment file.
+ *
+ * Registered as a {@link JournalListener}, every entry added to the manager
+ * is encoded into a reusable buffer and appended to the file through a
+ * {@link FileChannel}. New account / creator / status values are written as
+ * dictionary records just before the first entry that uses them.
+ *
+ * Opening an existing file re-reads its dictionaries and cuts off any
+ * truncated record left by a crash, so appends always continue a valid file.
+ * When the file was just loaded ({@link JournalSegmentReader#loadInto}), pass
+ * the load result instead: its dictionaries and valid length are reused, so
+ * the file is not scanned a second time.
+ * Writes reach the OS page cache immediately; call {@link #sync()} to force
+ * them to disk.
+ */
+public class JournalSegmentWriter implements JournalListener, Closeable {
+
+    private final FileChannel channel;
+    private ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+
+    // value → file-local id
+    private final Map<Integer, Integer> accountIds = new HashMap<>(); // registry id → file id
+    private int accountCount;
+    private final Map<String, Integer> creatorIds = new HashMap<>();
+    private final Map<String, Integer> statusIds = new HashMap<>();
+
+    public JournalSegmentWriter(Path path) throws IOException {
+        this(path, null);
+    }
+
+    /** Continues a file read by {@code loaded} (null, or a stale result, scans the file instead). */
+    public JournalSegmentWriter(Path path, JournalSegmentReader.LoadResult loaded) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (channel.size() == 0) {
+            buffer.clear();
+            buffer.putInt(MAGIC).putShort(VERSION).putShort((short) 0);
+            flushBuffer();
+        } else if (loaded != null && loaded.getFileSize() == channel.size()) {
+            resume(loaded.accountNames, loaded.creators, loaded.statuses, loaded.getValidLength());
+        } else {
+            recover(path);
+        }
+    }
+
+    @Override
+    public void onEntryAdded(JournalEntry entry) {
+        try {
+            append(entry);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not append to journal segment", e);
+        }
+    }
+
+    /** Encodes one entry (plus any new dictionary values) and appends it to the file. */
+    public synchronized void append(JournalEntry entry) throws IOException {
+        buffer.clear();
+        encodeEntry(entry);
+        flushBuffer();
+    }
+
+    /** Forces appended records to the storage device. */
+    public synchronized void sync() throws IOException {
+        channel.force(false);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+
+    /* ---------------- group commit (WriteAheadLog) ---------------- */
+
+    /** Encodes one entry after the ones already pending, without writing it. */
+    void encodePending(JournalEntry entry) {
+        encodeEntry(entry);
+    }
+
+    /** Hands over the pending records and continues with {@code empty} as the buffer. */
+    ByteBuffer takePending(ByteBuffer empty) {
+        ByteBuffer pending = buffer;
+        empty.clear();
+        buffer = empty;
+        return pending;
+    }
+
+    /** Appends records taken by {@link #takePending} and forces them to the device. */
+    void writeAndSync(ByteBuffer records) throws IOException {
+        records.flip();
+        long position = channel.size();
+        while (records.hasRemaining()) {
+            position += channel.write(records, position);
+        }
+        channel.force(false);
+    }
+
+    /* ---------------- encoding ---------------- */
+
+    /**
+     * Encodes one entry into the buffer (caller clears and flushes). If the
+     * entry can't be encoded, the buffer and the dictionaries are left as they
+     * were: no file id is handed out without its dictionary record.
+     */
+    void encodeEntry(JournalEntry entry) {
+        int mark = buffer.position();
+        int accounts = accountCount;
+        int creators = creatorIds.size();
+        int statuses = statusIds.size();
+        try {
+            if (entry.isCompound()) {
+                encodeCompound(entry);
+            } else {
+                encodeSimple(entry);
+            }
+        } catch (RuntimeException e) {
+            buffer.position(mark);
+            accountIds.values().removeIf(id -> id >= accounts);
+            accountCount = accounts;
+            creatorIds.values().removeIf(id -> id >= creators);
+            statusIds.values().removeIf(id -> id >= statuses);
+            throw e;
+        }
+    }
+
+    private void encodeSimple(JournalEntry entry) {
+        DebitTransaction debit = entry.getDebitTransaction();
+        CreditTransaction credit = entry.getCreditTransaction();
+        // Everything that can be rejected is checked before new dictionary values are recorded
+        byte[] txnId = entry.getTransactionID() == null ? null : encode(entry.getTransactionID());
+        String status = status(entry);
+
+        int debitId = debit == null ? NONE : accountId(debit.getAccountId(), debit.getAccountName());
+        int creditId = credit == null ? NONE : accountId(credit.getAccountId(), credit.getAccountName());
+        int creatorId = entry.getCreatedBy() == null ? NONE : dictionaryId(creatorIds, KIND_CREATOR, entry.getCreatedBy());
+        int statusId = status == null ? NONE : dictionaryId(statusIds, KIND_STATUS, status);
+        long amount = debit != null ? debit.getAmountMinor() : (credit != null ? credit.getAmountMinor() : 0L);
+
+        reserve(ENTRY_HEADER_BYTES + (txnId == null ? 0 : txnId.length));
+        buffer.put(TYPE_ENTRY)
+                .putInt(entry.getDate() == null ? NO_DATE : (int) entry.getDate().toEpochDay())
+                .putInt(debitId)
+                .putInt(creditId)
+                .putInt(creatorId)
+                .put((byte) statusId)
+                .putLong(amount)
+                .putShort((short) (txnId == null ? NULL_LENGTH : txnId.length));
+        if (txnId != null) buffer.put(txnId);
+    }
+
+    // Compound record: fixed header, then one (account, amount) pair per line, then the txn id
+    private void encodeCompound(JournalEntry entry) {
+        int lines = entry.getLineCount();
+        if (lines > MAX_LINES) throw new IllegalArgumentException("Too many lines for journal segment (" + lines + ").");
+        byte[] txnId = entry.getTransactionID() == null ? null : encode(entry.getTransactionID());
+        String status = status(entry);
+
+        int[] accounts = new int[lines];
+        for (int i = 0; i < lines; i++) {
+            accounts[i] = accountId(entry.getLineAccountId(i), entry.getLineAccountName(i));
+        }
+        int creatorId = entry.getCreatedBy() == null ? NONE : dictionaryId(creatorIds, KIND_CREATOR, entry.getCreatedBy());
+        int statusId = status == null ? NONE : dictionaryId(statusIds, KIND_STATUS, status);
+
+        reserve(COMPOUND_HEADER_BYTES + lines * LINE_BYTES + (txnId == null ? 0 : txnId.length));
+        buffer.put(TYPE_COMPOUND)
+                .putInt(entry.getDate() == null ? NO_DATE : (int) entry.getDate().toEpochDay())
+                .putInt(creatorId)
+                .put((byte) statusId)
+                .putShort((short) lines)
+                .putShort((short) entry.getDebitLineCount())
+                .putShort((short) (txnId == null ? NULL_LENGTH : txnId.length));
+        for (int i = 0; i < lines; i++) {
+            buffer.putInt(accounts[i]).putLong(entry.getLineAmountMinor(i));
+        }
+        if (txnId != null) buffer.put(txnId);
+    }
+
+    // Status as stored (lower-cased); rejects a new status once the one-byte id space is used up
+    private String status(JournalEntry entry) {
+        if (entry.getStatus() == null) return null;
+        String status = entry.getStatus().trim().toLowerCase();
+        if (!statusIds.containsKey(status) && statusIds.size() > Byte.MAX_VALUE) {
+            throw new IllegalStateException("Too many distinct statuses: " + entry.getStatus());
+        }
+        return status;
+    }
+
+    private int accountId(int registryId, String accountName) {
+        if (accountName == null) return NONE;
+        Integer id = accountIds.get(registryId);
+        if (id != null) return id;
+        id = accountCount;
+        writeDictionary(KIND_ACCOUNT, id, accountName.trim());
+        accountIds.put(registryId, id);
+        accountCount++;
+        return id;
+    }
+
+    private int dictionaryId(Map<String, Integer> ids, byte kind, String value) {
+        Integer id = ids.get(value);
+        if (id != null) return id;
+        id = ids.size();
+        writeDictionary(kind, id, value);
+        ids.put(value, id);
+        return id;
+    }
+
+    private void writeDictionary(byte kind, int id, String value) {
+        byte[] bytes = encode(value);
+        reserve(DICT_HEADER_BYTES + bytes.length);
+        buffer.put(TYPE_DICT).put(kind).putInt(id).putShort((short) bytes.length).put(bytes);
+    }
+
+    private void reserve(int bytes) {
+        if (buffer.remaining() >= bytes) return;
+        ByteBuffer bigger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + bytes));
+        buffer.flip();
+        bigger.put(buffer);
+        buffer = bigger;
+    }
+
+    void flushBuffer() throws IOException {
+        buffer.flip();
+        long position = channel.size();
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+        buffer.clear();
+    }
+
+    /* ---------------- reopen ---------------- */
+
+    // Reload file dictionaries by scanning the file (no load result to reuse).
+    private void recover(Path path) throws IOException {
+        try (JournalSegmentReader reader = new JournalSegmentReader(path)) {
+            while (reader.next()) {
+                // scanning only: dictionaries are collected by the reader
+            }
+            resume(reader.getAccountNames(), reader.getCreators(), reader.getStatuses(), reader.validLength());
+        }
+    }
+
+    // Adopt the file's dictionaries and drop a partially written trailing record.
+    private void resume(List<String> accounts, List<String> creators, List<String> statuses,
+                        long validLength) throws IOException {
+        for (int id = 0; id < accounts.size(); id++) {
+            accountIds.putIfAbsent(AccountRegistry.register(accounts.get(id)), id);
+        }
+        accountCount = accounts.size();
+        for (int id = 0; id < creators.size(); id++) creatorIds.put(creators.get(id), id);
+        for (int id = 0; id < statuses.size(); id++) statusIds.put(statuses.get(id), id);
+
+        if (validLength < channel.size()) {
+            channel.truncate(validLength);
+        }
+        // A version 1 file is a valid version 2 file: upgrade the header before appending compound records
+        ByteBuffer version = ByteBuffer.allocate(2);
+        channel.read(version, 4);
+        if (version.flip().getShort() < VERSION) {
+            channel.write(ByteBuffer.allocate(2).putShort(0, VERSION), 4);
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package storage;
+
+import manager.JournalLog;
+import metrics.Metrics;
+import model.JournalEntry;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 🛡️ Write-ahead log for journal entries, with group commit.
+ *
+ * Entries are encoded in the journal segment format ({@link JournalSegment})
+ * into an in-memory batch; a single committer thread writes each batch to
+ * the file and forces it to the device with one {@code fsync}, then releases
+ * every poster waiting on it. A batch is committed when it holds
+ * {@code maxBatchEntries} entries or when its oldest entry has waited
+ * {@code maxLatency}, whichever comes first; entries posted while a sync is
+ * running join the next batch. So many concurrent posts cost one sync, and
+ * a lone post waits at most {@code maxLatency} plus one sync.
+ *
+ * Set it on the manager with {@link manager.UnifiedJournalManager#setLog}:
+ * addEntry then returns only once the entry is durable (entries become
+ * visible to readers a little earlier, as soon as they are appended).
+ *
+ * The log is the journal file itself: on startup it is replayed with
+ * {@link JournalSegmentReader#loadInto}, and opening it cuts off a record
+ * left half-written by a crash. If a write or sync fails the log stops
+ * accepting entries and every waiting post fails with an
+ * {@link UncheckedIOException}.
+ */
+public class WriteAheadLog implements JournalLog, Closeable {
+
+    public static final long DEFAULT_MAX_LATENCY_MICROS = 1_000;
+    public static final int DEFAULT_MAX_BATCH_ENTRIES = 4_096;
+
+    private static final Metrics.Operation COMMIT = Metrics.operation("wal.commit");
+
+    private final JournalSegmentWriter writer;
+    private final long maxLatencyNanos;
+    private final int maxBatchEntries;
+    private final Thread committer;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition batchReady = lock.newCondition(); // committer waits here
+    private final Condition committed = lock.newCondition();  // posters wait here
+
+    // Guarded by lock
+    private ByteBuffer spare = ByteBuffer.allocate(64 * 1024);
+    private long appended;         // sequence of the last entry encoded
+    private long taken;            // sequence of the last entry handed to the committer
+    private long durable;          // sequence of the last entry forced to disk
+    private long batchStartNanos;  // when the oldest pending entry was appended
+    private IOException failure;
+    private boolean closed;
+
+    public WriteAheadLog(Path path) throws IOException {
+        this(path, TimeUnit.MICROSECONDS.toNanos(DEFAULT_MAX_LATENCY_MICROS), DEFAULT_MAX_BATCH_ENTRIES);
+    }
+
+    /**
+     * @param maxLatencyNanos how long a batch may wait to fill before it is committed (0 = commit at once)
+     * @param maxBatchEntries entries that trigger a commit without waiting
+     */
+    public WriteAheadLog(Path path, long maxLatencyNanos, int maxBatchEntries) throws IOException {
+        this(path, null, maxLatencyNanos, maxBatchEntries);
+    }
+
+    /** Same, continuing a file just read by {@link JournalSegmentReader#loadInto} without scanning it again. */
+    public WriteAheadLog(Path path, JournalSegmentReader.LoadResult loaded, long maxLatencyNanos,
+                         int maxBatchEntries) throws IOException {
+        if (maxLatencyNanos < 0) throw new IllegalArgumentException("Max latency must not be negative.");
+        if (maxBatchEntries < 1) throw new IllegalArgumentException("Batch size must be at least 1.");
+        this.writer = new JournalSegmentWriter(path, loaded);
+        this.maxLatencyNanos = maxLatencyNanos;
+        this.maxBatchEntries = maxBatchEntries;
+        this.committer = new Thread(this::commitLoop, "wal-committer");
+        this.committer.setDaemon(true);
+        this.committer.start();
+    }
+
+    @Override
+    public long append(JournalEntry entry) {
+        lock.lock();
+        try {
+            if (failure != null) throw new UncheckedIOException("Write-ahead log failed", failure);
+            if (closed) throw new IllegalStateException("Write-ahead log is closed.");
+            writer.encodePending(entry);
+            long pending = ++appended - taken;
+            if (pending == 1) {
+                batchStartNanos = System.nanoTime();
+                batchReady.signal();
+            } else if (pending >= maxBatchEntries) {
+                batchReady.signal();
+            }
+            return appended;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void awaitDurable(long sequence) {
+        lock.lock();
+        try {
+            while (durable < sequence) {
+                if (failure != null) throw new UncheckedIOException("Write-ahead log failed", failure);
+                committed.awaitUninterruptibly(); // the entry is already posted: never give up on it
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Sequence of the last entry forced to disk. */
+    public long durableSequence() {
+        lock.lock();
+        try {
+            return durable;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Commits pending entries, stops the committer and closes the file. */
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            closed = true;
+            batchReady.signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            committer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writer.close();
+        if (failure != null) throw failure;
+    }
+
+    /* ---------------- committer thread ---------------- */
+
+    private void commitLoop() {
+        while (true) {
+            ByteBuffer batch;
+            long upTo;
+            long count;
+            lock.lock();
+            try {
+                while (appended == taken && !closed) batchReady.awaitUninterruptibly();
+                if (appended == taken) return; // closed and drained
+                // Let the batch fill up until it is full or its oldest entry is due
+                long remaining;
+                while (!closed && appended - taken < maxBatchEntries
+                        && (remaining = batchStartNanos + maxLatencyNanos - System.nanoTime()) > 0) {
+                    try {
+                        batchReady.awaitNanos(remaining);
+                    } catch (InterruptedException e) {
+                        break;
+                    }
+                }
+                upTo = appended;
+                count = upTo - taken;
+                batch = writer.takePending(spare);
+                spare = null;
+                taken = upTo;
+            } finally {
+                lock.unlock();
+            }
+
+            IOException error = null;
+            try (Metrics.Timer timer = COMMIT.start()) {
+                timer.entries(count);
+                writer.writeAndSync(batch);
+            } catch (IOException e) {
+                error = e;
+            }
+
+            lock.lock();
+            try {
+                if (error != null) {
+                    failure = error;
+                } else {
+                    durable = upTo;
+                }
+                spare = batch;
+                committed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            if (error != null) return;
+        }
+    }
+}
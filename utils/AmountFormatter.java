@@ -0,0 +1,85 @@
+package utils;
+
+import model.Money;
+
+import java.math.BigDecimal;
+
+/**
+ * Fixed-scale decimal formatter for report amounts.
+ *
+ * Formats a scaled {@code long} (minor units, e.g. cents) by writing its
+ * digits straight into a caller-supplied {@code char[]}: no BigDecimal, no
+ * intermediate String. An optional grouping separator inserts thousands
+ * separators ({@code 1,234,567.89}).
+ *
+ * Instances are immutable and shared; the buffer belongs to the caller (e.g.
+ * one per {@link TextSink}), so formatting is thread-safe.
+ */
+public final class AmountFormatter {
+
+    /** Longest text any amount can produce (sign, 19 digits, separators, point). */
+    public static final int MAX_CHARS = 32;
+
+    /** {@code -1234567.89}: same text as {@code BigDecimal.toPlainString()} at scale 2. */
+    public static final AmountFormatter PLAIN = new AmountFormatter(Money.DEFAULT_SCALE, '\0');
+    /** {@code -1,234,567.89} */
+    public static final AmountFormatter GROUPED = new AmountFormatter(Money.DEFAULT_SCALE, ',');
+
+    private final int scale;
+    private final char groupingSeparator; // '\0' = no grouping
+
+    public AmountFormatter(int scale, char groupingSeparator) {
+        if (scale < 0 || scale > 9) throw new IllegalArgumentException("Scale must be in [0, 9].");
+        this.scale = scale;
+        this.groupingSeparator = groupingSeparator;
+    }
+
+    public int getScale() {
+        return scale;
+    }
+
+    /**
+     * Writes {@code minor} right-aligned at the end of {@code buf}
+     * (length ≥ {@link #MAX_CHARS}) and returns the index of its first char.
+     */
+    public int format(long minor, char[] buf) {
+        if (buf.length < MAX_CHARS) throw new IllegalArgumentException("Buffer must hold " + MAX_CHARS + " chars.");
+        int i = buf.length;
+        boolean negative = minor < 0;
+        // Work on the negative value so Long.MIN_VALUE needs no special case
+        long v = negative ? minor : -minor;
+        for (int d = 0; d < scale; d++) {
+            buf[--i] = (char) ('0' - (v % 10));
+            v /= 10;
+        }
+        if (scale > 0) buf[--i] = '.';
+        int digits = 0;
+        do {
+            if (groupingSeparator != '\0' && digits > 0 && digits % 3 == 0) buf[--i] = groupingSeparator;
+            buf[--i] = (char) ('0' - (v % 10));
+            v /= 10;
+            digits++;
+        } while (v != 0);
+        if (negative) buf[--i] = '-';
+        return i;
+    }
+
+    /**
+     * Same as {@link #format(long, char[])} for a BigDecimal amount, rounded
+     * HALF_UP to this scale (as {@code setScale(scale, HALF_UP)} would).
+     *
+     * @throws ArithmeticException if the amount does not fit in a long at this scale
+     */
+    public int format(BigDecimal amount, char[] buf) {
+        // Already at this scale (the usual case): use the unscaled value as is
+        if (amount.scale() == scale && amount.precision() < 19) return format(amount.unscaledValue().longValue(), buf);
+        return format(Money.toMinor(amount, scale), buf);
+    }
+
+    /** Appends the formatted amount to {@code sb}, right-aligned in {@code width} (0 = no padding). */
+    public StringBuilder appendTo(StringBuilder sb, long minor, int width, char[] buf) {
+        int start = format(minor, buf);
+        for (int pad = width - (buf.length - start); pad > 0; pad--) sb.append(' ');
+        return sb.append(buf, start, buf.length - start);
+    }
+}
@@ -1,21 +1,41 @@
 package utils;
 
+import model.Money;
+
 import java.time.LocalDate;
 
 public class InputValidator {
 
+    private static final double MAX_AMOUNT = Money.maxAmount(Money.DEFAULT_SCALE);
+
     public static boolean isValidAccount(String account) {
         return account != null && !account.trim().isEmpty();
     }
 
+    // Positive and small enough to convert to minor units (Money.toMinor) without overflow
     public static boolean isValidAmount(double amount) {
-        return amount > 0;
+        return amount > 0 && amount < MAX_AMOUNT;
+    }
+
+    // A filter minimum may be zero or negative, but not NaN / Infinity
+    public static boolean isValidFilterAmount(double amount) {
+        return Double.isFinite(amount);
+    }
+
+    public static boolean isValidAmountMinor(long amountMinor) {
+        return amountMinor > 0;
     }
 
     public static boolean isValidDate(LocalDate date) {
         return date != null && !date.isAfter(LocalDate.now());
     }
 
+    // Only approved entries count in reports; trimmed and case-insensitive, like the
+    // columnar store's status codes, so list and column paths agree
+    public static boolean isApproved(String status) {
+        return status != null && status.trim().equalsIgnoreCase("approved");
+    }
+
     public static boolean isValidStatus(String status) {
         if (status == null) return false;
 
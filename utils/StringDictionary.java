@@ -0,0 +1,51 @@
+package utils;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interns strings to dense int ids (0, 1, 2, ...) so columnar structures can
+ * store an {@code int} instead of a String reference per row.
+ *
+ * Thread-safe: lookups are lock-free, new values are assigned under a lock.
+ */
+public class StringDictionary {
+
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private volatile String[] values = new String[16];
+    private volatile int size;
+
+    /** Returns the id of {@code value}, assigning the next free id on first sight. */
+    public int intern(String value) {
+        Integer id = ids.get(value);
+        if (id != null) return id;
+        return internSlow(value);
+    }
+
+    /** Returns the id of {@code value}, or -1 if it was never interned. */
+    public int idOf(String value) {
+        Integer id = ids.get(value);
+        return id == null ? -1 : id;
+    }
+
+    public String valueOf(int id) {
+        if (id < 0 || id >= size) throw new IndexOutOfBoundsException("Id: " + id + ", Size: " + size);
+        return values[id];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private synchronized int internSlow(String value) {
+        Integer id = ids.get(value);
+        if (id != null) return id;
+        int next = size;
+        if (next == values.length) values = Arrays.copyOf(values, next * 2);
+        values[next] = value;
+        size = next + 1;
+        ids.put(value, next); // published last: an id is only handed out once its value is readable
+        return next;
+    }
+}
@@ -0,0 +1,212 @@
+package utils;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+/**
+ * Buffered text output for reports.
+ *
+ * Text is collected in one large char buffer and handed to the target
+ * ({@link Appendable}: a Writer, StringBuilder, PrintStream, ...) only when
+ * the buffer is full or on {@link #flush()}, instead of one synchronized,
+ * flushing {@code println} per line. Padding and amounts are written
+ * straight into the buffer (no {@code " ".repeat}, no BigDecimal/String per
+ * number; see {@link AmountFormatter}).
+ *
+ * Not thread-safe: one sink per report. I/O errors are rethrown as
+ * {@link UncheckedIOException}.
+ */
+public class TextSink implements Flushable, Closeable {
+
+    private static final int DEFAULT_BUFFER_CHARS = 64 * 1024;
+    private static final String NEWLINE = System.lineSeparator();
+
+    private final Appendable out;
+    private final char[] buffer;
+    private final char[] digits = new char[AmountFormatter.MAX_CHARS]; // scratch for one formatted amount
+    private AmountFormatter amounts = AmountFormatter.PLAIN;
+    private int pos;
+
+    public TextSink(Appendable out) {
+        this(out, DEFAULT_BUFFER_CHARS);
+    }
+
+    public TextSink(Appendable out, int bufferChars) {
+        if (out == null) throw new IllegalArgumentException("Output is required.");
+        if (bufferChars < 64) throw new IllegalArgumentException("Buffer must hold at least 64 chars.");
+        this.out = out;
+        this.buffer = new char[bufferChars];
+    }
+
+    /** Sink over System.out (same charset as println). Flush it, don't close it. */
+    public static TextSink console() {
+        return new TextSink(System.out);
+    }
+
+    /** Sink writing UTF-8 to a new (or truncated) file. Close it when done. */
+    public static TextSink toFile(Path path) throws IOException {
+        return new TextSink(new OutputStreamWriter(Files.newOutputStream(path), StandardCharsets.UTF_8));
+    }
+
+    /** Sink writing UTF-8 to a channel (file, socket, pipe). Close it when done. */
+    public static TextSink toChannel(WritableByteChannel channel) {
+        return new TextSink(Channels.newWriter(channel, StandardCharsets.UTF_8));
+    }
+
+    /* ---------------- Text ---------------- */
+
+    public TextSink append(CharSequence s) {
+        if (s == null) s = "null";
+        int length = s.length();
+        int offset = 0;
+        while (offset < length) {
+            if (pos == buffer.length) drain();
+            int n = Math.min(length - offset, buffer.length - pos);
+            if (s instanceof String) {
+                ((String) s).getChars(offset, offset + n, buffer, pos);
+            } else {
+                for (int i = 0; i < n; i++) buffer[pos + i] = s.charAt(offset + i);
+            }
+            pos += n;
+            offset += n;
+        }
+        return this;
+    }
+
+    public TextSink append(char c) {
+        if (pos == buffer.length) drain();
+        buffer[pos++] = c;
+        return this;
+    }
+
+    /** {@code s} followed by a line separator (like println). */
+    public TextSink println(CharSequence s) {
+        return append(s).newLine();
+    }
+
+    public TextSink newLine() {
+        return append(NEWLINE);
+    }
+
+    /** {@code count} copies of {@code c}. */
+    public TextSink repeat(char c, int count) {
+        for (int i = 0; i < count; i++) append(c);
+        return this;
+    }
+
+    /** {@code s}, then spaces up to {@code width} (never truncates). */
+    public TextSink padRight(CharSequence s, int width) {
+        if (s == null) s = "";
+        append(s);
+        return repeat(' ', width - s.length());
+    }
+
+    /** Spaces, then {@code s}, right-aligned in {@code width} (never truncates). */
+    public TextSink padLeft(CharSequence s, int width) {
+        if (s == null) s = "";
+        repeat(' ', width - s.length());
+        return append(s);
+    }
+
+    /** ISO date (yyyy-MM-dd), same text as {@link LocalDate#toString()}. */
+    public TextSink date(LocalDate date) {
+        int year = date.getYear();
+        if (year < 1000 || year > 9999) return append(date.toString()); // signed / short / long years
+        appendTwoDigits(year / 100).appendTwoDigits(year % 100).append('-');
+        return appendTwoDigits(date.getMonthValue()).append('-').appendTwoDigits(date.getDayOfMonth());
+    }
+
+    /* ---------------- Amounts ---------------- */
+
+    /** Formatter used by the {@code amount} methods (default {@link AmountFormatter#PLAIN}). */
+    public TextSink amounts(AmountFormatter formatter) {
+        if (formatter == null) throw new IllegalArgumentException("Formatter is required.");
+        this.amounts = formatter;
+        return this;
+    }
+
+    /** Minor units as a decimal with the formatter's scale, e.g. -1234.50. */
+    public TextSink amount(long minor) {
+        return appendDigits(amounts.format(minor, digits));
+    }
+
+    /** Same as {@link #amount(long)}, right-aligned in {@code width}. */
+    public TextSink amount(long minor, int width) {
+        int start = amounts.format(minor, digits);
+        repeat(' ', width - (digits.length - start));
+        return appendDigits(start);
+    }
+
+    /** A BigDecimal amount, rounded HALF_UP to the formatter's scale, right-aligned in {@code width}. */
+    public TextSink amount(BigDecimal amount, int width) {
+        int start = amounts.format(amount, digits);
+        repeat(' ', width - (digits.length - start));
+        return appendDigits(start);
+    }
+
+    /* ---------------- Output ---------------- */
+
+    /** Writes buffered text to the target and flushes it (if it is Flushable). */
+    @Override
+    public void flush() {
+        drain();
+        if (out instanceof Flushable) {
+            try {
+                ((Flushable) out).flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /** Flushes, then closes the target if it is Closeable (System.out/err are never closed). */
+    @Override
+    public void close() {
+        flush();
+        if (out instanceof Closeable && out != System.out && out != System.err) {
+            try {
+                ((Closeable) out).close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private void drain() {
+        if (pos == 0) return;
+        try {
+            if (out instanceof Writer) {
+                ((Writer) out).write(buffer, 0, pos);
+            } else {
+                out.append(CharBuffer.wrap(buffer, 0, pos));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        pos = 0;
+    }
+
+    private TextSink appendTwoDigits(int value) {
+        return append((char) ('0' + value / 10)).append((char) ('0' + value % 10));
+    }
+
+    private TextSink appendDigits(int start) {
+        int length = digits.length - start;
+        if (buffer.length - pos < length) drain();
+        System.arraycopy(digits, start, buffer, pos, length);
+        pos += length;
+        return this;
+    }
+}